@@ -1,7 +1,11 @@
 package org.apache.maven.plugin.announcement;
 
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.metrics.BuildMetrics;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.apache.maven.plugin.metrics.PluginEvents;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
 
 /**
  * Abstract superclass for announcement mojos.
@@ -39,6 +43,61 @@ public abstract class AbstractAnnouncementMojo extends AbstractMojo {
      */
     protected boolean runOnlyAtExecutionRoot;
 
+    /**
+     * Write the time spent in each phase of the goal, and the sizes of what was processed, to
+     * <code>target/changes-metrics.json</code> in the directory that Maven was started from. The file holds the
+     * metrics of all the changes plugin goals that ran in the build. A summary is always logged.
+     *
+     * @parameter expression="${changes.writeMetrics}" default-value="false"
+     * @since 2.4
+     */
+    protected boolean writeMetrics;
+
+    /**
+     * The metrics of the current execution.
+     */
+    private ExecutionMetrics metrics;
+
+    /**
+     * Start recording the metrics of an execution.
+     *
+     * @param goal    The goal that is executed
+     * @param project The project that the goal is executed for, or <code>null</code>
+     * @since 2.4
+     */
+    protected void startMetrics( String goal, MavenProject project )
+    {
+        PluginEvents.registerListeners( getLog() );
+        metrics = new ExecutionMetrics( goal, project == null ? null : project.getId() );
+    }
+
+    /**
+     * Get the metrics of the current execution.
+     *
+     * @return The metrics, never <code>null</code>
+     * @since 2.4
+     */
+    protected ExecutionMetrics getMetrics()
+    {
+        if ( metrics == null )
+        {
+            // Parts of the goal are run outside of execute(), for instance by a test
+            startMetrics( "announcement", null );
+        }
+        return metrics;
+    }
+
+    /**
+     * Log the metrics of the current execution, and write them if <code>writeMetrics</code> is set.
+     *
+     * @since 2.4
+     */
+    protected void reportMetrics()
+    {
+        BuildMetrics.report( getMetrics(), getLog(), mavenSession, writeMetrics );
+        metrics = null;
+    }
+
     /**
      * Returns <code>true</code> if the current project is located at the
      * Execution Root Directory (where mvn was launched).
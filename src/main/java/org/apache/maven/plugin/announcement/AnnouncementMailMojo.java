@@ -212,7 +212,15 @@ public class AnnouncementMailMojo
             {
                 getLog().info( "Connecting to Host: " + getSmtpHost() + ":" + getSmtpPort() );
 
-                sendMessage();
+                startMetrics( "announcement-mail", project );
+                try
+                {
+                    sendMessage();
+                }
+                finally
+                {
+                    reportMetrics();
+                }
             }
             else
             {
@@ -252,9 +260,12 @@ public class AnnouncementMailMojo
                 email = it.next().toString();
                 getLog().info( "Sending mail to " + email + "..." );
                 mailMsg.addTo( email, "" );
+                getMetrics().addCount( "recipients", 1 );
 
             }
+            getMetrics().startPhase( "mail" );
             mailer.send( mailMsg );
+            getMetrics().endPhase( "mail" );
             getLog().info( "Sent..." );
         }
         catch ( IOException ioe )
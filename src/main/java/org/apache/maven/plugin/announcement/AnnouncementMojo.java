@@ -23,15 +23,31 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.net.MalformedURLException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.changes.ChangesXML;
+import org.apache.maven.plugin.changes.ChangesXmlSource;
+import org.apache.maven.plugin.http.HttpTransport;
+import org.apache.maven.plugin.http.HttpTransportFactory;
+import org.apache.maven.plugin.http.MeasuringHttpTransport;
+import org.apache.maven.plugin.issues.IssueTrackerSource;
+import org.apache.maven.plugin.issues.ReleasesFuture;
+import org.apache.maven.plugin.jira.JiraProjectsDownloader;
+import org.apache.maven.plugin.jira.JiraSource;
 import org.apache.maven.plugin.jira.JiraXML;
+import org.apache.maven.plugin.metrics.PluginEvent;
+import org.apache.maven.plugin.trac.TracDownloader;
+import org.apache.maven.plugin.trac.TracSource;
 import org.apache.maven.plugins.changes.model.Action;
 import org.apache.maven.plugins.changes.model.Release;
 import org.apache.maven.project.MavenProject;
@@ -42,6 +58,7 @@ import org.apache.velocity.app.VelocityEngine;
 import org.apache.velocity.context.Context;
 import org.apache.velocity.exception.ResourceNotFoundException;
 import org.apache.velocity.exception.VelocityException;
+import org.apache.xmlrpc.client.XmlRpcClient;
 import org.codehaus.plexus.util.ReaderFactory;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.velocity.VelocityComponent;
@@ -283,6 +300,155 @@ public class AnnouncementMojo
      */
     private boolean jiraMerge;
 
+    /**
+     * The transport used to talk to JIRA. Valid values are <code>pooled</code>,
+     * which keeps persistent connections that are reused by the requests, and
+     * <code>simple</code>, which uses a single connection at a time.
+     *
+     * @parameter expression="${changes.httpTransport}" default-value="pooled"
+     * @since 2.4
+     */
+    private String httpTransport;
+
+    /**
+     * The time to wait for a connection to JIRA, in milliseconds. Use
+     * <code>0</code> to wait forever.
+     *
+     * @parameter expression="${changes.connectionTimeout}" default-value="30000"
+     * @since 2.4
+     */
+    private int connectionTimeout;
+
+    /**
+     * The time to wait for data from JIRA, in milliseconds. Use
+     * <code>0</code> to wait forever.
+     *
+     * @parameter expression="${changes.socketTimeout}" default-value="120000"
+     * @since 2.4
+     */
+    private int socketTimeout;
+
+    /**
+     * The number of times a request to JIRA is retried when it fails with an
+     * I/O error or a temporary error such as <code>503 Service
+     * Unavailable</code>. The retries wait a growing delay, or the delay that
+     * JIRA asks for.
+     * When requests keep failing, JIRA is not called anymore for the rest of
+     * the build, and the issues downloaded by an earlier
+     * build are used if they exist.
+     *
+     * @parameter expression="${changes.maxRetries}" default-value="3"
+     * @since 2.4
+     */
+    private int maxRetries;
+
+    /**
+     * If the issues downloaded from JIRA should be stored gzip compressed.
+     * A response that JIRA sent compressed is then stored as it was received.
+     * The compressed file is decompressed while it is parsed.
+     *
+     * @parameter expression="${changes.compressJiraXml}" default-value="false"
+     * @since 2.4
+     */
+    private boolean compressJiraXml;
+
+    /**
+     * The directory where the JIRA session of <code>jiraUser</code> is stored
+     * after logging in, for instance <code>${user.home}/.m2/jira-sessions</code>.
+     * Later builds, and the other modules of a multi module build, reuse the
+     * stored session until it expires instead of logging in again. The stored
+     * sessions are secrets, so the directory should only be readable by you.
+     * If this is not set, sessions are not stored.
+     *
+     * @parameter expression="${changes.jiraSessionDirectory}"
+     * @since 2.4
+     */
+    private File jiraSessionDirectory;
+
+    /**
+     * The JIRA projects to take the releases from, for a product that spans
+     * several projects. Each project is the URL of the project, in the same
+     * format as the URL in the issue management section, optionally followed
+     * by white space and a filter that selects the issues of that project.
+     * The projects are downloaded at the same time, and their issues are
+     * merged into one announcement. An issue that is found in more than one
+     * project is included once. Each project has a circuit breaker of its
+     * own, so a project that keeps failing does not stop the downloads of
+     * the other projects on the same JIRA.
+     * <p>
+     * If this is not set, the issues are downloaded from the project in the
+     * issue management section.
+     * </p>
+     *
+     * @parameter
+     * @since 2.4
+     */
+    private List jiraProjects;
+
+    /**
+     * The maximum number of <code>jiraProjects</code> to download at the
+     * same time.
+     *
+     * @parameter expression="${changes.jiraThreads}" default-value="4"
+     * @since 2.4
+     */
+    private int jiraThreads;
+
+    /**
+     * The issue management systems to get the releases from. Valid values are
+     * <code>changes.xml</code>, <code>JIRA</code> and <code>Trac</code>. The
+     * releases of all the systems are retrieved at the same time, and releases
+     * with the same version are merged into one. JIRA uses the issue
+     * management URL of the project, unless <code>jiraProjects</code> is set,
+     * and so does Trac, unless <code>tracUrl</code> is set. JIRA and Trac
+     * cannot both use the issue management URL.
+     * <p>
+     * If this is not set, <code>changes.xml</code> is used, or JIRA if
+     * <code>generateJiraAnnouncement</code> is set, or both if
+     * <code>jiraMerge</code> is set.
+     * </p>
+     *
+     * @parameter
+     * @since 2.4
+     */
+    private List issueManagementSystems;
+
+    /**
+     * The URL of the Trac installation to take the releases from, for
+     * instance <code>http://trac.example.org/project</code>. If this is not
+     * set, the issue management URL of the project is used, and its system
+     * must be Trac.
+     *
+     * @parameter expression="${changes.tracUrl}"
+     * @since 2.4
+     */
+    private String tracUrl;
+
+    /**
+     * The Trac user to log in as, when releases are taken from Trac.
+     *
+     * @parameter default-value="" expression="${changes.tracUser}"
+     * @since 2.4
+     */
+    private String tracUser;
+
+    /**
+     * The password of the Trac user.
+     *
+     * @parameter default-value="" expression="${changes.tracPassword}"
+     * @since 2.4
+     */
+    private String tracPassword;
+
+    /**
+     * The Trac query that selects the tickets to take the releases from.
+     * The tickets are grouped into releases by their milestone.
+     *
+     * @parameter default-value="order=id" expression="${changes.tracQuery}"
+     * @since 2.4
+     */
+    private String tracQuery;
+
     /**
      * Map of custom parameters for the announcement.
      * This Map will be passed to the template.
@@ -311,44 +477,203 @@ public class AnnouncementMojo
         }
         else
         {
-            if ( this.jiraMerge )
+            startMetrics( "announcement-generate", project );
+            try
             {
-                ChangesXML changesXML =  new ChangesXML( getXmlPath(), getLog() );
-                List changesReleases = changesXML.getReleaseList();
-                if ( validateIfIssueManagementComplete() )
-                {
-                    List jiraReleases = getJiraReleases();
-                    List mergedReleases = mergeReleases( changesReleases, jiraReleases );
-                    doGenerate( mergedReleases );
-                }
-                else
-                {
-                    throw new MojoExecutionException( "Something is wrong with the Issue Management section. See previous error messages." );
-                }
+                generate();
+            }
+            finally
+            {
+                reportMetrics();
+            }
+        }
+    }
+
+    private void generate()
+        throws MojoExecutionException
+    {
+        List systems = getIssueManagementSystems();
+        if ( systems.size() == 1 && ChangesXmlSource.NAME.equalsIgnoreCase( (String) systems.get( 0 ) ) )
+        {
+            if ( getXmlPath().exists() )
+            {
+                ChangesXmlSource changesXmlSource = new ChangesXmlSource( getXmlPath(), getLog(), getMetrics() );
+                List releases = changesXmlSource.getReleases();
+                setXml( changesXmlSource.getChangesXml() );
+
+                getLog().info( "Creating announcement file from " + getXmlPath() + "..." );
+
+                doGenerate( releases );
             }
             else
             {
-                if ( !generateJiraAnnouncement )
-                {
-                    if ( getXmlPath().exists() )
-                    {
-                        setXml( new ChangesXML( getXmlPath(), getLog() ) );
-
-                        getLog().info( "Creating announcement file from " + getXmlPath() + "..." );
-
-                        doGenerate( getXml().getReleaseList() );
-                    }
-                    else
-                    {
-                        getLog().warn( "changes.xml file " + getXmlPath().getAbsolutePath() + " does not exist." );
-                    }
-                }
-                else
+                getLog().warn( "changes.xml file " + getXmlPath().getAbsolutePath() + " does not exist." );
+            }
+        }
+        else if ( systems.size() == 1 && JiraSource.NAME.equalsIgnoreCase( (String) systems.get( 0 ) ) )
+        {
+            doJiraGenerate();
+        }
+        else
+        {
+            List releases = getReleases( systems );
+
+            getLog().info( "Creating announcement file from " + systems + "..." );
+
+            doGenerate( releases );
+        }
+    }
+
+    /**
+     * Get the issue management systems to take the releases from.
+     *
+     * @return A <code>List</code> of system names
+     */
+    private List getIssueManagementSystems()
+    {
+        if ( issueManagementSystems != null && !issueManagementSystems.isEmpty() )
+        {
+            return issueManagementSystems;
+        }
+
+        List systems = new ArrayList();
+        if ( jiraMerge )
+        {
+            systems.add( ChangesXmlSource.NAME );
+            systems.add( JiraSource.NAME );
+        }
+        else if ( generateJiraAnnouncement )
+        {
+            systems.add( JiraSource.NAME );
+        }
+        else
+        {
+            systems.add( ChangesXmlSource.NAME );
+        }
+        return systems;
+    }
+
+    /**
+     * Get the releases of several issue management systems at the same time, and merge them.
+     *
+     * @param systems A <code>List</code> of system names
+     * @return A <code>List</code> of <code>Release</code>s
+     * @throws MojoExecutionException If a system is not supported or its releases could not be retrieved
+     * @since 2.4
+     */
+    protected List getReleases( List systems )
+        throws MojoExecutionException
+    {
+        if ( containsIgnoreCase( systems, JiraSource.NAME ) && containsIgnoreCase( systems, TracSource.NAME )
+            && !isMultiProject() && StringUtils.isEmpty( tracUrl ) )
+        {
+            throw new MojoExecutionException( "JIRA and Trac cannot both use the issue management URL."
+                + " Set jiraProjects or tracUrl." );
+        }
+
+        List transports = new ArrayList();
+        try
+        {
+            List sources = new ArrayList( systems.size() );
+            for ( Iterator iterator = systems.iterator(); iterator.hasNext(); )
+            {
+                sources.add( createSource( (String) iterator.next(), transports ) );
+            }
+
+            List futures = new ArrayList( sources.size() );
+            for ( Iterator iterator = sources.iterator(); iterator.hasNext(); )
+            {
+                futures.add( ReleasesFuture.fetch( (IssueTrackerSource) iterator.next() ) );
+            }
+            List releaseLists = ReleasesFuture.getAll( futures );
+
+            getMetrics().startPhase( "merge" );
+            List mergedReleases = mergeReleases( releaseLists );
+            getMetrics().endPhase( "merge" );
+            return mergedReleases;
+        }
+        finally
+        {
+            for ( Iterator iterator = transports.iterator(); iterator.hasNext(); )
+            {
+                ( (HttpTransport) iterator.next() ).close();
+            }
+        }
+    }
+
+    /**
+     * Create the source of the releases of an issue management system.
+     *
+     * @param system     The name of the system
+     * @param transports The list to add the transport that the source uses to, so that it can be closed afterwards
+     * @return The source
+     * @throws MojoExecutionException If the system is not supported or not configured properly
+     */
+    private IssueTrackerSource createSource( String system, List transports )
+        throws MojoExecutionException
+    {
+        if ( ChangesXmlSource.NAME.equalsIgnoreCase( system ) )
+        {
+            return new ChangesXmlSource( getXmlPath(), getLog(), getMetrics() );
+        }
+        else if ( JiraSource.NAME.equalsIgnoreCase( system ) )
+        {
+            if ( !isJiraConfigured() )
+            {
+                throw new MojoExecutionException(
+                    "Something is wrong with the Issue Management section. See previous error messages." );
+            }
+            return createJiraSource( transports );
+        }
+        else if ( TracSource.NAME.equalsIgnoreCase( system ) )
+        {
+            String url = tracUrl;
+            if ( StringUtils.isEmpty( url ) )
+            {
+                if ( !validateIfIssueManagementComplete( TracSource.NAME ) )
                 {
-                    doJiraGenerate();
+                    throw new MojoExecutionException(
+                        "Something is wrong with the Issue Management section. See previous error messages." );
                 }
+                url = project.getIssueManagement().getUrl();
+            }
+            url = url.trim();
+            if ( url.endsWith( "/" ) )
+            {
+                url = url.substring( 0, url.length() - 1 );
+            }
+
+            HttpTransport transport = createTransport( url, false );
+            transports.add( transport );
+            try
+            {
+                XmlRpcClient client =
+                    TracDownloader.createClient( url, tracUser, tracPassword, connectionTimeout, socketTimeout,
+                                                 transport );
+                TracDownloader downloader = new TracDownloader( url, client );
+                downloader.setMetrics( getMetrics() );
+                return new TracSource( downloader, tracQuery );
+            }
+            catch ( MalformedURLException e )
+            {
+                throw new MojoExecutionException( "The Trac URL is incorrect." );
             }
         }
+        throw new MojoExecutionException( "The issue management system " + system
+            + " is not supported. Supported systems are " + ChangesXmlSource.NAME + ", " + JiraSource.NAME + " and "
+            + TracSource.NAME + "." );
+    }
+
+    private static boolean containsIgnoreCase( List values, String value )
+    {
+        for ( Iterator iterator = values.iterator(); iterator.hasNext(); )
+        {
+            if ( value.equalsIgnoreCase( (String) iterator.next() ) )
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -410,7 +735,11 @@ public class AnnouncementMojo
             }
 
 
+            getMetrics().addCount( "releases", releases == null ? 0 : releases.size() );
+
+            getMetrics().startPhase( "render" );
             processTemplate( context, getOutputDirectory(), template );
+            getMetrics().endPhase( "render" );
         }
         catch ( ResourceNotFoundException rnfe )
         {
@@ -539,6 +868,7 @@ public class AnnouncementMojo
     {
         File f;
 
+        PluginEvent event = PluginEvent.begin( PluginEvent.RENDER, template );
         try
         {
             f = new File( outputDirectory, template );
@@ -571,6 +901,8 @@ public class AnnouncementMojo
             writer.close();
 
             getLog().info( "Created template " + f );
+
+            event.setBytes( f.length() );
         }
 
         catch ( ResourceNotFoundException rnfe )
@@ -590,12 +922,16 @@ public class AnnouncementMojo
             }
             throw new MojoExecutionException( e.toString(), e.getCause() );
         }
+        finally
+        {
+            event.commit();
+        }
     }
 
     public void doJiraGenerate()
         throws MojoExecutionException
     {
-        if ( validateIfIssueManagementComplete() )
+        if ( isJiraConfigured() )
         {
             List releases = getJiraReleases();
 
@@ -612,13 +948,78 @@ public class AnnouncementMojo
     protected List getJiraReleases()
         throws MojoExecutionException
     {
-        JiraDownloader jiraDownloader = new JiraDownloader();
+        List transports = new ArrayList();
+        try
+        {
+            return createJiraSource( transports ).getReleases();
+        }
+        finally
+        {
+            for ( Iterator iterator = transports.iterator(); iterator.hasNext(); )
+            {
+                ( (HttpTransport) iterator.next() ).close();
+            }
+        }
+    }
+
+    private boolean isMultiProject()
+    {
+        return jiraProjects != null && !jiraProjects.isEmpty();
+    }
+
+    private boolean isJiraConfigured()
+    {
+        return isMultiProject() || validateIfIssueManagementComplete( JiraSource.NAME );
+    }
+
+    /**
+     * Create the source of the releases of the JIRA projects.
+     *
+     * @param transports The list to add the transports that the source uses to, so that they can be closed afterwards
+     * @return The source
+     * @throws MojoExecutionException If the configured transport does not exist
+     */
+    private JiraSource createJiraSource( List transports )
+        throws MojoExecutionException
+    {
+        JiraProjectsDownloader downloader = new JiraProjectsDownloader( jiraThreads, getLog() );
+        if ( isMultiProject() )
+        {
+            for ( int i = 0; i < jiraProjects.size(); i++ )
+            {
+                String jiraProject = (String) jiraProjects.get( i );
+                downloader.addDownloader( createJiraDownloader( JiraProjectsDownloader.getProjectUrl( jiraProject ),
+                    JiraProjectsDownloader.getProjectFilter( jiraProject, null ),
+                    JiraProjectsDownloader.getOutput( jiraXML, i ), transports ) );
+            }
+        }
+        else
+        {
+            downloader.addDownloader( createJiraDownloader( null, null, jiraXML, transports ) );
+        }
+        return new JiraSource( downloader, getMetrics() );
+    }
 
-        File jiraXMLFile = jiraXML;
+    /**
+     * Create the downloader of a JIRA project.
+     *
+     * @param url        The URL of the project, or <code>null</code> for the project in the issue management section
+     * @param filter     The filter of the project, or <code>null</code>
+     * @param output     The file to store the issues in
+     * @param transports The list to add the transport of the downloader to, so that it can be closed afterwards
+     * @return The downloader
+     * @throws MojoExecutionException If the configured transport does not exist
+     */
+    private JiraDownloader createJiraDownloader( String url, String filter, File output, List transports )
+        throws MojoExecutionException
+    {
+        JiraDownloader jiraDownloader = new JiraDownloader();
 
         jiraDownloader.setLog( getLog() );
 
-        jiraDownloader.setOutput( jiraXMLFile );
+        jiraDownloader.setOutput( output );
+
+        jiraDownloader.setFilter( filter );
 
         jiraDownloader.setStatusIds( statusIds );
 
@@ -634,28 +1035,49 @@ public class AnnouncementMojo
 
         jiraDownloader.setJiraPassword( jiraPassword );
 
-        try
-        {
-            jiraDownloader.doExecute();
+        jiraDownloader.setFields( JiraXML.RELEASE_FIELDS );
 
-            if ( jiraXMLFile.exists() )
-            {
-                JiraXML jiraParser = new JiraXML( jiraXMLFile );
+        jiraDownloader.setCompressOutput( compressJiraXml );
 
-                List issues = jiraParser.getIssueList();
+        jiraDownloader.setSessionDirectory( jiraSessionDirectory );
 
-                return JiraXML.getReleases( issues );
-            }
-            else
-            {
-                getLog().warn( "jira file " + jiraXMLFile.getPath() + " doesn't exists " );
-            }
-            return Collections.EMPTY_LIST;
+        jiraDownloader.setIssueManagementUrl( url );
+
+        // Each project stops being called on its own when it fails too often
+        HttpTransport transport = createTransport( jiraDownloader.getIssueManagementUrl(), isMultiProject() );
+        transports.add( transport );
+        jiraDownloader.setTransport( transport );
+
+        return jiraDownloader;
+    }
+
+    /**
+     * Create the transport to talk to the issue tracker with.
+     *
+     * @param url The URL of the issue tracker
+     * @return The transport, which must be closed when it is no longer needed
+     * @throws MojoExecutionException If the configured transport does not exist
+     */
+    private HttpTransport createTransport( String url, boolean ownBreaker )
+        throws MojoExecutionException
+    {
+        HttpTransport transport;
+        try
+        {
+            transport = HttpTransportFactory.createTransport( httpTransport );
         }
-        catch ( Exception e )
+        catch ( IllegalArgumentException e )
         {
-            throw new MojoExecutionException( "Failed to extract JIRA issues from the downloaded file", e );
+            throw new MojoExecutionException( e.getMessage() );
         }
+
+        transport.setTimeouts( connectionTimeout, socketTimeout );
+
+        transport = new MeasuringHttpTransport( transport, getMetrics().getHttpMetrics() );
+
+        Date buildStartTime = mavenSession == null ? null : mavenSession.getStartTime();
+        return HttpTransportFactory.createRetryingTransport( transport, url, ownBreaker, maxRetries, buildStartTime,
+                                                             getLog() );
     }
 
     /**
@@ -682,7 +1104,20 @@ public class AnnouncementMojo
             return firstReleases;
         }
 
+        // Index the releases from the second issue tracker by version, keeping the first release of each version
+        Map secondReleasesByVersion = new HashMap();
+        for ( Iterator iterator = secondReleases.iterator(); iterator.hasNext(); )
+        {
+            Release secondRelease = (Release) iterator.next();
+            String version = secondRelease.getVersion();
+            if ( version != null && !secondReleasesByVersion.containsKey( version ) )
+            {
+                secondReleasesByVersion.put( version, secondRelease );
+            }
+        }
+
         List mergedReleases = new ArrayList();
+        Set mergedVersions = new HashSet();
 
         // Loop through the releases from the first issue tracker, merging in
         // actions from releases with the same version from the second issue
@@ -690,7 +1125,7 @@ public class AnnouncementMojo
         for ( Iterator iterator = firstReleases.iterator(); iterator.hasNext(); )
         {
             Release firstRelease = (Release) iterator.next();
-            Release secondRelease = getRelease( secondReleases, firstRelease.getVersion() );
+            Release secondRelease = (Release) secondReleasesByVersion.get( firstRelease.getVersion() );
             if ( secondRelease != null )
             {
                 if ( secondRelease.getActions() != null )
@@ -698,44 +1133,69 @@ public class AnnouncementMojo
                     firstRelease.getActions().addAll( secondRelease.getActions() );
                 }
             }
-            mergedReleases.add(firstRelease);
+            mergedReleases.add( firstRelease );
+            if ( firstRelease.getVersion() != null )
+            {
+                mergedVersions.add( firstRelease.getVersion() );
+            }
         }
 
         // Handle releases that are only in the second issue tracker
         for ( Iterator iterator = secondReleases.iterator(); iterator.hasNext(); )
         {
             Release secondRelease = (Release) iterator.next();
-            Release mergedRelease = getRelease( mergedReleases, secondRelease.getVersion() );
-            if ( mergedRelease == null )
+            if ( secondRelease.getVersion() == null || mergedVersions.add( secondRelease.getVersion() ) )
             {
-                mergedReleases.add(secondRelease);
+                mergedReleases.add( secondRelease );
             }
         }
         return mergedReleases;
     }
 
+    /**
+     * Merge the releases from several issue trackers. Releases with the same version are merged into one release,
+     * which has the place of the release from the first issue tracker it appears in.
+     *
+     * @param releaseLists A <code>List</code> with a <code>List</code> of <code>Release</code>s for each issue
+     *                     tracker
+     * @return A list containing the merged releases
+     * @since 2.4
+     */
+    protected List mergeReleases( List releaseLists )
+    {
+        List mergedReleases = null;
+        for ( Iterator iterator = releaseLists.iterator(); iterator.hasNext(); )
+        {
+            mergedReleases = mergeReleases( mergedReleases, (List) iterator.next() );
+        }
+        return mergedReleases == null ? Collections.EMPTY_LIST : mergedReleases;
+    }
+
     /**
      * This method was copied from JiraMojo and modified.
+     *
+     * @param system The issue management system that the announcement is made from
      */
-    private boolean validateIfIssueManagementComplete()
+    private boolean validateIfIssueManagementComplete( String system )
     {
         if ( project.getIssueManagement() == null )
         {
-            getLog().error( "No Issue Management set. No JIRA announcement will be made." );
+            getLog().error( "No Issue Management set. No " + system + " announcement will be made." );
 
             return false;
         }
         else if ( ( project.getIssueManagement().getUrl() == null )
             || ( project.getIssueManagement().getUrl().trim().equals( "" ) ) )
         {
-            getLog().error( "No URL set in Issue Management. No JIRA announcement will be made." );
+            getLog().error( "No URL set in Issue Management. No " + system + " announcement will be made." );
 
             return false;
         }
         else if ( ( project.getIssueManagement().getSystem() != null )
-            && !( project.getIssueManagement().getSystem().equalsIgnoreCase( "jira" ) ) )
+            && !( project.getIssueManagement().getSystem().equalsIgnoreCase( system ) ) )
         {
-            getLog().error( "No JIRA Issue Management system configured. No JIRA announcement will be made." );
+            getLog().error( "No " + system + " Issue Management system configured. No " + system
+                + " announcement will be made." );
 
             return false;
         }
@@ -33,6 +33,7 @@ import javax.mail.Transport;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
+import org.apache.maven.plugin.metrics.PluginEvent;
 import org.codehaus.plexus.mailsender.AbstractMailSender;
 import org.codehaus.plexus.mailsender.MailMessage;
 import org.codehaus.plexus.mailsender.MailSenderException;
@@ -117,6 +118,7 @@ public class ProjectJavamailMailSender
     {
         verify( mail );
 
+        PluginEvent event = PluginEvent.begin( PluginEvent.MAIL, getSmtpHost() + ":" + getSmtpPort() );
         try
         {
             Authenticator auth = null;
@@ -191,10 +193,19 @@ public class ProjectJavamailMailSender
 
             // Send the message
             Transport.send( msg );
+
+            if ( event.isEnabled() && msg.getAllRecipients() != null )
+            {
+                event.setItemCount( msg.getAllRecipients().length );
+            }
         }
         catch ( MessagingException e )
         {
             throw new MailSenderException( "Error while sending mail.", e );
         }
+        finally
+        {
+            event.commit();
+        }
     }
 }
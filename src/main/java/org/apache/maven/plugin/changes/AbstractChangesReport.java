@@ -35,17 +35,28 @@ import org.apache.maven.doxia.siterenderer.Renderer;
 import org.apache.maven.doxia.siterenderer.RendererException;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.siterenderer.sink.SiteRendererSink;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.export.RecordExporter;
+import org.apache.maven.plugin.metrics.BuildMetrics;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.apache.maven.plugin.metrics.PluginEvents;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
+import org.codehaus.doxia.sink.Sink;
 import org.codehaus.plexus.i18n.I18N;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.WriterFactory;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -61,6 +72,24 @@ import java.util.Map;
 public abstract class AbstractChangesReport
     extends AbstractMavenReport
 {
+    /**
+     * The resolved skin files, keyed by skin coordinates. Shared by all the reports in the build session that is
+     * identified by {@link #cacheSessionStartTime}.
+     */
+    private static final Map SKIN_FILES = new HashMap();
+
+    /**
+     * The site rendering contexts, keyed by skin coordinates and locale. Shared by all the reports in the build
+     * session that is identified by {@link #cacheSessionStartTime}. They are never handed out, each report renders
+     * with a copy of its own.
+     */
+    private static final Map SITE_RENDERING_CONTEXTS = new HashMap();
+
+    /**
+     * The start time of the build session that the cached skins and site rendering contexts belong to.
+     */
+    private static Date cacheSessionStartTime;
+
     /**
      * Report output directory. Note that this parameter is only relevant if the goal is run from the command line or
      * from the default build lifecycle. If the goal is run indirectly as part of a site generation, the output
@@ -86,6 +115,17 @@ public abstract class AbstractChangesReport
      */
     protected MavenProject project;
 
+    /**
+     * The Maven Session.
+     *
+     * @parameter expression="${session}"
+     * @readonly
+     * @required
+     *
+     * @since 2.2
+     */
+    protected MavenSession session;
+
     /**
      * Local Repository.
      *
@@ -112,11 +152,86 @@ public abstract class AbstractChangesReport
      */
     protected I18N i18n;
 
-    private File getSkinArtifactFile()
+    /**
+     * Write the time spent in each phase of the report, and the sizes of what was processed, to
+     * <code>target/changes-metrics.json</code> in the directory that Maven was started from. The file holds the
+     * metrics of all the changes plugin goals that ran in the build. A summary is always logged.
+     *
+     * @parameter expression="${changes.writeMetrics}" default-value="false"
+     * @since 2.4
+     */
+    protected boolean writeMetrics;
+
+    /**
+     * Also export the records that the report is made of, such as the JIRA issues, the Trac tickets or the actions of
+     * <code>changes.xml</code>, so that other tools can use them without calling the issue tracker again. Valid
+     * formats are <code>csv</code> and <code>ndjson</code>, which is one JSON object per line. Multiple formats can be
+     * separated by commas. The files are named after the report, for instance <code>jira-report.csv</code>.
+     *
+     * @parameter expression="${changes.exportFormats}" default-value=""
+     * @since 2.4
+     */
+    private String exportFormats;
+
+    /**
+     * The directory to write the exported records to.
+     *
+     * @parameter expression="${changes.exportDirectory}" default-value="${project.build.directory}/changes-export"
+     * @since 2.4
+     */
+    private File exportDirectory;
+
+    /**
+     * The metrics of the report that is being generated, or <code>null</code> outside of the generation.
+     */
+    private ExecutionMetrics metrics;
+
+    /**
+     * Get the key used to cache things that depend on the skin.
+     *
+     * @param skin The skin
+     * @return The coordinates of the skin
+     */
+    private static String getSkinKey( Skin skin )
+    {
+        return skin.getGroupId() + ":" + skin.getArtifactId() + ":" + skin.getVersion();
+    }
+
+    /**
+     * Forget the cached skins and site rendering contexts if they belong to another build session than the current
+     * one. The plugin classes can outlive a build session, for instance when Maven is embedded.
+     */
+    private void checkCacheSession()
+    {
+        Date sessionStartTime = session == null ? null : session.getStartTime();
+        if ( cacheSessionStartTime == null || !cacheSessionStartTime.equals( sessionStartTime ) )
+        {
+            SKIN_FILES.clear();
+            SITE_RENDERING_CONTEXTS.clear();
+            cacheSessionStartTime = sessionStartTime;
+        }
+    }
+
+    private File getSkinArtifactFile( Skin skin )
         throws MojoExecutionException
     {
-        Skin skin = Skin.getDefaultSkin();
+        String key = getSkinKey( skin );
+        File skinFile = (File) SKIN_FILES.get( key );
+        if ( skinFile == null )
+        {
+            skinFile = resolveSkinArtifactFile( skin );
+            SKIN_FILES.put( key, skinFile );
+        }
+        else
+        {
+            getLog().debug( "Using the skin " + key + " that was already resolved in this build." );
+        }
+        return skinFile;
+    }
 
+    private File resolveSkinArtifactFile( Skin skin )
+        throws MojoExecutionException
+    {
         String version = skin.getVersion();
         Artifact artifact;
         try
@@ -147,6 +262,66 @@ public abstract class AbstractChangesReport
         return artifact.getFile();
     }
 
+    /**
+     * Get a site rendering context for the default skin. The skin is loaded only once per build session and
+     * locale, but every call gets a context of its own, so that reports running in parallel do not change each
+     * other's window title.
+     *
+     * @param locale The locale to render the report in
+     * @return A site rendering context, with the name of this report as the default window title
+     */
+    private SiteRenderingContext getSiteRenderingContext( Locale locale )
+        throws MojoExecutionException, IOException
+    {
+        synchronized ( SITE_RENDERING_CONTEXTS )
+        {
+            checkCacheSession();
+
+            Skin skin = Skin.getDefaultSkin();
+            String key = getSkinKey( skin ) + ":" + locale;
+            SiteRenderingContext siteContext = (SiteRenderingContext) SITE_RENDERING_CONTEXTS.get( key );
+            if ( siteContext == null )
+            {
+                DecorationModel model = new DecorationModel();
+                model.setBody( new Body() );
+                Map attributes = new HashMap();
+                attributes.put( "outputEncoding", "UTF-8" );
+                siteContext = siteRenderer.createContextForSkin( getSkinArtifactFile( skin ), attributes, model,
+                                                                 getName( locale ), locale );
+                SITE_RENDERING_CONTEXTS.put( key, siteContext );
+            }
+            return copySiteRenderingContext( siteContext, getName( locale ) );
+        }
+    }
+
+    /**
+     * Copy a site rendering context, sharing only the parts that are not changed while rendering.
+     *
+     * @param siteContext The context to copy
+     * @param defaultWindowTitle The default window title of the copy
+     * @return The copy
+     */
+    static SiteRenderingContext copySiteRenderingContext( SiteRenderingContext siteContext,
+                                                          String defaultWindowTitle )
+    {
+        SiteRenderingContext copy = new SiteRenderingContext();
+        copy.setTemplateName( siteContext.getTemplateName() );
+        copy.setUsingDefaultTemplate( siteContext.isUsingDefaultTemplate() );
+        copy.setTemplateClassLoader( siteContext.getTemplateClassLoader() );
+        copy.setTemplateProperties( siteContext.getTemplateProperties() );
+        copy.setSkinJarFile( siteContext.getSkinJarFile() );
+        copy.setLocale( siteContext.getLocale() );
+        copy.setDecoration( siteContext.getDecoration() );
+        copy.setInputEncoding( siteContext.getInputEncoding() );
+        copy.setOutputEncoding( siteContext.getOutputEncoding() );
+        for ( Iterator i = siteContext.getSiteDirectories().iterator(); i.hasNext(); )
+        {
+            copy.addSiteDirectory( (File) i.next() );
+        }
+        copy.setDefaultWindowTitle( defaultWindowTitle );
+        return copy;
+    }
+
     public void execute()
         throws MojoExecutionException
     {
@@ -155,16 +330,13 @@ public abstract class AbstractChangesReport
             return;
         }
 
+        metrics = createMetrics();
+
         // TODO: push to a helper? Could still be improved by taking more of the site information from the site plugin
         try
         {
-            DecorationModel model = new DecorationModel();
-            model.setBody( new Body() );
-            Map attributes = new HashMap();
-            attributes.put( "outputEncoding", "UTF-8" );
             Locale locale = Locale.getDefault();
-            SiteRenderingContext siteContext = siteRenderer.createContextForSkin( getSkinArtifactFile(), attributes,
-                                                                                  model, getName( locale ), locale );
+            SiteRenderingContext siteContext = getSiteRenderingContext( locale );
 
             RenderingContext context = new RenderingContext( outputDirectory, getOutputName() + ".html" );
 
@@ -175,7 +347,9 @@ public abstract class AbstractChangesReport
 
             Writer writer = new FileWriter( new File( outputDirectory, getOutputName() + ".html" ) );
 
+            metrics.startPhase( "write" );
             siteRenderer.generateDocument( writer, sink, siteContext );
+            metrics.endPhase( "write" );
 
             siteRenderer.copyResources( siteContext, new File( project.getBasedir(), "src/site/resources" ),
                                         outputDirectory );
@@ -195,6 +369,191 @@ public abstract class AbstractChangesReport
             throw new MojoExecutionException(
                 "An error has occurred in " + getName( Locale.ENGLISH ) + " report generation.", e );
         }
+        finally
+        {
+            reportMetrics();
+        }
+    }
+
+    /**
+     * Generate the report, recording its metrics. When the report is generated by {@link #execute()} the metrics are
+     * reported there, so that writing the page is included.
+     *
+     * @see org.apache.maven.reporting.AbstractMavenReport#generate(org.codehaus.doxia.sink.Sink, java.util.Locale)
+     */
+    public void generate( Sink sink, Locale locale )
+        throws MavenReportException
+    {
+        if ( metrics != null )
+        {
+            super.generate( sink, locale );
+            return;
+        }
+
+        metrics = createMetrics();
+        try
+        {
+            super.generate( sink, locale );
+        }
+        finally
+        {
+            reportMetrics();
+        }
+    }
+
+    private ExecutionMetrics createMetrics()
+    {
+        PluginEvents.registerListeners( getLog() );
+        return new ExecutionMetrics( getOutputName(), project == null ? null : project.getId() );
+    }
+
+    private void reportMetrics()
+    {
+        BuildMetrics.report( metrics, getLog(), session, writeMetrics );
+        metrics = null;
+    }
+
+    /**
+     * Get the metrics of the report that is being generated.
+     *
+     * @return The metrics, never <code>null</code>
+     * @since 2.4
+     */
+    protected ExecutionMetrics getMetrics()
+    {
+        if ( metrics == null )
+        {
+            // The report is generated outside of execute() and generate(), for instance by a test
+            metrics = createMetrics();
+        }
+        return metrics;
+    }
+
+    /**
+     * Find out if the records of this report should be exported.
+     *
+     * @return <code>true</code> if export formats are configured
+     * @since 2.4
+     */
+    protected boolean isExportEnabled()
+    {
+        return exportFormats != null && exportFormats.trim().length() > 0;
+    }
+
+    /**
+     * Create an exporter for the records of this report, in the formats of the <code>exportFormats</code> parameter.
+     *
+     * @param columns The names of the columns of the records
+     * @return The exporter, which must be closed with {@link #closeExporter}, or <code>null</code> if no export is
+     *         wanted
+     * @throws MavenReportException If a format is not supported or the files could not be created
+     * @since 2.4
+     */
+    protected RecordExporter createExporter( String[] columns )
+        throws MavenReportException
+    {
+        List formats;
+        try
+        {
+            formats = RecordExporter.parseFormats( exportFormats );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new MavenReportException( e.getMessage() );
+        }
+        if ( formats.isEmpty() )
+        {
+            return null;
+        }
+
+        try
+        {
+            getMetrics().startPhase( "export" );
+            return new RecordExporter( exportDirectory, getOutputName(), formats, columns );
+        }
+        catch ( IOException e )
+        {
+            throw new MavenReportException( "Unable to create the export files in " + exportDirectory + ".", e );
+        }
+    }
+
+    /**
+     * Close an exporter that was created by {@link #createExporter}, and report what was exported.
+     *
+     * @param exporter The exporter
+     * @throws MavenReportException If the files could not be written
+     * @since 2.4
+     */
+    protected void closeExporter( RecordExporter exporter )
+        throws MavenReportException
+    {
+        try
+        {
+            exporter.close();
+        }
+        catch ( IOException e )
+        {
+            throw new MavenReportException( "Unable to export the records to " + exporter.getFiles() + ".", e );
+        }
+        finally
+        {
+            getMetrics().endPhase( "export" );
+            getMetrics().addCount( "exported", exporter.getRecordCount() );
+        }
+        getLog().info( "Exported " + exporter.getRecordCount() + " records to " + exporter.getFiles() + "." );
+    }
+
+    /**
+     * Create a sink for an additional page of this report, that is written next to the report itself.
+     *
+     * @param pageName The output name of the page, without the extension
+     * @return A sink to generate the page into, that must be passed to {@link #writePage} afterwards
+     * @since 2.4
+     */
+    protected SiteRendererSink createPageSink( String pageName )
+    {
+        return new SiteRendererSink( new RenderingContext( getReportOutputDirectory(), pageName + ".html" ) );
+    }
+
+    /**
+     * Decorate an additional page of this report with the default skin and write it next to the report itself.
+     *
+     * @param sink The sink that was created by {@link #createPageSink} and that the page was generated into
+     * @param pageName The output name of the page, without the extension
+     * @param locale The locale of the report
+     * @throws MavenReportException If the page could not be written
+     * @since 2.4
+     */
+    protected void writePage( SiteRendererSink sink, String pageName, Locale locale )
+        throws MavenReportException
+    {
+        Writer writer = null;
+        try
+        {
+            SiteRenderingContext siteContext = getSiteRenderingContext( locale );
+
+            getReportOutputDirectory().mkdirs();
+
+            writer = WriterFactory.newWriter( new File( getReportOutputDirectory(), pageName + ".html" ), "UTF-8" );
+
+            siteRenderer.generateDocument( writer, sink, siteContext );
+        }
+        catch ( RendererException e )
+        {
+            throw new MavenReportException( "Unable to write the page " + pageName + ".", e );
+        }
+        catch ( IOException e )
+        {
+            throw new MavenReportException( "Unable to write the page " + pageName + ".", e );
+        }
+        catch ( MojoExecutionException e )
+        {
+            throw new MavenReportException( "Unable to write the page " + pageName + ".", e );
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
     }
 
     /**
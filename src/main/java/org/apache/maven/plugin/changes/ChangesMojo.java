@@ -20,24 +20,39 @@ package org.apache.maven.plugin.changes;
  */
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.URL;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.ResourceBundle;
 
-import org.apache.maven.execution.MavenSession;
+import org.apache.maven.doxia.siterenderer.sink.SiteRendererSink;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReportException;
+import org.apache.maven.plugin.export.RecordExporter;
+import org.apache.maven.plugin.export.Records;
+import org.apache.maven.plugins.changes.model.Action;
+import org.apache.maven.plugins.changes.model.Release;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFileFilterRequest;
 import org.apache.maven.shared.filtering.MavenFilteringException;
-import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.FileUtils.FilterWrapper;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.ReaderFactory;
+import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.XmlStreamReader;
 
 /**
@@ -50,6 +65,23 @@ import org.codehaus.plexus.util.xml.XmlStreamReader;
 public class ChangesMojo
     extends AbstractChangesReport
 {
+    private static final String IMAGES_DIRECTORY = "images";
+
+    private static final String IMAGES_RESOURCE_BASE = "org/apache/maven/plugin/changes/images/";
+
+    private static final String[] IMAGE_NAMES = {
+        "add.gif",
+        "fix.gif",
+        "icon_help_sml.gif",
+        "remove.gif",
+        "rss.png",
+        "update.gif" };
+
+    /**
+     * The content of the images, keyed by image name.
+     */
+    private static final Map STATIC_RESOURCES = new HashMap();
+
     /**
      * The path of the <code>changes.xml</code> file that will be converted into an HTML report.
      *
@@ -113,16 +145,6 @@ public class ChangesMojo
      */
     private MavenFileFilter mavenFileFilter;
     
-    /**
-     * @parameter expression="${session}"
-     * @readonly
-     * @required
-     *
-     * @since 2.2
-     *
-     */
-    protected MavenSession session;
-    
     /**
      * applying filtering filtering "a la" resources plugin
      *
@@ -132,18 +154,6 @@ public class ChangesMojo
      */
     private boolean filteringChanges;
     
-    /**
-     * The directory for interpolated changes.xml.
-     *
-     * @parameter expression="${project.build.directory}/changes"
-     * @required
-     * @readonly
-     *
-     * @since 2.2
-     *
-     */
-    private File filteredOutputDirectory;    
-    
     /**
      *
      * Format to use for publishDate. The value will be available with the following expression ${publishDate}
@@ -169,6 +179,37 @@ public class ChangesMojo
     *
     */
     private String publishDateLocale;
+
+    /**
+     * If the images used by the report should be shared by all the projects in a multi-module build. When set to
+     * <code>true</code> the images are written only once, into the report output directory of the project at the
+     * execution root, and the reports of the modules link to them using a relative path. This assumes that the sites
+     * of the modules are laid out below the site of the execution root in the same way as the modules themselves.
+     *
+     * @parameter expression="${changes.shareStaticResources}" default-value="false"
+     * @since 2.4
+     */
+    private boolean shareStaticResources;
+
+    /**
+     * The number of releases to put on each release page. When set to a value greater than <code>0</code>, the report
+     * itself only contains the release history and the latest releases (see <code>inlineReleases</code>), and the
+     * other releases are put on separate pages, <code>changes-report-1.html</code>,
+     * <code>changes-report-2.html</code> and so on. This keeps the pages small for projects with a long history.
+     *
+     * @parameter expression="${changes.releasesPerPage}" default-value="0"
+     * @since 2.4
+     */
+    private int releasesPerPage;
+
+    /**
+     * The number of the latest releases to keep in the report itself, when the releases are put on separate pages
+     * using <code>releasesPerPage</code>.
+     *
+     * @parameter expression="${changes.inlineReleases}" default-value="0"
+     * @since 2.4
+     */
+    private int inlineReleases;
     
     
     public boolean canGenerateReport()
@@ -176,24 +217,15 @@ public class ChangesMojo
         return xmlPath.isFile();
     }
 
-    private void copyStaticResources()
+    private void copyStaticResources( File imagesDirectory )
         throws MavenReportException
     {
-        final String pluginResourcesBase = "org/apache/maven/plugin/changes";
-        String resourceNames[] = {
-            "images/add.gif",
-            "images/fix.gif",
-            "images/icon_help_sml.gif",
-            "images/remove.gif",
-            "images/rss.png",
-            "images/update.gif" };
         try
         {
             getLog().debug( "Copying static resources." );
-            for ( int i = 0; i < resourceNames.length; i++ )
+            for ( int i = 0; i < IMAGE_NAMES.length; i++ )
             {
-                URL url = this.getClass().getClassLoader().getResource( pluginResourcesBase + "/" + resourceNames[i] );
-                FileUtils.copyURLToFile( url, new File( getReportOutputDirectory(), resourceNames[i] ) );
+                copyIfChanged( getStaticResource( IMAGE_NAMES[i] ), new File( imagesDirectory, IMAGE_NAMES[i] ) );
             }
         }
         catch ( IOException e )
@@ -202,75 +234,337 @@ public class ChangesMojo
         }
     }
 
-    public void executeReport( Locale locale )
-        throws MavenReportException
+    /**
+     * Get the content of one of the images bundled with the plugin. The content is read from the classpath only once
+     * per plugin class loader, which lives for the whole build.
+     *
+     * @param imageName The name of the image
+     * @return The content of the image
+     * @throws IOException If the image could not be read
+     */
+    private static byte[] getStaticResource( String imageName )
+        throws IOException
     {
-        
-        if ( !xmlPath.exists() )
-        {
-            getLog().warn( "changes.xml file " + xmlPath.getAbsolutePath() + " does not exist." );
-            return;
-        }
-        if ( filteringChanges )
+        synchronized ( STATIC_RESOURCES )
         {
-            if ( !filteredOutputDirectory.exists() )
+            byte[] content = (byte[]) STATIC_RESOURCES.get( imageName );
+            if ( content == null )
             {
-                filteredOutputDirectory.mkdirs();
+                URL url = ChangesMojo.class.getClassLoader().getResource( IMAGES_RESOURCE_BASE + imageName );
+                InputStream in = url.openStream();
+                try
+                {
+                    content = IOUtil.toByteArray( in );
+                }
+                finally
+                {
+                    IOUtil.close( in );
+                }
+                STATIC_RESOURCES.put( imageName, content );
             }
-            XmlStreamReader xmlStreamReader = null;
+            return content;
+        }
+    }
+
+    /**
+     * Write a file, unless it already exists with exactly the same content.
+     *
+     * @param content The content that the file should have
+     * @param file The file to write
+     * @throws IOException If the file could not be read or written
+     */
+    static void copyIfChanged( byte[] content, File file )
+        throws IOException
+    {
+        if ( file.isFile() && file.length() == content.length )
+        {
+            InputStream in = new FileInputStream( file );
             try
             {
-                // so we get encoding from the file itself
-                xmlStreamReader = ReaderFactory.newXmlReader( xmlPath );
-                String encoding = xmlStreamReader.getEncoding();
-                File resultFile = new File( filteredOutputDirectory, "changes.xml" );
-                Date now = new Date();
-                SimpleDateFormat simpleDateFormat =
-                    new SimpleDateFormat( publishDateFormat, new Locale( publishDateLocale ) );
-                Properties additionnalProperties = new Properties();
-                additionnalProperties.put( "publishDate", simpleDateFormat.format( now ) );
-                MavenFileFilterRequest mavenFileFilterRequest =
-                    new MavenFileFilterRequest( xmlPath, resultFile, true, project, Collections.EMPTY_LIST, false,
-                                                encoding, session, additionnalProperties );
-                mavenFileFilter.copyFile( mavenFileFilterRequest );
-                xmlPath = resultFile;
-            }
-            catch ( IOException e )
-            {
-                throw new MavenReportException( "Exception during filtering changes file : " + e.getMessage(), e );
+                if ( Arrays.equals( content, IOUtil.toByteArray( in ) ) )
+                {
+                    return;
+                }
             }
-            catch ( MavenFilteringException e )
+            finally
             {
-                throw new MavenReportException( "Exception during filtering changes file : " + e.getMessage(), e );
+                IOUtil.close( in );
             }
-            finally
+        }
+
+        if ( !file.getParentFile().exists() )
+        {
+            file.getParentFile().mkdirs();
+        }
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( content );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Find the project that was built from the execution root directory.
+     *
+     * @return The project at the execution root, or <code>null</code> if it is not part of the reactor
+     */
+    private MavenProject getExecutionRootProject()
+    {
+        File executionRoot = new File( session.getExecutionRootDirectory() );
+        for ( Iterator i = session.getSortedProjects().iterator(); i.hasNext(); )
+        {
+            MavenProject reactorProject = (MavenProject) i.next();
+            if ( executionRoot.equals( reactorProject.getBasedir() ) )
             {
-                if ( xmlStreamReader != null )
-                {
-                    IOUtil.close( xmlStreamReader );
-                }
+                return reactorProject;
             }
+        }
+        return null;
+    }
+
+    /**
+     * Get the path of the images, relative to the report of this project, when they are shared from the report
+     * output directory of the execution root. This assumes that the sites of the modules are laid out below the
+     * site of the execution root in the same way as the modules themselves.
+     *
+     * @param rootBasedir    The base directory of the project at the execution root
+     * @param projectBasedir The base directory of this project
+     * @return The relative path to the shared images, or <code>null</code> if this project is not below the
+     *         execution root
+     */
+    static String getSharedImagesPath( File rootBasedir, File projectBasedir )
+    {
+        String rootPath = getCanonicalPath( rootBasedir );
+        String projectPath = getCanonicalPath( projectBasedir );
+        // Compare whole directories, so that a sibling like /work/app-ext is not taken to be below /work/app
+        String rootPrefix = rootPath.endsWith( File.separator ) ? rootPath : rootPath + File.separator;
+        if ( !projectPath.equals( rootPath ) && !projectPath.startsWith( rootPrefix ) )
+        {
+            return null;
+        }
 
+        StringBuffer imagesPath = new StringBuffer();
+        String[] segments = StringUtils.split( projectPath.substring( rootPath.length() ), File.separator );
+        for ( int i = 0; i < segments.length; i++ )
+        {
+            imagesPath.append( "../" );
         }
+        return imagesPath.append( IMAGES_DIRECTORY ).append( '/' ).toString();
+    }
 
-        ChangesReportGenerator report = new ChangesReportGenerator( xmlPath, getLog() );
+    private static String getCanonicalPath( File file )
+    {
+        try
+        {
+            return file.getCanonicalPath();
+        }
+        catch ( IOException e )
+        {
+            return file.getAbsolutePath();
+        }
+    }
+
+    public void executeReport( Locale locale )
+        throws MavenReportException
+    {
         
+        if ( !xmlPath.exists() )
+        {
+            getLog().warn( "changes.xml file " + xmlPath.getAbsolutePath() + " does not exist." );
+            return;
+        }
+
+        // The filters are applied while the document is parsed, so parsing includes filtering
+        getMetrics().startPhase( "parse" );
+        ChangesXML changesXml;
+        if ( filteringChanges )
+        {
+            changesXml = new ChangesXML( newFilteredReader(), xmlPath.getPath(), getLog() );
+        }
+        else
+        {
+            changesXml = new ChangesXML( xmlPath, getLog() );
+        }
+        getMetrics().endPhase( "parse" );
+        countReleases( changesXml.getReleaseList() );
+
+        ChangesReportGenerator report = new ChangesReportGenerator( changesXml );
+
         report.setIssueLinksPerSystem( issueLinkTemplatePerSystem );
         report.setIssueLink( issueLinkTemplate );
         
         report.setUrl( url );
 
         report.setAddActionDate( addActionDate );
+
+        report.setReleasesPerPage( releasesPerPage );
+
+        report.setInlineReleases( inlineReleases );
+
+        report.setOutputName( getOutputName() );
         
         if ( !report.canGenerateIssueLinks() )
         {
             getLog().warn( "No issue management URL defined in POM. Links to your issues will not work correctly." );
         }
 
+        File imagesDirectory = new File( getReportOutputDirectory(), IMAGES_DIRECTORY );
+        if ( shareStaticResources )
+        {
+            MavenProject rootProject = getExecutionRootProject();
+            String sharedImagesPath =
+                rootProject == null ? null : getSharedImagesPath( rootProject.getBasedir(), project.getBasedir() );
+            if ( sharedImagesPath == null )
+            {
+                getLog().warn( "This project is not located below the execution root, "
+                    + "the images will be copied into its own report directory." );
+            }
+            else
+            {
+                report.setImagesPath( sharedImagesPath );
+                imagesDirectory = new File( rootProject.getReporting().getOutputDirectory(), IMAGES_DIRECTORY );
+            }
+        }
+
+        getMetrics().startPhase( "render" );
         report.doGenerateReport( getBundle( locale ), getSink() );
+        getMetrics().endPhase( "render" );
+
+        for ( int page = 1; page <= report.getReleasePageCount(); page++ )
+        {
+            String pageName = report.getReleasePageName( page );
+            SiteRendererSink pageSink = createPageSink( pageName );
+            getMetrics().startPhase( "render" );
+            report.doGenerateReleasePage( getBundle( locale ), pageSink, page );
+            getMetrics().endPhase( "render" );
+            getMetrics().startPhase( "write" );
+            writePage( pageSink, pageName, locale );
+            getMetrics().endPhase( "write" );
+        }
 
         // Copy the images
-        copyStaticResources();
+        copyStaticResources( imagesDirectory );
+
+        exportActions( changesXml.getReleaseList() );
+    }
+
+    /**
+     * Export the actions of the releases, if export formats are configured.
+     *
+     * @param releases The <code>Release</code>s to export the actions of
+     * @throws MavenReportException If the actions could not be exported
+     */
+    private void exportActions( List releases )
+        throws MavenReportException
+    {
+        if ( releases == null )
+        {
+            return;
+        }
+
+        RecordExporter exporter = createExporter( Records.ACTION_COLUMNS );
+        if ( exporter == null )
+        {
+            return;
+        }
+
+        try
+        {
+            for ( Iterator iterator = releases.iterator(); iterator.hasNext(); )
+            {
+                Release release = (Release) iterator.next();
+                if ( release.getActions() == null )
+                {
+                    continue;
+                }
+                for ( Iterator actions = release.getActions().iterator(); actions.hasNext(); )
+                {
+                    exporter.write( Records.getRecord( release, (Action) actions.next() ) );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MavenReportException( "Unable to export the actions of " + xmlPath + ".", e );
+        }
+        finally
+        {
+            closeExporter( exporter );
+        }
+    }
+
+    private void countReleases( List releases )
+    {
+        if ( releases == null )
+        {
+            return;
+        }
+
+        getMetrics().addCount( "releases", releases.size() );
+        for ( Iterator iterator = releases.iterator(); iterator.hasNext(); )
+        {
+            Release release = (Release) iterator.next();
+            getMetrics().addCount( "actions", release.getActions() == null ? 0 : release.getActions().size() );
+        }
+    }
+
+    /**
+     * Opens the changes.xml file through the same filter wrappers that the maven-filtering component would use
+     * when copying it, so <code>${...}</code> expressions are interpolated while the document is being parsed
+     * instead of going through a filtered copy on disk.
+     *
+     * @return A reader that returns the interpolated content of the changes.xml file
+     * @throws MavenReportException If the file could not be opened or the filter wrappers could not be created
+     */
+    private Reader newFilteredReader()
+        throws MavenReportException
+    {
+        XmlStreamReader xmlStreamReader = null;
+        boolean filtered = false;
+        try
+        {
+            // so we get encoding from the file itself
+            xmlStreamReader = ReaderFactory.newXmlReader( xmlPath );
+            String encoding = xmlStreamReader.getEncoding();
+            Date now = new Date();
+            SimpleDateFormat simpleDateFormat =
+                new SimpleDateFormat( publishDateFormat, new Locale( publishDateLocale ) );
+            Properties additionnalProperties = new Properties();
+            additionnalProperties.put( "publishDate", simpleDateFormat.format( now ) );
+            MavenFileFilterRequest mavenFileFilterRequest =
+                new MavenFileFilterRequest( xmlPath, null, true, project, Collections.EMPTY_LIST, false,
+                                            encoding, session, additionnalProperties );
+            List filterWrappers = mavenFileFilter.getDefaultFilterWrappers( mavenFileFilterRequest );
+
+            Reader reader = xmlStreamReader;
+            for ( Iterator i = filterWrappers.iterator(); i.hasNext(); )
+            {
+                FilterWrapper filterWrapper = (FilterWrapper) i.next();
+                reader = filterWrapper.getReader( reader );
+            }
+            filtered = true;
+            return reader;
+        }
+        catch ( IOException e )
+        {
+            throw new MavenReportException( "Exception during filtering changes file : " + e.getMessage(), e );
+        }
+        catch ( MavenFilteringException e )
+        {
+            throw new MavenReportException( "Exception during filtering changes file : " + e.getMessage(), e );
+        }
+        finally
+        {
+            // The caller closes the reader once it has been handed out
+            if ( !filtered )
+            {
+                IOUtil.close( xmlStreamReader );
+            }
+        }
     }
 
     public String getName( Locale locale )
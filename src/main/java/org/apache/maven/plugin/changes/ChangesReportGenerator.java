@@ -64,6 +64,26 @@ public class ChangesReportGenerator
 
     private boolean addActionDate;
 
+    /**
+     * The path, relative to the report, where the images can be found.
+     */
+    private String imagesPath = "images/";
+
+    /**
+     * The number of releases to put on each release page, or <code>0</code> to put all releases in the report itself.
+     */
+    private int releasesPerPage;
+
+    /**
+     * The number of the latest releases to keep in the report itself when the releases are put on separate pages.
+     */
+    private int inlineReleases;
+
+    /**
+     * The output name of the report, used as the base name of the release pages.
+     */
+    private String outputName = "changes-report";
+
     public ChangesReportGenerator()
     {
         issueLinksPerSystem = new HashMap();
@@ -75,6 +95,16 @@ public class ChangesReportGenerator
         report = new ChangesXML( xmlPath, log );
     }
 
+    /**
+     * @param report An already parsed changes.xml document
+     * @since 2.4
+     */
+    public ChangesReportGenerator( ChangesXML report )
+    {
+        this();
+        this.report = report;
+    }
+
     /**
      * @deprecated
      */
@@ -132,6 +162,92 @@ public class ChangesReportGenerator
         this.addActionDate = addActionDate;
     }
 
+    public String getImagesPath()
+    {
+        return imagesPath;
+    }
+
+    /**
+     * @param imagesPath The path, relative to the report, where the images can be found. Must end with a '/'.
+     * @since 2.4
+     */
+    public void setImagesPath( String imagesPath )
+    {
+        this.imagesPath = imagesPath;
+    }
+
+    public int getReleasesPerPage()
+    {
+        return releasesPerPage;
+    }
+
+    /**
+     * @param releasesPerPage The number of releases to put on each release page, or <code>0</code> to put all
+     *        releases in the report itself
+     * @since 2.4
+     */
+    public void setReleasesPerPage( int releasesPerPage )
+    {
+        this.releasesPerPage = releasesPerPage;
+    }
+
+    public int getInlineReleases()
+    {
+        return inlineReleases;
+    }
+
+    /**
+     * @param inlineReleases The number of the latest releases to keep in the report itself when the releases are put
+     *        on separate pages
+     * @since 2.4
+     */
+    public void setInlineReleases( int inlineReleases )
+    {
+        this.inlineReleases = inlineReleases;
+    }
+
+    public String getOutputName()
+    {
+        return outputName;
+    }
+
+    /**
+     * @param outputName The output name of the report, used as the base name of the release pages
+     * @since 2.4
+     */
+    public void setOutputName( String outputName )
+    {
+        this.outputName = outputName;
+    }
+
+    /**
+     * Get the number of separate release pages that this report consists of, in addition to the report itself.
+     *
+     * @return The number of release pages
+     * @since 2.4
+     */
+    public int getReleasePageCount()
+    {
+        int pagedReleases = report.getReleaseList().size() - getInlineReleaseCount();
+        if ( pagedReleases <= 0 )
+        {
+            return 0;
+        }
+        return ( pagedReleases + releasesPerPage - 1 ) / releasesPerPage;
+    }
+
+    /**
+     * Get the output name of a release page.
+     *
+     * @param page The number of the page, starting at 1
+     * @return The output name of the page
+     * @since 2.4
+     */
+    public String getReleasePageName( int page )
+    {
+        return outputName + "-" + page;
+    }
+
     /**
      * Checks whether links to the issues can be generated.
      *
@@ -183,11 +299,63 @@ public class ChangesReportGenerator
 
         constructReleaseHistory( sink, bundle );
 
-        constructReleases( sink, bundle );
+        constructReleases( sink, bundle, 0, getInlineReleaseCount() );
 
         sinkEndReport( sink );
     }
 
+    /**
+     * Generate one of the separate release pages. See {@link #getReleasePageCount()}.
+     *
+     * @param bundle The resource bundle to use
+     * @param sink The sink to write the page to
+     * @param page The number of the page, starting at 1
+     * @since 2.4
+     */
+    public void doGenerateReleasePage( ResourceBundle bundle, Sink sink, int page )
+    {
+        sinkBeginReport( sink, bundle );
+
+        sink.paragraph();
+        sinkLink( sink, bundle.getString( "report.changes.label.releasehistory" ), outputName + ".html" );
+        sink.paragraph_();
+
+        int first = getInlineReleaseCount() + ( page - 1 ) * releasesPerPage;
+        constructReleases( sink, bundle, first, Math.min( first + releasesPerPage, report.getReleaseList().size() ) );
+
+        sinkEndReport( sink );
+    }
+
+    /**
+     * Get the number of releases that are included in the report itself.
+     */
+    private int getInlineReleaseCount()
+    {
+        int releaseCount = report.getReleaseList().size();
+        if ( releasesPerPage <= 0 )
+        {
+            return releaseCount;
+        }
+        return Math.min( Math.max( inlineReleases, 0 ), releaseCount );
+    }
+
+    /**
+     * Get the link to the section of a release, which may be on a separate page.
+     *
+     * @param index The index of the release in the release list
+     * @param release The release
+     */
+    private String getReleaseLink( int index, Release release )
+    {
+        String anchor = "#" + HtmlTools.encodeId( release.getVersion() );
+        int inlineReleaseCount = getInlineReleaseCount();
+        if ( index < inlineReleaseCount )
+        {
+            return anchor;
+        }
+        return getReleasePageName( ( index - inlineReleaseCount ) / releasesPerPage + 1 ) + ".html" + anchor;
+    }
+
     private void constructActions( Sink sink, List actionList, ResourceBundle bundle )
     {
         if ( actionList.isEmpty() )
@@ -294,7 +462,7 @@ public class ChangesReportGenerator
 
             sink.tableRow();
 
-            sinkCellLink( sink, release.getVersion(), "#" + HtmlTools.encodeId( release.getVersion() ) );
+            sinkCellLink( sink, release.getVersion(), getReleaseLink( idx, release ) );
 
             sinkCell( sink, release.getDateRelease() );
 
@@ -317,11 +485,11 @@ public class ChangesReportGenerator
         sink.section2_();
     }
 
-    private void constructReleases( Sink sink, ResourceBundle bundle )
+    private void constructReleases( Sink sink, ResourceBundle bundle, int fromIndex, int toIndex )
     {
         List releaseList = report.getReleaseList();
 
-        for ( int idx = 0; idx < releaseList.size(); idx++ )
+        for ( int idx = fromIndex; idx < toIndex; idx++ )
         {
             Release release = (Release) releaseList.get( idx );
 
@@ -471,27 +639,27 @@ public class ChangesReportGenerator
 
         if ( type == null )
         {
-            image = "images/icon_help_sml.gif";
+            image = imagesPath + "icon_help_sml.gif";
             altText = "?";
         }
         else if ( type.equals( "fix" ) )
         {
-            image = "images/fix.gif";
+            image = imagesPath + "fix.gif";
             altText = "fix";
         }
         else if ( type.equals( "update" ) )
         {
-            image = "images/update.gif";
+            image = imagesPath + "update.gif";
             altText = "update";
         }
         else if ( type.equals( "add" ) )
         {
-            image = "images/add.gif";
+            image = imagesPath + "add.gif";
             altText = "add";
         }
         else if ( type.equals( "remove" ) )
         {
-            image = "images/remove.gif";
+            image = imagesPath + "remove.gif";
             altText = "remove";
         }
 
@@ -20,15 +20,19 @@ package org.apache.maven.plugin.changes;
  */
 
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.Collections;
 import java.util.List;
 
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.metrics.PluginEvent;
 import org.apache.maven.plugins.changes.model.Body;
 import org.apache.maven.plugins.changes.model.ChangesDocument;
 import org.apache.maven.plugins.changes.model.Properties;
 import org.apache.maven.plugins.changes.model.io.xpp3.ChangesXpp3Reader;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReaderFactory;
 
 /**
  * XML Parser for changes.xml files.
@@ -50,52 +54,111 @@ public class ChangesXML
 
     public ChangesXML( File xmlPath, Log log )
     {
+        this( newReader( xmlPath, log ), xmlPath == null ? null : xmlPath.getPath(),
+              xmlPath == null ? -1 : xmlPath.length(), log );
+    }
+
+    /**
+     * Parses a changes.xml document from an already decoded character stream. This allows the caller to
+     * interpose a filtering reader, so the document can be interpolated while it is being parsed.
+     *
+     * @param reader The reader to parse the document from, it is closed when parsing has finished
+     * @param source A description of where the document comes from, used in error messages
+     * @param log Used to report parsing errors
+     * @since 2.4
+     */
+    public ChangesXML( Reader reader, String source, Log log )
+    {
+        this( reader, source, -1, log );
+    }
+
+    private ChangesXML( Reader reader, String source, long bytes, Log log )
+    {
+        if ( reader == null )
+        {
+            return;
+        }
+
+        PluginEvent event = PluginEvent.begin( PluginEvent.PARSE, source );
+        try
+        {
+            init( new ChangesXpp3Reader().read( reader, false ), source, log );
+        }
+        catch ( Throwable e )
+        {
+            // FIXME throw an Exception ?
+            log.error( "An error occured when parsing the changes.xml file:", e );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+            if ( bytes >= 0 )
+            {
+                event.setBytes( bytes );
+            }
+            commit( event );
+        }
+    }
 
+    /**
+     * Opens a changes.xml file, using the encoding given in its XML declaration.
+     *
+     * @return The reader, or <code>null</code> if the file cannot be read
+     */
+    private static Reader newReader( File xmlPath, Log log )
+    {
         if ( xmlPath == null || !xmlPath.exists() )
         {
             log.error( "changes xml file is null or not exists " );
-            return;
+            return null;
         }
 
         try
         {
+            return ReaderFactory.newXmlReader( xmlPath );
+        }
+        catch ( IOException e )
+        {
+            log.error( "An error occured when parsing the changes.xml file:", e );
+            return null;
+        }
+    }
 
-            ChangesXpp3Reader reader = new ChangesXpp3Reader();
+    private void commit( PluginEvent event )
+    {
+        event.setItemCount( releaseList == null ? 0 : releaseList.size() );
+        event.commit();
+    }
 
-            changesDocument = reader.read( new FileInputStream( xmlPath ), false );
+    private void init( ChangesDocument document, String source, Log log )
+    {
+        changesDocument = document;
 
-            if ( changesDocument == null )
-            {
-                log.error( "cannot build changes from file " + xmlPath.getPath() );
-                return;
-            }
+        if ( changesDocument == null )
+        {
+            log.error( "cannot build changes from file " + source );
+            return;
+        }
 
-            Properties properties = changesDocument.getProperties();
+        Properties properties = changesDocument.getProperties();
 
-            if ( properties != null )
+        if ( properties != null )
+        {
+            if ( properties.getAuthor() != null )
             {
-                if ( properties.getAuthor() != null )
-                {
-                    this.author = properties.getAuthor().getName();
-                    this.authorEmail = properties.getAuthor().getName();
-                }
-                this.title = properties.getTitle();
+                this.author = properties.getAuthor().getName();
+                this.authorEmail = properties.getAuthor().getName();
             }
+            this.title = properties.getTitle();
+        }
 
 
-            Body body = changesDocument.getBody();
+        Body body = changesDocument.getBody();
 
 
-            if ( body != null )
-            {
-                this.releaseList = changesDocument.getBody().getReleases();
-            }
-
-        }
-        catch ( Throwable e )
+        if ( body != null )
         {
-            // FIXME throw an Exception ?
-            log.error( "An error occured when parsing the changes.xml file:", e );
+            this.releaseList = changesDocument.getBody().getReleases();
         }
     }
 
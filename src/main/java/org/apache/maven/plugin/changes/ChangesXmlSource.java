@@ -0,0 +1,84 @@
+package org.apache.maven.plugin.changes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.issues.IssueTrackerSource;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+
+/**
+ * Gets the releases from a <code>changes.xml</code> file.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class ChangesXmlSource
+    implements IssueTrackerSource
+{
+    /** The name of this source. */
+    public static final String NAME = "changes.xml";
+
+    private final File xmlPath;
+
+    private final Log log;
+
+    private final ExecutionMetrics metrics;
+
+    private ChangesXML changesXml;
+
+    /**
+     * @param xmlPath The <code>changes.xml</code> file
+     * @param log     The log to report parse errors to
+     * @param metrics The metrics to record the time spent parsing in
+     */
+    public ChangesXmlSource( File xmlPath, Log log, ExecutionMetrics metrics )
+    {
+        this.xmlPath = xmlPath;
+        this.log = log;
+        this.metrics = metrics;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public List getReleases()
+    {
+        metrics.startPhase( "parse" );
+        changesXml = new ChangesXML( xmlPath, log );
+        metrics.endPhase( "parse" );
+
+        List releases = changesXml.getReleaseList();
+        return releases == null ? Collections.EMPTY_LIST : releases;
+    }
+
+    /**
+     * @return The parsed document, or <code>null</code> if {@link #getReleases()} has not been called
+     */
+    public ChangesXML getChangesXml()
+    {
+        return changesXml;
+    }
+}
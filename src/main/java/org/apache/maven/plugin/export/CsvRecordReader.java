@@ -0,0 +1,134 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads records of comma separated values, as described in RFC 4180. Quoted values may contain commas, quotes and
+ * line breaks. Lines may end with CRLF or with LF alone. The records are read one at a time, so the input does not
+ * have to fit in memory.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class CsvRecordReader
+{
+    private final Reader in;
+
+    /** The character that was read ahead, or -2 if none was. */
+    private int pushedBack = -2;
+
+    /**
+     * @param in The reader to read from, which should be buffered
+     */
+    public CsvRecordReader( Reader in )
+    {
+        this.in = in;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return The values of the record, or <code>null</code> at the end of the input
+     * @throws IOException If the input could not be read or ends inside a quoted value
+     */
+    public String[] readRecord()
+        throws IOException
+    {
+        int c = read();
+        if ( c == -1 )
+        {
+            return null;
+        }
+
+        List values = new ArrayList();
+        StringBuffer value = new StringBuffer();
+        boolean quoted = false;
+        while ( true )
+        {
+            if ( quoted )
+            {
+                if ( c == -1 )
+                {
+                    throw new IOException( "The input ends inside a quoted value." );
+                }
+                else if ( c == '"' )
+                {
+                    c = read();
+                    if ( c != '"' )
+                    {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                value.append( (char) c );
+            }
+            else if ( c == '"' )
+            {
+                quoted = true;
+            }
+            else if ( c == ',' )
+            {
+                values.add( value.toString() );
+                value.setLength( 0 );
+            }
+            else if ( c == '\r' || c == '\n' || c == -1 )
+            {
+                if ( c == '\r' )
+                {
+                    c = read();
+                    if ( c != '\n' )
+                    {
+                        pushedBack = c;
+                    }
+                }
+                values.add( value.toString() );
+                return (String[]) values.toArray( new String[values.size()] );
+            }
+            else
+            {
+                value.append( (char) c );
+            }
+            c = read();
+        }
+    }
+
+    private int read()
+        throws IOException
+    {
+        if ( pushedBack != -2 )
+        {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    public void close()
+        throws IOException
+    {
+        in.close();
+    }
+}
@@ -0,0 +1,102 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes records as comma separated values, as described in RFC 4180. The first line holds the names of the columns.
+ * Values that contain commas, quotes or line breaks are quoted. Missing values are left empty.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class CsvRecordWriter
+    implements RecordWriter
+{
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    private final Writer out;
+
+    /**
+     * @param out The writer to write to, which should be buffered
+     * @param columns The names of the columns
+     * @throws IOException If the header could not be written
+     */
+    public CsvRecordWriter( Writer out, String[] columns )
+        throws IOException
+    {
+        this.out = out;
+        writeRecord( columns );
+    }
+
+    public void writeRecord( String[] values )
+        throws IOException
+    {
+        for ( int i = 0; i < values.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                out.write( ',' );
+            }
+            if ( values[i] != null )
+            {
+                writeValue( values[i] );
+            }
+        }
+        out.write( LINE_SEPARATOR );
+    }
+
+    private void writeValue( String value )
+        throws IOException
+    {
+        boolean quote = false;
+        for ( int i = 0; i < value.length() && !quote; i++ )
+        {
+            char c = value.charAt( i );
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+
+        if ( !quote )
+        {
+            out.write( value );
+            return;
+        }
+
+        out.write( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            if ( c == '"' )
+            {
+                out.write( '"' );
+            }
+            out.write( c );
+        }
+        out.write( '"' );
+    }
+
+    public void close()
+        throws IOException
+    {
+        out.close();
+    }
+}
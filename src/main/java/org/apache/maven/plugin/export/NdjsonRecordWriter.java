@@ -0,0 +1,105 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes records as newline delimited JSON: one JSON object per line, with a property for each column. Missing
+ * values are left out.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class NdjsonRecordWriter
+    implements RecordWriter
+{
+    private final Writer out;
+
+    private final String[] columns;
+
+    private final StringBuffer line = new StringBuffer( 256 );
+
+    /**
+     * @param out The writer to write to, which should be buffered
+     * @param columns The names of the columns, which are used as the names of the properties
+     */
+    public NdjsonRecordWriter( Writer out, String[] columns )
+    {
+        this.out = out;
+        this.columns = columns;
+    }
+
+    public void writeRecord( String[] values )
+        throws IOException
+    {
+        line.setLength( 0 );
+        line.append( '{' );
+        for ( int i = 0; i < values.length; i++ )
+        {
+            if ( values[i] == null )
+            {
+                continue;
+            }
+            if ( line.length() > 1 )
+            {
+                line.append( ',' );
+            }
+            appendString( line, columns[i] );
+            line.append( ':' );
+            appendString( line, values[i] );
+        }
+        line.append( '}' ).append( '\n' );
+        out.write( line.toString() );
+    }
+
+    /**
+     * Append a JSON string, escaping the characters that JSON does not allow in a string.
+     */
+    private static void appendString( StringBuffer json, String value )
+    {
+        json.append( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            if ( c == '"' || c == '\\' )
+            {
+                json.append( '\\' ).append( c );
+            }
+            else if ( c < ' ' )
+            {
+                String hex = Integer.toHexString( c );
+                json.append( "\\u" ).append( "0000".substring( hex.length() ) ).append( hex );
+            }
+            else
+            {
+                json.append( c );
+            }
+        }
+        json.append( '"' );
+    }
+
+    public void close()
+        throws IOException
+    {
+        out.close();
+    }
+}
@@ -0,0 +1,185 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Exports records to a file for each of the configured formats at the same time, so that the records only have to
+ * be gone through once. The records are written as they come, so they don't have to be held in memory.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class RecordExporter
+{
+    /** Comma separated values. */
+    public static final String CSV = "csv";
+
+    /** Newline delimited JSON. */
+    public static final String NDJSON = "ndjson";
+
+    private final List writers = new ArrayList();
+
+    private final List files = new ArrayList();
+
+    private int recordCount;
+
+    /**
+     * Create the files to export to.
+     *
+     * @param directory The directory to create the files in
+     * @param baseName The name of the files, without the extension. The extension is the format
+     * @param formats The formats to export to, see {@link #parseFormats(String)}
+     * @param columns The names of the columns of the records
+     * @throws IOException If a file could not be created
+     */
+    public RecordExporter( File directory, String baseName, List formats, String[] columns )
+        throws IOException
+    {
+        directory.mkdirs();
+        try
+        {
+            for ( Iterator iterator = formats.iterator(); iterator.hasNext(); )
+            {
+                String format = (String) iterator.next();
+                File file = new File( directory, baseName + "." + format );
+                Writer out = new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" ) );
+                files.add( file );
+                if ( CSV.equals( format ) )
+                {
+                    writers.add( new CsvRecordWriter( out, columns ) );
+                }
+                else
+                {
+                    writers.add( new NdjsonRecordWriter( out, columns ) );
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Parse a list of formats.
+     *
+     * @param formats The formats, separated by commas. Valid formats are {@link #CSV} and {@link #NDJSON}
+     * @return A <code>List</code> of formats, which is empty if <code>formats</code> is empty
+     * @throws IllegalArgumentException If a format is not valid
+     */
+    public static List parseFormats( String formats )
+    {
+        List formatList = new ArrayList();
+        if ( formats == null )
+        {
+            return formatList;
+        }
+
+        String[] formatArray = formats.split( "," );
+        for ( int i = 0; i < formatArray.length; i++ )
+        {
+            String format = formatArray[i].trim().toLowerCase( Locale.ENGLISH );
+            if ( format.length() == 0 || formatList.contains( format ) )
+            {
+                continue;
+            }
+            if ( !CSV.equals( format ) && !NDJSON.equals( format ) )
+            {
+                throw new IllegalArgumentException( "The export format '" + formatArray[i].trim()
+                    + "' is not supported. Supported formats are " + CSV + " and " + NDJSON + "." );
+            }
+            formatList.add( format );
+        }
+        return formatList;
+    }
+
+    /**
+     * Write a record to all the files.
+     *
+     * @param values The values of the columns
+     * @throws IOException If the record could not be written
+     */
+    public void write( String[] values )
+        throws IOException
+    {
+        for ( Iterator iterator = writers.iterator(); iterator.hasNext(); )
+        {
+            ( (RecordWriter) iterator.next() ).writeRecord( values );
+        }
+        recordCount++;
+    }
+
+    public int getRecordCount()
+    {
+        return recordCount;
+    }
+
+    /**
+     * Get the files that are exported to.
+     *
+     * @return A <code>List</code> of <code>File</code>s
+     */
+    public List getFiles()
+    {
+        return files;
+    }
+
+    /**
+     * Close all the files.
+     *
+     * @throws IOException If a file could not be written. All the files are closed anyway
+     */
+    public void close()
+        throws IOException
+    {
+        IOException failure = null;
+        for ( Iterator iterator = writers.iterator(); iterator.hasNext(); )
+        {
+            try
+            {
+                ( (RecordWriter) iterator.next() ).close();
+            }
+            catch ( IOException e )
+            {
+                if ( failure == null )
+                {
+                    failure = e;
+                }
+            }
+        }
+        writers.clear();
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+/**
+ * Writes records, that all have the same columns, to a file in some format.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public interface RecordWriter
+{
+    /**
+     * Write a record.
+     *
+     * @param values The values of the columns, in the order of the columns. A value may be <code>null</code>
+     * @throws IOException If the record could not be written
+     */
+    void writeRecord( String[] values )
+        throws IOException;
+
+    /**
+     * Flush the records that are buffered, and close the file.
+     *
+     * @throws IOException If the records could not be written
+     */
+    void close()
+        throws IOException;
+}
@@ -0,0 +1,97 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.apache.maven.plugin.jira.JiraIssue;
+import org.apache.maven.plugin.trac.TracTicket;
+import org.apache.maven.plugins.changes.model.Action;
+import org.apache.maven.plugins.changes.model.Release;
+
+/**
+ * The columns of the records that JIRA issues, Trac tickets and the actions of a changes.xml file are exported as.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public final class Records
+{
+    /** The columns of a JIRA issue. */
+    public static final String[] JIRA_ISSUE_COLUMNS = { "key", "summary", "status", "resolution", "assignee",
+        "reporter", "type", "priority", "version", "fixVersion", "component", "link" };
+
+    /** The columns of a Trac ticket. The dates are in ISO 8601 format, in UTC. */
+    public static final String[] TRAC_TICKET_COLUMNS = { "id", "summary", "status", "resolution", "owner",
+        "reporter", "type", "priority", "milestone", "component", "created", "changed", "link" };
+
+    /** The columns of an action in changes.xml, along with the release that it belongs to. */
+    public static final String[] ACTION_COLUMNS = { "version", "releaseDate", "type", "issue", "system", "dev",
+        "dueTo", "dueToEmail", "date", "action" };
+
+    private static final DateFormat ISO_8601 = new SimpleDateFormat( "yyyy-MM-dd'T'HH:mm:ss'Z'" );
+
+    static
+    {
+        ISO_8601.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+    }
+
+    private Records()
+    {
+        // utility class
+    }
+
+    public static String[] getRecord( JiraIssue issue )
+    {
+        return new String[] { issue.getKey(), issue.getSummary(), issue.getStatus(), issue.getResolution(),
+            issue.getAssignee(), issue.getReporter(), issue.getType(), issue.getPriority(), issue.getVersion(),
+            issue.getFixVersion(), issue.getComponent(), issue.getLink() };
+    }
+
+    public static String[] getRecord( TracTicket ticket )
+    {
+        return new String[] { ticket.getId(), ticket.getSummary(), ticket.getStatus(), ticket.getResolution(),
+            ticket.getOwner(), ticket.getReporter(), ticket.getType(), ticket.getPriority(), ticket.getMilestone(),
+            ticket.getComponent(), format( ticket.getTimeCreated() ), format( ticket.getTimeChanged() ),
+            ticket.getLink() };
+    }
+
+    public static String[] getRecord( Release release, Action action )
+    {
+        return new String[] { release.getVersion(), release.getDateRelease(), action.getType(), action.getIssue(),
+            action.getSystem(), action.getDev(), action.getDueTo(), action.getDueToEmail(), action.getDate(),
+            action.getAction() == null ? null : action.getAction().trim() };
+    }
+
+    private static String format( Date date )
+    {
+        if ( date == null )
+        {
+            return null;
+        }
+        synchronized ( ISO_8601 )
+        {
+            return ISO_8601.format( date );
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stops the calls to an issue tracker after they have failed a number of times in a row. Once it is open, the
+ * breaker stays open for the rest of the build, so that the other modules of the build don't have to wait for a
+ * tracker that is down.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class CircuitBreaker
+{
+    /** The default number of failed calls in a row that opens the breaker. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+
+    /** The breakers of the current build, keyed by name. */
+    private static final Map BREAKERS = new HashMap();
+
+    /** The start time of the build that the breakers belong to. */
+    private static Date breakersBuildStartTime;
+
+    private final String name;
+
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+    private int failures;
+
+    private boolean open;
+
+    public CircuitBreaker( String name )
+    {
+        this.name = name;
+    }
+
+    /**
+     * Get the breaker with a name that is shared by all the mojos of a build.
+     *
+     * @param name           The name of the breaker, for instance the host of the issue tracker
+     * @param buildStartTime The start time of the build, or <code>null</code> if it is not known
+     * @return The breaker
+     */
+    public static CircuitBreaker getCircuitBreaker( String name, Date buildStartTime )
+    {
+        synchronized ( BREAKERS )
+        {
+            if ( buildStartTime == null || !buildStartTime.equals( breakersBuildStartTime ) )
+            {
+                BREAKERS.clear();
+                breakersBuildStartTime = buildStartTime;
+            }
+
+            CircuitBreaker breaker = (CircuitBreaker) BREAKERS.get( name );
+            if ( breaker == null )
+            {
+                breaker = new CircuitBreaker( name );
+                BREAKERS.put( name, breaker );
+            }
+            return breaker;
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Set the number of failed calls in a row that opens the breaker.
+     *
+     * @param failureThreshold The number of failed calls
+     */
+    public synchronized void setFailureThreshold( int failureThreshold )
+    {
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * Check if calls should be skipped.
+     *
+     * @return <code>true</code> if the breaker is open
+     */
+    public synchronized boolean isOpen()
+    {
+        return open;
+    }
+
+    /**
+     * Record a call that succeeded.
+     */
+    public synchronized void recordSuccess()
+    {
+        failures = 0;
+    }
+
+    /**
+     * Record a call that failed.
+     *
+     * @return <code>true</code> if this failure opened the breaker
+     */
+    public synchronized boolean recordFailure()
+    {
+        failures++;
+        if ( !open && failures >= failureThreshold )
+        {
+            open = true;
+            return true;
+        }
+        return false;
+    }
+}
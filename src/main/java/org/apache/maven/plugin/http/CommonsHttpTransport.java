@@ -0,0 +1,130 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpConnectionManager;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
+import org.apache.commons.httpclient.SimpleHttpConnectionManager;
+import org.apache.commons.httpclient.UsernamePasswordCredentials;
+import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.params.HttpClientParams;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+
+/**
+ * A transport that executes the requests with Commons HttpClient, one request at a time over a single connection.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class CommonsHttpTransport
+    implements HttpTransport
+{
+    private final HttpClient client;
+
+    public CommonsHttpTransport()
+    {
+        this( new SimpleHttpConnectionManager() );
+    }
+
+    /**
+     * Create a transport that gets its connections from the supplied connection manager.
+     *
+     * @param connectionManager The connection manager to use
+     */
+    protected CommonsHttpTransport( HttpConnectionManager connectionManager )
+    {
+        this( new HttpClient( connectionManager ) );
+
+        // MCHANGES-89 Allow circular redirects
+        client.getParams().setBooleanParameter( HttpClientParams.ALLOW_CIRCULAR_REDIRECTS, true );
+    }
+
+    /**
+     * Create a transport that uses an already configured client.
+     *
+     * @param client The client to use
+     */
+    public CommonsHttpTransport( HttpClient client )
+    {
+        this.client = client;
+    }
+
+    public int executeMethod( HttpMethod method )
+        throws IOException
+    {
+        return client.executeMethod( method );
+    }
+
+    public HttpState getState()
+    {
+        return client.getState();
+    }
+
+    public void setProxy( String host, int port, String user, String password )
+    {
+        client.getHostConfiguration().setProxy( host, port );
+
+        if ( user != null )
+        {
+            client.getState().setProxyCredentials( new AuthScope( null, AuthScope.ANY_PORT, null,
+                                                                  AuthScope.ANY_SCHEME ),
+                                                   new UsernamePasswordCredentials( user, password ) );
+        }
+    }
+
+    public void setBasicCredentials( String user, String password )
+    {
+        client.getParams().setAuthenticationPreemptive( true );
+
+        client.getState().setCredentials( new AuthScope( null, AuthScope.ANY_PORT, null, AuthScope.ANY_SCHEME ),
+                                          new UsernamePasswordCredentials( user, password ) );
+    }
+
+    public void setTimeouts( int connectionTimeout, int socketTimeout )
+    {
+        HttpConnectionManagerParams params = client.getHttpConnectionManager().getParams();
+        params.setConnectionTimeout( connectionTimeout );
+        params.setSoTimeout( socketTimeout );
+    }
+
+    public boolean isAvailable()
+    {
+        return true;
+    }
+
+    public void close()
+    {
+        // Nothing to close, the connection is closed when the client is garbage collected
+    }
+
+    /**
+     * Get the client that executes the requests.
+     *
+     * @return The client
+     */
+    protected HttpClient getClient()
+    {
+        return client;
+    }
+}
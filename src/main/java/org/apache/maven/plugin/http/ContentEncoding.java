@@ -0,0 +1,154 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+
+/**
+ * Helps with compressed transfers: asking for a compressed response and decompressing it while it is read.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public final class ContentEncoding
+{
+    /** The gzip content encoding. */
+    public static final String GZIP = "gzip";
+
+    /** The deflate content encoding. */
+    public static final String DEFLATE = "deflate";
+
+    /** The value of the <code>Accept-Encoding</code> header sent with the requests. */
+    public static final String ACCEPT_ENCODING = GZIP + ", " + DEFLATE;
+
+    /** The first two bytes of gzip compressed data. */
+    private static final int GZIP_MAGIC = 0x1f8b;
+
+    private ContentEncoding()
+    {
+        // utility class
+    }
+
+    /**
+     * Tell the server that the response of a method may be compressed.
+     *
+     * @param method The method to send
+     */
+    public static void acceptCompressed( HttpMethod method )
+    {
+        method.setRequestHeader( "Accept-Encoding", ACCEPT_ENCODING );
+    }
+
+    /**
+     * Get the encoding of the response of a method.
+     *
+     * @param method The method that was executed
+     * @return {@link #GZIP}, {@link #DEFLATE} or <code>null</code> if the response is not compressed
+     */
+    public static String getContentEncoding( HttpMethod method )
+    {
+        Header header = method.getResponseHeader( "Content-Encoding" );
+        if ( header != null )
+        {
+            String encoding = header.getValue().trim().toLowerCase();
+            if ( GZIP.equals( encoding ) || "x-gzip".equals( encoding ) )
+            {
+                return GZIP;
+            }
+            else if ( DEFLATE.equals( encoding ) )
+            {
+                return DEFLATE;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the body of the response of a method, decompressing it while it is read.
+     *
+     * @param method The method that was executed
+     * @return The decompressed body of the response, or <code>null</code> if there is no body
+     * @throws IOException If the body could not be read
+     */
+    public static InputStream getResponseBodyAsStream( HttpMethod method )
+        throws IOException
+    {
+        InputStream body = method.getResponseBodyAsStream();
+        if ( body == null )
+        {
+            return null;
+        }
+
+        String encoding = getContentEncoding( method );
+        if ( GZIP.equals( encoding ) )
+        {
+            return new GZIPInputStream( body );
+        }
+        else if ( DEFLATE.equals( encoding ) )
+        {
+            return inflate( body );
+        }
+        return body;
+    }
+
+    /**
+     * Decompress a stream if it holds gzip compressed data. Other data is returned as is.
+     *
+     * @param in The stream to read
+     * @return A stream with the decompressed data
+     * @throws IOException If the stream could not be read
+     */
+    public static InputStream decompressIfGzipped( InputStream in )
+        throws IOException
+    {
+        InputStream buffered = new BufferedInputStream( in );
+        buffered.mark( 2 );
+        int magic = ( buffered.read() << 8 ) | buffered.read();
+        buffered.reset();
+
+        return magic == GZIP_MAGIC ? (InputStream) new GZIPInputStream( buffered ) : buffered;
+    }
+
+    /**
+     * Decompress deflated data. Most servers send the data in the zlib format as required by the HTTP specification,
+     * but some send raw deflate data without the zlib header.
+     */
+    private static InputStream inflate( InputStream in )
+        throws IOException
+    {
+        InputStream buffered = new BufferedInputStream( in );
+        buffered.mark( 2 );
+        int cmf = buffered.read();
+        int flg = buffered.read();
+        buffered.reset();
+
+        // A zlib header uses the deflate method and is a multiple of 31
+        boolean zlib = cmf != -1 && flg != -1 && ( cmf & 0x0f ) == 8 && ( ( cmf << 8 ) | flg ) % 31 == 0;
+        return new InflaterInputStream( buffered, new Inflater( !zlib ) );
+    }
+}
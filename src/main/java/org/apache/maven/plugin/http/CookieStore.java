@@ -0,0 +1,203 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.Properties;
+
+import org.apache.commons.httpclient.Cookie;
+import org.apache.commons.httpclient.HttpState;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Stores the cookies of an {@link HttpState} in a file, so that a session with a server can be reused by later
+ * builds. The file holds session secrets and should be kept in a location that only the user can read.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class CookieStore
+{
+    private static final String COOKIE_PREFIX = "cookie.";
+
+    private final File file;
+
+    /**
+     * Create a store that keeps its cookies in a file.
+     *
+     * @param file The file to keep the cookies in
+     */
+    public CookieStore( File file )
+    {
+        this.file = file;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Add the stored cookies that have not expired to a state.
+     *
+     * @param state The state to add the cookies to
+     * @return <code>true</code> if any cookies were added
+     * @throws IOException If the file could not be read
+     */
+    public boolean load( HttpState state )
+        throws IOException
+    {
+        if ( !file.isFile() )
+        {
+            return false;
+        }
+
+        Properties properties = new Properties();
+        InputStream in = new FileInputStream( file );
+        try
+        {
+            properties.load( in );
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+
+        Date now = new Date();
+        boolean loaded = false;
+        for ( int i = 0; properties.getProperty( COOKIE_PREFIX + i + ".name" ) != null; i++ )
+        {
+            String prefix = COOKIE_PREFIX + i + ".";
+            Cookie cookie = new Cookie();
+            cookie.setName( properties.getProperty( prefix + "name" ) );
+            cookie.setValue( properties.getProperty( prefix + "value" ) );
+            cookie.setDomain( properties.getProperty( prefix + "domain" ) );
+            cookie.setPath( properties.getProperty( prefix + "path" ) );
+            cookie.setSecure( Boolean.valueOf( properties.getProperty( prefix + "secure" ) ).booleanValue() );
+            cookie.setDomainAttributeSpecified( Boolean.valueOf( properties.getProperty( prefix + "domainSpecified" ) )
+                .booleanValue() );
+            cookie.setPathAttributeSpecified( Boolean.valueOf( properties.getProperty( prefix + "pathSpecified" ) )
+                .booleanValue() );
+            String expires = properties.getProperty( prefix + "expires" );
+            if ( expires != null )
+            {
+                cookie.setExpiryDate( new Date( Long.parseLong( expires ) ) );
+            }
+
+            if ( !cookie.isExpired( now ) )
+            {
+                state.addCookie( cookie );
+                loaded = true;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Store the cookies of a state, replacing the cookies that were stored before. The cookies are written to a
+     * temporary file that then replaces the file, so that concurrent builds never read a partly written file.
+     *
+     * @param state The state to take the cookies from
+     * @throws IOException If the file could not be written
+     */
+    public void save( HttpState state )
+        throws IOException
+    {
+        Properties properties = new Properties();
+        Cookie[] cookies = state.getCookies();
+        for ( int i = 0; i < cookies.length; i++ )
+        {
+            String prefix = COOKIE_PREFIX + i + ".";
+            setProperty( properties, prefix + "name", cookies[i].getName() );
+            setProperty( properties, prefix + "value", cookies[i].getValue() );
+            setProperty( properties, prefix + "domain", cookies[i].getDomain() );
+            setProperty( properties, prefix + "path", cookies[i].getPath() );
+            setProperty( properties, prefix + "secure", String.valueOf( cookies[i].getSecure() ) );
+            setProperty( properties, prefix + "domainSpecified",
+                         String.valueOf( cookies[i].isDomainAttributeSpecified() ) );
+            setProperty( properties, prefix + "pathSpecified",
+                         String.valueOf( cookies[i].isPathAttributeSpecified() ) );
+            if ( cookies[i].getExpiryDate() != null )
+            {
+                setProperty( properties, prefix + "expires", String.valueOf( cookies[i].getExpiryDate().getTime() ) );
+            }
+        }
+
+        File directory = file.getAbsoluteFile().getParentFile();
+        if ( !directory.exists() )
+        {
+            directory.mkdirs();
+        }
+
+        File partialFile = File.createTempFile( file.getName(), ".part", directory );
+        OutputStream out = null;
+        try
+        {
+            out = new FileOutputStream( partialFile );
+            properties.store( out, "HTTP session cookies - do not share this file" );
+            out.close();
+            out = null;
+        }
+        finally
+        {
+            IOUtil.close( out );
+            if ( out != null )
+            {
+                partialFile.delete();
+            }
+        }
+
+        if ( !partialFile.renameTo( file ) )
+        {
+            // Some platforms do not rename over an existing file
+            file.delete();
+            if ( !partialFile.renameTo( file ) )
+            {
+                partialFile.delete();
+                throw new IOException( "Unable to rename " + partialFile + " to " + file );
+            }
+        }
+    }
+
+    /**
+     * Remove the stored cookies.
+     */
+    public void delete()
+    {
+        if ( file.exists() )
+        {
+            file.delete();
+        }
+    }
+
+    private static void setProperty( Properties properties, String key, String value )
+    {
+        if ( value != null )
+        {
+            properties.setProperty( key, value );
+        }
+    }
+}
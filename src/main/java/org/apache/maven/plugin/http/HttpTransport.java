@@ -0,0 +1,92 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
+
+/**
+ * The transport used to talk to an issue tracker over HTTP. It hides which client library, and which connection
+ * handling, is used to execute the requests.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public interface HttpTransport
+{
+    /**
+     * Execute an HTTP method. The caller must release the connection of the method when it is done with the
+     * response.
+     *
+     * @param method The method to execute
+     * @return The status code of the response
+     * @throws IOException If the request could not be sent or the response could not be read
+     */
+    int executeMethod( HttpMethod method )
+        throws IOException;
+
+    /**
+     * Get the state, such as cookies and credentials, that is shared by all the requests of this transport.
+     *
+     * @return The HTTP state
+     */
+    HttpState getState();
+
+    /**
+     * Send all requests through a proxy.
+     *
+     * @param host     The host of the proxy
+     * @param port     The port of the proxy
+     * @param user     The user to authenticate with at the proxy, or <code>null</code>
+     * @param password The password to authenticate with at the proxy
+     */
+    void setProxy( String host, int port, String user, String password );
+
+    /**
+     * Use basic authentication for all requests.
+     *
+     * @param user     The user to authenticate with
+     * @param password The password to authenticate with
+     */
+    void setBasicCredentials( String user, String password );
+
+    /**
+     * Limit the time that a request may take.
+     *
+     * @param connectionTimeout The time to wait for a connection to be established, in milliseconds, or 0 to wait
+     *                          forever
+     * @param socketTimeout     The time to wait for data from the server, in milliseconds, or 0 to wait forever
+     */
+    void setTimeouts( int connectionTimeout, int socketTimeout );
+
+    /**
+     * Check if requests may be sent. A transport can refuse to send requests to a server that has failed too often.
+     *
+     * @return <code>true</code> if requests may be sent
+     */
+    boolean isAvailable();
+
+    /**
+     * Close the transport and all of its connections.
+     */
+    void close();
+}
@@ -0,0 +1,139 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Date;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Creates the transport that is configured for a report or mojo.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public final class HttpTransportFactory
+{
+    /** The transport that executes one request at a time over a single connection. */
+    public static final String SIMPLE = "simple";
+
+    /** The transport that keeps a pool of persistent connections, shared by concurrent requests. */
+    public static final String POOLED = "pooled";
+
+    private HttpTransportFactory()
+    {
+        // utility class
+    }
+
+    /**
+     * Create a transport.
+     *
+     * @param type The type of transport, either {@link #SIMPLE} or {@link #POOLED}. If it is empty the pooled
+     *             transport is used.
+     * @return A new transport
+     * @throws IllegalArgumentException If the type of transport is unknown
+     */
+    public static HttpTransport createTransport( String type )
+    {
+        return createTransport( type, PooledHttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST );
+    }
+
+    /**
+     * Create a transport.
+     *
+     * @param type                  The type of transport, either {@link #SIMPLE} or {@link #POOLED}. If it is empty
+     *                              the pooled transport is used.
+     * @param maxConnectionsPerHost The maximum number of connections the pooled transport keeps open to a single
+     *                              host. The simple transport always uses one connection.
+     * @return A new transport
+     * @throws IllegalArgumentException If the type of transport is unknown
+     */
+    public static HttpTransport createTransport( String type, int maxConnectionsPerHost )
+    {
+        if ( type == null || type.length() == 0 || POOLED.equals( type ) )
+        {
+            PooledHttpTransport transport = new PooledHttpTransport();
+            transport.setMaxConnectionsPerHost( Math.max( 1, maxConnectionsPerHost ) );
+            return transport;
+        }
+        else if ( SIMPLE.equals( type ) )
+        {
+            return new CommonsHttpTransport();
+        }
+        throw new IllegalArgumentException( "Unknown HTTP transport '" + type + "'. Valid values are '" + SIMPLE
+            + "' and '" + POOLED + "'." );
+    }
+
+    /**
+     * Wrap a transport so that failed requests to an issue tracker are retried, and so that the tracker is not
+     * called anymore during the build once it has failed too often.
+     *
+     * @param transport      The transport that executes the requests
+     * @param trackerUrl     The URL of the issue tracker
+     * @param maxRetries     The number of times a failed request is retried
+     * @param buildStartTime The start time of the build, which identifies the circuit breakers of the build
+     * @param log            Used to tell the user about retries
+     * @return The wrapped transport
+     */
+    public static HttpTransport createRetryingTransport( HttpTransport transport, String trackerUrl, int maxRetries,
+                                                         Date buildStartTime, Log log )
+    {
+        return createRetryingTransport( transport, trackerUrl, false, maxRetries, buildStartTime, log );
+    }
+
+    /**
+     * Wrap a transport so that failed requests to an issue tracker are retried, and so that the tracker is not
+     * called anymore during the build once it has failed too often.
+     *
+     * @param transport      The transport that executes the requests
+     * @param trackerUrl     The URL of the issue tracker
+     * @param ownBreaker     <code>true</code> to stop calling only this URL when it fails too often, for instance
+     *                       the URL of one of several projects on the same tracker. <code>false</code> to stop
+     *                       calling the whole host of the URL
+     * @param maxRetries     The number of times a failed request is retried
+     * @param buildStartTime The start time of the build, which identifies the circuit breakers of the build
+     * @param log            Used to tell the user about retries
+     * @return The wrapped transport
+     */
+    public static HttpTransport createRetryingTransport( HttpTransport transport, String trackerUrl,
+                                                         boolean ownBreaker, int maxRetries, Date buildStartTime,
+                                                         Log log )
+    {
+        String name = trackerUrl;
+        if ( !ownBreaker )
+        {
+            try
+            {
+                name = new URL( trackerUrl ).getHost();
+            }
+            catch ( MalformedURLException e )
+            {
+                // Use the whole URL as name
+            }
+        }
+
+        RetryingHttpTransport retryingTransport =
+            new RetryingHttpTransport( transport, CircuitBreaker.getCircuitBreaker( name, buildStartTime ), log );
+        retryingTransport.setMaxRetries( maxRetries );
+        return retryingTransport;
+    }
+}
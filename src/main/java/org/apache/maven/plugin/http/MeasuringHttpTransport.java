@@ -0,0 +1,127 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
+import org.apache.maven.plugin.metrics.HttpMetrics;
+
+/**
+ * A transport that records the latency, size, status code and redirects of every request in {@link HttpMetrics}.
+ * The latency is the time until the response headers were received, reading the body is not included.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class MeasuringHttpTransport
+    implements HttpTransport
+{
+    private final HttpTransport transport;
+
+    private final HttpMetrics metrics;
+
+    /**
+     * @param transport The transport that sends the requests
+     * @param metrics   The metrics to record the requests in
+     */
+    public MeasuringHttpTransport( HttpTransport transport, HttpMetrics metrics )
+    {
+        this.transport = transport;
+        this.metrics = metrics;
+    }
+
+    public int executeMethod( HttpMethod method )
+        throws IOException
+    {
+        String requestedUri = method.getURI().toString();
+        long startTime = System.currentTimeMillis();
+        int status;
+        try
+        {
+            status = transport.executeMethod( method );
+        }
+        catch ( IOException e )
+        {
+            metrics.recordFailure( System.currentTimeMillis() - startTime );
+            throw e;
+        }
+
+        boolean redirected = !requestedUri.equals( method.getURI().toString() );
+        metrics.recordResponse( System.currentTimeMillis() - startTime, status, getContentLength( method ),
+                                redirected );
+        return status;
+    }
+
+    /**
+     * Get the length of the response body as it was sent, which is the compressed length for a compressed response.
+     *
+     * @return The length, or -1 if the server did not send it
+     */
+    private static long getContentLength( HttpMethod method )
+    {
+        Header contentLength = method.getResponseHeader( "Content-Length" );
+        if ( contentLength != null )
+        {
+            try
+            {
+                return Long.parseLong( contentLength.getValue().trim() );
+            }
+            catch ( NumberFormatException e )
+            {
+                // Unknown length
+            }
+        }
+        return -1;
+    }
+
+    public HttpState getState()
+    {
+        return transport.getState();
+    }
+
+    public void setProxy( String host, int port, String user, String password )
+    {
+        metrics.setProxy( host + ":" + port );
+        transport.setProxy( host, port, user, password );
+    }
+
+    public void setBasicCredentials( String user, String password )
+    {
+        transport.setBasicCredentials( user, password );
+    }
+
+    public void setTimeouts( int connectionTimeout, int socketTimeout )
+    {
+        transport.setTimeouts( connectionTimeout, socketTimeout );
+    }
+
+    public boolean isAvailable()
+    {
+        return transport.isAvailable();
+    }
+
+    public void close()
+    {
+        transport.close();
+    }
+}
@@ -0,0 +1,78 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+
+/**
+ * A transport that keeps a pool of persistent connections. It is safe to use from several threads at once:
+ * concurrent requests share the connections of the pool, and wait for a free connection when the maximum number of
+ * connections to a host is reached.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class PooledHttpTransport
+    extends CommonsHttpTransport
+{
+    /** The default maximum number of connections to a single host. */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 4;
+
+    private final MultiThreadedHttpConnectionManager connectionManager;
+
+    public PooledHttpTransport()
+    {
+        this( new MultiThreadedHttpConnectionManager() );
+    }
+
+    private PooledHttpTransport( MultiThreadedHttpConnectionManager connectionManager )
+    {
+        super( connectionManager );
+        this.connectionManager = connectionManager;
+        setMaxConnectionsPerHost( DEFAULT_MAX_CONNECTIONS_PER_HOST );
+    }
+
+    /**
+     * Set the maximum number of connections that are kept open to a single host.
+     *
+     * @param maxConnectionsPerHost The maximum number of connections
+     */
+    public void setMaxConnectionsPerHost( int maxConnectionsPerHost )
+    {
+        connectionManager.getParams().setDefaultMaxConnectionsPerHost( maxConnectionsPerHost );
+        connectionManager.getParams().setMaxTotalConnections(
+            Math.max( maxConnectionsPerHost, connectionManager.getParams().getMaxTotalConnections() ) );
+    }
+
+    /**
+     * Get the maximum number of connections that are kept open to a single host.
+     *
+     * @return The maximum number of connections
+     */
+    public int getMaxConnectionsPerHost()
+    {
+        return connectionManager.getParams().getDefaultMaxConnectionsPerHost();
+    }
+
+    public void close()
+    {
+        connectionManager.shutdown();
+    }
+}
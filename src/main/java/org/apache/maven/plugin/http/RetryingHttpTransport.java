@@ -0,0 +1,305 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+
+import org.apache.commons.httpclient.DefaultHttpMethodRetryHandler;
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
+import org.apache.commons.httpclient.HttpMethodRetryHandler;
+import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
+import org.apache.commons.httpclient.params.HttpMethodParams;
+import org.apache.commons.httpclient.util.DateParseException;
+import org.apache.commons.httpclient.util.DateUtil;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * A transport that retries requests that failed with an I/O error, or with a status that says that the server is
+ * temporarily unable to answer. The retries wait a growing, randomized, delay or the delay that the server asked for
+ * with a <code>Retry-After</code> header. Requests that still fail are recorded by a {@link CircuitBreaker}, and once
+ * the breaker is open no more requests are sent.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class RetryingHttpTransport
+    implements HttpTransport
+{
+    /** The default number of times a request is retried. */
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    /** The delay before the first retry, in milliseconds. Each retry doubles it. */
+    private static final long INITIAL_DELAY = 1000;
+
+    /** The longest delay before a retry, in milliseconds, even if the server asks for more. */
+    private static final long MAX_DELAY = 60000;
+
+    private static final Random RANDOM = new Random();
+
+    /** Stops HttpClient from retrying on its own, so that every attempt goes through the backoff and the breaker. */
+    private static final HttpMethodRetryHandler NO_RETRIES = new DefaultHttpMethodRetryHandler( 0, false );
+
+    private final HttpTransport transport;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final Log log;
+
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+
+    /**
+     * Create a transport that retries the requests of another transport.
+     *
+     * @param transport      The transport that executes the requests
+     * @param circuitBreaker The breaker to record failed requests with
+     * @param log            Used to tell the user about retries
+     */
+    public RetryingHttpTransport( HttpTransport transport, CircuitBreaker circuitBreaker, Log log )
+    {
+        this.transport = transport;
+        this.circuitBreaker = circuitBreaker;
+        this.log = log;
+    }
+
+    /**
+     * Set the number of times a failed request is retried.
+     *
+     * @param maxRetries The number of retries, 0 to not retry
+     */
+    public void setMaxRetries( int maxRetries )
+    {
+        this.maxRetries = maxRetries;
+    }
+
+    public int executeMethod( HttpMethod method )
+        throws IOException
+    {
+        if ( circuitBreaker.isOpen() )
+        {
+            throw new CircuitBreakerOpenException( "Not calling " + circuitBreaker.getName()
+                + ", because it has failed too often during this build." );
+        }
+
+        method.getParams().setParameter( HttpMethodParams.RETRY_HANDLER, NO_RETRIES );
+
+        for ( int attempt = 0;; attempt++ )
+        {
+            boolean retry = attempt < maxRetries && isRepeatable( method );
+
+            int status;
+            try
+            {
+                status = transport.executeMethod( method );
+            }
+            catch ( IOException e )
+            {
+                if ( !retry )
+                {
+                    recordFailure();
+                    throw e;
+                }
+                long delay = getBackoffDelay( attempt );
+                log.warn( "Request to " + getUri( method ) + " failed: " + e.getLocalizedMessage() + ". Retrying in "
+                    + delay + " ms." );
+                sleep( delay );
+                continue;
+            }
+
+            if ( !isTransientFailure( status ) )
+            {
+                circuitBreaker.recordSuccess();
+                return status;
+            }
+            if ( !retry )
+            {
+                recordFailure();
+                return status;
+            }
+
+            long delay = getRetryAfterDelay( method );
+            if ( delay < 0 )
+            {
+                delay = getBackoffDelay( attempt );
+            }
+            log.warn( "Request to " + getUri( method ) + " returned [" + status + "]. Retrying in " + delay
+                + " ms." );
+            method.releaseConnection();
+            sleep( delay );
+        }
+    }
+
+    private void recordFailure()
+    {
+        if ( circuitBreaker.recordFailure() )
+        {
+            log.warn( "Too many failed requests to " + circuitBreaker.getName()
+                + ". It will not be called again during this build." );
+        }
+    }
+
+    /**
+     * Check if a status says that the server is temporarily unable to answer.
+     *
+     * @param status The status of a response
+     * @return <code>true</code> if the request should be retried
+     */
+    static boolean isTransientFailure( int status )
+    {
+        // 429 Too Many Requests, 500 Internal Server Error, 502 Bad Gateway, 503 Service Unavailable and
+        // 504 Gateway Timeout
+        return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Get the delay before a retry, which doubles with every attempt. A random part of the delay is left out, so
+     * that the builds that wait for the same server don't all retry at the same moment.
+     *
+     * @param attempt The number of the attempt that failed, starting at 0
+     * @return The delay in milliseconds
+     */
+    static long getBackoffDelay( int attempt )
+    {
+        long delay = Math.min( MAX_DELAY, INITIAL_DELAY << Math.min( attempt, 16 ) );
+        return delay / 2 + (long) ( RANDOM.nextDouble() * ( delay / 2 ) );
+    }
+
+    /**
+     * Get the delay that the server asked for with a <code>Retry-After</code> header, which holds either a number
+     * of seconds or a date.
+     *
+     * @param method The method that was executed
+     * @return The delay in milliseconds, or -1 if the server didn't ask for a delay
+     */
+    static long getRetryAfterDelay( HttpMethod method )
+    {
+        Header retryAfter = method.getResponseHeader( "Retry-After" );
+        if ( retryAfter == null )
+        {
+            return -1;
+        }
+
+        String value = retryAfter.getValue().trim();
+        long delay;
+        try
+        {
+            delay = Long.parseLong( value ) * 1000;
+        }
+        catch ( NumberFormatException e )
+        {
+            try
+            {
+                delay = DateUtil.parseDate( value ).getTime() - new Date().getTime();
+            }
+            catch ( DateParseException dpe )
+            {
+                return -1;
+            }
+        }
+        return Math.max( 0, Math.min( MAX_DELAY, delay ) );
+    }
+
+    /**
+     * Check if a method can be sent again. The body of a request can only be sent again if it is repeatable.
+     */
+    private static boolean isRepeatable( HttpMethod method )
+    {
+        if ( method instanceof EntityEnclosingMethod )
+        {
+            EntityEnclosingMethod entityMethod = (EntityEnclosingMethod) method;
+            return entityMethod.getRequestEntity() == null || entityMethod.getRequestEntity().isRepeatable();
+        }
+        return true;
+    }
+
+    private static String getUri( HttpMethod method )
+    {
+        try
+        {
+            return method.getURI().toString();
+        }
+        catch ( IOException e )
+        {
+            return method.getPath();
+        }
+    }
+
+    /**
+     * Wait before a retry.
+     *
+     * @param delay The time to wait in milliseconds
+     * @throws IOException If the wait was interrupted
+     */
+    protected void sleep( long delay )
+        throws IOException
+    {
+        try
+        {
+            Thread.sleep( delay );
+        }
+        catch ( InterruptedException e )
+        {
+            throw new IOException( "Interrupted while waiting to retry a request" );
+        }
+    }
+
+    /**
+     * Get the breaker that stops the requests once they have failed too often.
+     *
+     * @return The circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker()
+    {
+        return circuitBreaker;
+    }
+
+    public HttpState getState()
+    {
+        return transport.getState();
+    }
+
+    public void setProxy( String host, int port, String user, String password )
+    {
+        transport.setProxy( host, port, user, password );
+    }
+
+    public void setBasicCredentials( String user, String password )
+    {
+        transport.setBasicCredentials( user, password );
+    }
+
+    public void setTimeouts( int connectionTimeout, int socketTimeout )
+    {
+        transport.setTimeouts( connectionTimeout, socketTimeout );
+    }
+
+    public boolean isAvailable()
+    {
+        return !circuitBreaker.isOpen() && transport.isAvailable();
+    }
+
+    public void close()
+    {
+        transport.close();
+    }
+}
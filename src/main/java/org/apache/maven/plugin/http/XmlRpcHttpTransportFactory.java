@@ -0,0 +1,224 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.XmlRpcRequest;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientException;
+import org.apache.xmlrpc.client.XmlRpcHttpClientConfig;
+import org.apache.xmlrpc.client.XmlRpcHttpTransport;
+import org.apache.xmlrpc.client.XmlRpcTransport;
+import org.apache.xmlrpc.client.XmlRpcTransportFactoryImpl;
+import org.apache.xmlrpc.common.XmlRpcStreamRequestConfig;
+import org.apache.xmlrpc.util.HttpUtil;
+import org.apache.xmlrpc.util.XmlRpcIOException;
+import org.xml.sax.SAXException;
+
+/**
+ * Lets an XML-RPC client send its requests through an {@link HttpTransport}, so that the calls can share the
+ * connections of that transport.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class XmlRpcHttpTransportFactory
+    extends XmlRpcTransportFactoryImpl
+{
+    private final HttpTransport transport;
+
+    /**
+     * Create a factory for the transports of an XML-RPC client.
+     *
+     * @param client    The XML-RPC client
+     * @param transport The transport to send the requests through
+     */
+    public XmlRpcHttpTransportFactory( XmlRpcClient client, HttpTransport transport )
+    {
+        super( client );
+        this.transport = transport;
+    }
+
+    public XmlRpcTransport getTransport()
+    {
+        return new Transport( getClient(), transport );
+    }
+
+    /**
+     * Passes everything on to another stream, except for closing it.
+     */
+    private static class UnclosableOutputStream
+        extends FilterOutputStream
+    {
+        UnclosableOutputStream( OutputStream out )
+        {
+            super( out );
+        }
+
+        public void write( byte[] b, int off, int len )
+            throws IOException
+        {
+            out.write( b, off, len );
+        }
+
+        public void close()
+            throws IOException
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Sends a single XML-RPC request as an HTTP POST.
+     */
+    private static class Transport
+        extends XmlRpcHttpTransport
+    {
+        private final HttpTransport transport;
+
+        private PostMethod method;
+
+        private int contentLength = -1;
+
+        Transport( XmlRpcClient client, HttpTransport transport )
+        {
+            super( client, USER_AGENT );
+            this.transport = transport;
+        }
+
+        protected void initHttpHeaders( XmlRpcRequest request )
+            throws XmlRpcClientException
+        {
+            XmlRpcHttpClientConfig config = (XmlRpcHttpClientConfig) request.getConfig();
+            method = new PostMethod( config.getServerURL().toString() );
+            super.initHttpHeaders( request );
+        }
+
+        protected void setRequestHeader( String header, String value )
+        {
+            method.setRequestHeader( header, value );
+        }
+
+        protected void setContentLength( int length )
+        {
+            contentLength = length;
+        }
+
+        protected boolean isResponseGzipCompressed( XmlRpcStreamRequestConfig config )
+        {
+            Header contentEncoding = method.getResponseHeader( "Content-Encoding" );
+            return contentEncoding != null && HttpUtil.isUsingGzipEncoding( contentEncoding.getValue() );
+        }
+
+        protected InputStream getInputStream()
+            throws XmlRpcException
+        {
+            try
+            {
+                return method.getResponseBodyAsStream();
+            }
+            catch ( IOException e )
+            {
+                throw new XmlRpcClientException( "I/O error while reading the response: " + e.getMessage(), e );
+            }
+        }
+
+        protected void close()
+            throws XmlRpcClientException
+        {
+            method.releaseConnection();
+        }
+
+        protected void writeRequest( final ReqWriter writer )
+            throws XmlRpcException
+        {
+            method.setRequestEntity( new RequestEntity()
+            {
+                public boolean isRepeatable()
+                {
+                    return contentLength != -1;
+                }
+
+                public void writeRequest( OutputStream out )
+                    throws IOException
+                {
+                    try
+                    {
+                        // The writer closes its stream, which must not close the connection
+                        writer.write( new UnclosableOutputStream( out ) );
+                    }
+                    catch ( XmlRpcException e )
+                    {
+                        throw new XmlRpcIOException( e );
+                    }
+                    catch ( SAXException e )
+                    {
+                        throw new XmlRpcIOException( e );
+                    }
+                }
+
+                public long getContentLength()
+                {
+                    return contentLength;
+                }
+
+                public String getContentType()
+                {
+                    return "text/xml";
+                }
+            } );
+
+            int status;
+            try
+            {
+                status = transport.executeMethod( method );
+            }
+            catch ( XmlRpcIOException e )
+            {
+                Throwable cause = e.getLinkedException();
+                if ( cause instanceof XmlRpcException )
+                {
+                    throw (XmlRpcException) cause;
+                }
+                throw new XmlRpcException( "Unexpected exception: " + cause.getMessage(), cause );
+            }
+            catch ( IOException e )
+            {
+                throw new XmlRpcException( "I/O error while communicating with HTTP server: " + e.getMessage(), e );
+            }
+
+            if ( status != HttpStatus.SC_OK )
+            {
+                method.releaseConnection();
+                throw new XmlRpcClientException( "The HTTP server returned the status " + status + " for "
+                    + method.getPath(), null );
+            }
+        }
+    }
+}
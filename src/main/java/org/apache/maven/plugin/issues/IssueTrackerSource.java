@@ -0,0 +1,49 @@
+package org.apache.maven.plugin.issues;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * A source of releases, such as a <code>changes.xml</code> file or an issue tracker. Each release holds the actions
+ * that were done for it. Use {@link ReleasesFuture#fetch(IssueTrackerSource)} to get the releases of several sources
+ * at the same time.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public interface IssueTrackerSource
+{
+    /**
+     * @return The name of the source, for instance <code>JIRA</code>
+     */
+    String getName();
+
+    /**
+     * Get the releases from the source. This can take a long time, for instance when the releases are downloaded.
+     *
+     * @return A <code>List</code> of <code>Release</code>s, never <code>null</code>
+     * @throws MojoExecutionException If the releases could not be retrieved
+     */
+    List getReleases()
+        throws MojoExecutionException;
+}
@@ -0,0 +1,171 @@
+package org.apache.maven.plugin.issues;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * The releases of an {@link IssueTrackerSource} that are being retrieved on a thread of their own.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class ReleasesFuture
+{
+    private final IssueTrackerSource source;
+
+    private final Thread thread;
+
+    private List releases;
+
+    private Throwable failure;
+
+    private ReleasesFuture( IssueTrackerSource source )
+    {
+        this.source = source;
+        this.thread = new Thread( "changes-" + source.getName() )
+        {
+            public void run()
+            {
+                retrieve();
+            }
+        };
+    }
+
+    /**
+     * Start retrieving the releases of a source.
+     *
+     * @param source The source to get the releases from
+     * @return The releases that are being retrieved
+     */
+    public static ReleasesFuture fetch( IssueTrackerSource source )
+    {
+        ReleasesFuture future = new ReleasesFuture( source );
+        future.thread.start();
+        return future;
+    }
+
+    /**
+     * Wait for the releases of several sources. All the sources are waited for, even if one of them fails, so that
+     * nothing is left running.
+     *
+     * @param futures A <code>List</code> of <code>ReleasesFuture</code>s
+     * @return A <code>List</code> with the releases of each source, in the same order as the futures
+     * @throws MojoExecutionException The failure of the first source that failed, which may also be a
+     *                                <code>RuntimeException</code> or an <code>Error</code>
+     */
+    public static List getAll( List futures )
+        throws MojoExecutionException
+    {
+        List releaseLists = new ArrayList( futures.size() );
+        Throwable firstFailure = null;
+        for ( Iterator iterator = futures.iterator(); iterator.hasNext(); )
+        {
+            ReleasesFuture future = (ReleasesFuture) iterator.next();
+            try
+            {
+                releaseLists.add( future.get() );
+            }
+            catch ( MojoExecutionException e )
+            {
+                firstFailure = firstFailure == null ? e : firstFailure;
+            }
+            catch ( RuntimeException e )
+            {
+                firstFailure = firstFailure == null ? e : firstFailure;
+            }
+            catch ( Error e )
+            {
+                firstFailure = firstFailure == null ? e : firstFailure;
+            }
+        }
+        rethrow( firstFailure );
+        return releaseLists;
+    }
+
+    private static void rethrow( Throwable failure )
+        throws MojoExecutionException
+    {
+        if ( failure instanceof MojoExecutionException )
+        {
+            throw (MojoExecutionException) failure;
+        }
+        else if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        else if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+    }
+
+    private void retrieve()
+    {
+        try
+        {
+            releases = source.getReleases();
+        }
+        catch ( MojoExecutionException e )
+        {
+            failure = e;
+        }
+        catch ( RuntimeException e )
+        {
+            failure = e;
+        }
+        catch ( Error e )
+        {
+            failure = e;
+        }
+    }
+
+    public IssueTrackerSource getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Wait until the releases have been retrieved.
+     *
+     * @return A <code>List</code> of <code>Release</code>s
+     * @throws MojoExecutionException If the releases could not be retrieved
+     */
+    public List get()
+        throws MojoExecutionException
+    {
+        try
+        {
+            thread.join();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new MojoExecutionException( "Interrupted while waiting for the releases from " + source.getName()
+                + "." );
+        }
+
+        rethrow( failure );
+        return releases;
+    }
+}
@@ -19,31 +19,35 @@ package org.apache.maven.plugin.jira;
  * under the License.
  */
 
-import org.apache.commons.httpclient.Credentials;
 import org.apache.commons.httpclient.Header;
-import org.apache.commons.httpclient.HostConfiguration;
-import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
-import org.apache.commons.httpclient.HttpState;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.StatusLine;
-import org.apache.commons.httpclient.UsernamePasswordCredentials;
-import org.apache.commons.httpclient.params.HttpClientParams;
-import org.apache.commons.httpclient.auth.AuthScope;
 import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.maven.plugin.http.CommonsHttpTransport;
+import org.apache.maven.plugin.http.ContentEncoding;
+import org.apache.maven.plugin.http.CookieStore;
+import org.apache.maven.plugin.http.HttpTransport;
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.apache.maven.plugin.metrics.PluginEvent;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Proxy;
 import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Gets relevant issues in RSS from a given JIRA installation.
@@ -56,6 +60,10 @@ import java.util.Map;
  */
 public abstract class AbstractJiraDownloader
 {
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+
+    private static final String LOGIN_PAGE = "login.jsp";
+
     /** Log for debug output. */
     private Log log;
     /** Output file for xml document. */
@@ -88,8 +96,24 @@ public abstract class AbstractJiraDownloader
     private String webPassword;
     /** The maven project. */
     private MavenProject project;
+
+    private String issueManagementUrl;
     /** The maven settings. */
     private Settings settings;
+    /** If only issues for the current version of the project should be downloaded. */
+    private boolean onlyCurrentVersion;
+    /** The names of the fields to download, or <code>null</code> to download all fields. */
+    private Set fields;
+    /** If the issues have been downloaded by the current execution. */
+    private boolean downloaded;
+    /** If the output file should be gzip compressed. */
+    private boolean compressOutput;
+    /** The directory to store JIRA sessions in, or <code>null</code> if sessions should not be stored. */
+    private File sessionDirectory;
+    /** The transport used to talk to JIRA, or <code>null</code> to use a transport of our own. */
+    private HttpTransport transport;
+    /** The metrics that the time spent talking to JIRA is recorded in. */
+    private ExecutionMetrics metrics = new ExecutionMetrics( "jira-download", null );
     /** Mapping containing all allowed JIRA status values. */
     protected Map statusMap = new HashMap();
     /** Mapping containing all allowed JIRA resolution values. */
@@ -207,105 +231,33 @@ public abstract class AbstractJiraDownloader
         }
 
         // get the Sort order
-        int validSortColumnNames = 0;
-        if ( sortColumnNames != null )
-        {
-            String[] sortColumnNamesArray = sortColumnNames.split( "," );
-            // N.B. Add in reverse order (it's the way JIRA likes it!!)
-            for ( int i = sortColumnNamesArray.length - 1; i >= 0; i-- )
-            {
-                String lowerColumnName = sortColumnNamesArray[i].trim().toLowerCase( Locale.ENGLISH );
-                boolean descending = false;
-                String fieldName = null;
-                if ( lowerColumnName.endsWith( "desc" ) )
-                {
-                    descending = true;
-                    lowerColumnName = lowerColumnName.substring( 0, lowerColumnName.length() - 4 ).trim();
-                }
-                else if ( lowerColumnName.endsWith( "asc" ) )
-                {
-                    descending = false;
-                    lowerColumnName = lowerColumnName.substring( 0, lowerColumnName.length() - 3 ).trim();
-                }
+        localFilter.append( JiraSortOrder.parse( sortColumnNames, getLog() ).getJiraParameters() );
 
-                if ( "key".equals( lowerColumnName ) )
-                {
-                    fieldName = "issuekey";
-                }
-                else if ( "summary".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "status".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "resolution".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "assignee".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "reporter".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "type".equals( lowerColumnName ) )
-                {
-                    fieldName = "issuetype";
-                }
-                else if ( "priority".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "version".equals( lowerColumnName ) )
-                {
-                    fieldName = "versions";
-                }
-                else if ( "fix version".equals( lowerColumnName ) )
-                {
-                    fieldName = "fixVersions";
-                }
-                else if ( "component".equals( lowerColumnName ) )
-                {
-                    fieldName = "components";
-                }
-                else if ( "created".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                else if ( "updated".equals( lowerColumnName ) )
-                {
-                    fieldName = lowerColumnName;
-                }
-                if ( fieldName != null )
-                {
-                    localFilter.append( "&sorter/field=" );
-                    localFilter.append( fieldName );
-                    localFilter.append( "&sorter/order=" );
-                    localFilter.append( descending ? "DESC" : "ASC" );
-                    validSortColumnNames++;
-                }
-                else
-                {
-                    // Error in the configuration
-                    getLog().error(
-                        "maven-changes-plugin: The configured value '" + lowerColumnName
-                            + "' for sortColumnNames is not correct." );
-                }
-            }
-        }
-        if ( validSortColumnNames == 0 )
+        return localFilter.toString();
+    }
+
+    /**
+     * Creates the request parameters that ask JIRA to only include the wanted fields in the downloaded XML. JIRA
+     * installations that don't support this will ignore them.
+     *
+     * @return request parameters to be added to URL used for downloading the JIRA issues
+     */
+    private String createFieldsParameters()
+    {
+        if ( fields == null )
         {
-            // Error in the configuration
-            getLog().error(
-                "maven-changes-plugin: None of the configured sortColumnNames '" + sortColumnNames + "' are correct." );
+            return "";
         }
 
-
-        return localFilter.toString();
+        StringBuffer fieldsParameters = new StringBuffer();
+        for ( Iterator iterator = new TreeSet( fields ).iterator(); iterator.hasNext(); )
+        {
+            String field = (String) iterator.next();
+            fieldsParameters.append( "&field=" );
+            // The element of a comment is nested inside the "comments" field
+            fieldsParameters.append( "comment".equals( field ) ? "comments" : JiraSortOrder.getFieldId( field ) );
+        }
+        return fieldsParameters.toString();
     }
 
     /**
@@ -316,21 +268,20 @@ public abstract class AbstractJiraDownloader
     public void doExecute()
         throws Exception
     {
-        try
+        HttpTransport client = transport;
+        if ( client == null )
         {
-            HttpClient client = new HttpClient();
-
-            // MCHANGES-89 Allow circular redirects
-            HttpClientParams clientParams = client.getParams();
-            clientParams.setBooleanParameter( HttpClientParams.ALLOW_CIRCULAR_REDIRECTS, true );
-
-            HttpState state = new HttpState();
-
-            HostConfiguration hc = new HostConfiguration();
-
-            client.setHostConfiguration( hc );
+            client = new CommonsHttpTransport();
+        }
 
-            client.setState( state );
+        downloaded = false;
+        try
+        {
+            if ( !client.isAvailable() )
+            {
+                getLog().warn( "Not downloading from JIRA, because it has failed too often during this build." );
+                return;
+            }
 
             determineProxy( client );
 
@@ -343,59 +294,151 @@ public abstract class AbstractJiraDownloader
             prepareBasicAuthentication( client );
 
             boolean jiraAuthenticationSuccessful = false;
+            boolean sessionRestored = false;
             if ( isJiraAuthenticationConfigured() )
             {
-                jiraAuthenticationSuccessful = doJiraAuthentication( client, jiraUrl );
+                metrics.startPhase( "authenticate" );
+                sessionRestored = restoreSession( client, jiraUrl );
+                jiraAuthenticationSuccessful = sessionRestored || doJiraAuthentication( client, jiraUrl );
+                metrics.endPhase( "authenticate" );
             }
 
             if ( ( isJiraAuthenticationConfigured() && jiraAuthenticationSuccessful )
                 || !isJiraAuthenticationConfigured() )
             {
-                if ( jiraId == null || jiraId.length() == 0 )
+                boolean loginRequired = downloadIssues( client, jiraUrl, jiraId, sessionRestored );
+
+                if ( loginRequired && sessionRestored )
                 {
-                    log.debug( "The JIRA URL " + project.getIssueManagement().getUrl()
-                        + " doesn't include a pid, trying to extract it from JIRA." );
-                    jiraId = JiraHelper.getPidFromJira( log, project.getIssueManagement().getUrl(), client );
+                    getLog().info( "The stored JIRA session has expired, logging in again." );
+
+                    client.getState().clearCookies();
+                    getSessionStore( jiraUrl ).delete();
+
+                    metrics.startPhase( "authenticate" );
+                    boolean authenticated = doJiraAuthentication( client, jiraUrl );
+                    metrics.endPhase( "authenticate" );
+                    if ( authenticated )
+                    {
+                        loginRequired = downloadIssues( client, jiraUrl, jiraId, false );
+                    }
                 }
 
-                if ( jiraId == null )
+                if ( loginRequired )
                 {
-                    getLog().error( "The issue management URL in the POM does not include a pid,"
-                        + " and it was not possible to extract it from the page at that URL." );
+                    getLog().warn( "JIRA asked for a login. Configure jiraUser and jiraPassword to download"
+                        + " issues that are not public." );
                 }
-                else
-                {
-                    // create the URL for getting the proper issues from JIRA
-                    String fullURL = jiraUrl + "/secure/IssueNavigator.jspa?view=rss&pid=" + jiraId;
+            }
+        }
+        catch ( Exception e )
+        {
+            getLog().error( "Error accessing " + getIssueManagementUrl(), e );
+        }
+        finally
+        {
+            if ( transport == null )
+            {
+                client.close();
+            }
 
-                    if ( getFixFor() != null )
-                    {
-                        fullURL += "&fixfor=" + getFixFor();
-                    }
+            if ( !downloaded && output != null && output.isFile() )
+            {
+                getLog().info( "Using the issues that were downloaded from JIRA earlier, in " + output );
+            }
+        }
+    }
 
-                    String createdFilter = createFilter();
-                    if ( createdFilter.charAt( 0 ) != '&' )
-                    {
-                        fullURL += "&";
-                    }
-                    fullURL += createdFilter;
+    /**
+     * Look up the JIRA id of the project if needed, and download the issues.
+     *
+     * @param client          the transport to use
+     * @param jiraUrl         the JIRA installation
+     * @param jiraId          the JIRA id of the project, or an empty string if it should be looked up
+     * @param sessionRestored if a stored session is used
+     * @return <code>true</code> if JIRA asked for a login
+     */
+    private boolean downloadIssues( HttpTransport client, String jiraUrl, String jiraId, boolean sessionRestored )
+    {
+        if ( jiraId == null || jiraId.length() == 0 )
+        {
+            log.debug( "The JIRA URL " + getIssueManagementUrl()
+                + " doesn't include a pid, trying to extract it from JIRA." );
+            metrics.startPhase( "pid lookup" );
+            jiraId = JiraHelper.getPidFromJira( log, getIssueManagementUrl(), client );
+            metrics.endPhase( "pid lookup" );
+        }
 
-                    fullURL += ( "&tempMax=" + nbEntriesMax + "&reset=true&decorator=none" );
+        if ( jiraId == null )
+        {
+            if ( sessionRestored )
+            {
+                // The project page may not be visible because the session has expired
+                return true;
+            }
+            getLog().error( "The issue management URL in the POM does not include a pid,"
+                + " and it was not possible to extract it from the page at that URL." );
+        }
+        else
+        {
+            String fullURL = getIssuesUrl( client, jiraUrl, jiraId );
 
-                    if ( log.isDebugEnabled() )
-                    {
-                        log.debug( "download jira issues from url " + fullURL );
-                    }
+            if ( log.isDebugEnabled() )
+            {
+                log.debug( "download jira issues from url " + fullURL );
+            }
 
-                    // execute the GET
-                    download( client, fullURL );
-                }
+            // execute the GET
+            metrics.startPhase( "download" );
+            try
+            {
+                return download( client, fullURL );
+            }
+            finally
+            {
+                metrics.endPhase( "download" );
             }
         }
-        catch ( Exception e )
+        return false;
+    }
+
+    /**
+     * Create the URL for getting the proper issues from JIRA.
+     *
+     * @param client  The client used to look up the current version, if only its issues are wanted
+     * @param jiraUrl The base URL of the JIRA installation
+     * @param jiraId  The JIRA id of the project
+     * @return The URL of the RSS view of the issues
+     */
+    String getIssuesUrl( HttpTransport client, String jiraUrl, String jiraId )
+    {
+        String fullURL = jiraUrl + "/secure/IssueNavigator.jspa?view=rss&pid=" + jiraId;
+
+        if ( getFixFor() != null )
+        {
+            fullURL += "&fixfor=" + getFixFor();
+        }
+        else if ( onlyCurrentVersion && StringUtils.isEmpty( fixVersionIds ) )
         {
-            getLog().error( "Error accessing " + project.getIssueManagement().getUrl(), e );
+            String currentVersionId = getCurrentVersionId( client, jiraUrl, jiraId );
+            if ( currentVersionId != null )
+            {
+                fullURL += "&fixfor=" + currentVersionId;
+            }
+        }
+
+        String createdFilter = createFilter();
+        if ( createdFilter.charAt( 0 ) != '&' )
+        {
+            fullURL += "&";
         }
+        fullURL += createdFilter;
+
+        fullURL += ( "&tempMax=" + nbEntriesMax + "&reset=true&decorator=none" );
+
+        fullURL += createFieldsParameters();
+
+        return fullURL;
     }
 
     /**
@@ -408,6 +451,32 @@ public abstract class AbstractJiraDownloader
         return null;
     }
 
+    /**
+     * Look up the JIRA id of the current version of the project, so that only the issues for that version need to be
+     * downloaded. The current version is the version of the project minus any "-SNAPSHOT" suffix.
+     *
+     * @param client  The client used to connect to JIRA
+     * @param jiraUrl The base URL of the JIRA installation
+     * @param jiraId  The JIRA id of the project
+     * @return The JIRA id of the current version, or <code>null</code> if it could not be found
+     */
+    private String getCurrentVersionId( HttpTransport client, String jiraUrl, String jiraId )
+    {
+        String currentVersion = project.getVersion();
+        if ( currentVersion != null && currentVersion.endsWith( SNAPSHOT_SUFFIX ) )
+        {
+            currentVersion = currentVersion.substring( 0, currentVersion.length() - SNAPSHOT_SUFFIX.length() );
+        }
+
+        String currentVersionId = JiraHelper.getVersionIdFromJira( log, jiraUrl, jiraId, currentVersion, client );
+        if ( currentVersionId == null )
+        {
+            getLog().info( "Unable to find the version " + currentVersion
+                + " in JIRA. The issues for all versions will be downloaded." );
+        }
+        return currentVersionId;
+    }
+
     /**
      * Parse out the base URL for JIRA and the JIRA project id from the issue
      * management section of the POM.
@@ -418,7 +487,7 @@ public abstract class AbstractJiraDownloader
     {
         HashMap urlMap = new HashMap();
 
-        String url = project.getIssueManagement().getUrl();
+        String url = getIssueManagementUrl();
 
         // chop off the parameter part
         int pos = url.indexOf( "?" );
@@ -450,20 +519,15 @@ public abstract class AbstractJiraDownloader
     /**
      * Check and prepare for basic authentication.
      *
-     * @param client The client to prepare
+     * @param client The transport to prepare
      */
-    private void prepareBasicAuthentication( HttpClient client )
+    private void prepareBasicAuthentication( HttpTransport client )
     {
         if ( ( webUser != null ) && ( webUser.length() > 0 ) )
         {
-            client.getParams().setAuthenticationPreemptive( true );
-
-            Credentials defaultcreds = new UsernamePasswordCredentials( webUser, webPassword );
-
             getLog().debug( "Using username: " + webUser + " for Basic Authentication." );
 
-            client.getState().setCredentials( new AuthScope( null, AuthScope.ANY_PORT, null, AuthScope.ANY_SCHEME ),
-                                              defaultcreds );
+            client.setBasicCredentials( webUser, webPassword );
         }
     }
 
@@ -472,11 +536,11 @@ public abstract class AbstractJiraDownloader
      * jiraPassword being set. You can check this by calling
      * isJiraAuthenticationConfigured().
      *
-     * @param client    the HttpClient
+     * @param client    the transport to use
      * @param jiraUrl   the JIRA installation
      * @return <code>true</code> if the authentication was successful, otherwise <code>false</code>
      */
-    private boolean doJiraAuthentication( HttpClient client, final String jiraUrl )
+    private boolean doJiraAuthentication( HttpTransport client, final String jiraUrl )
     {
         // log into JIRA if we have to
         String loginUrl = null;
@@ -508,6 +572,7 @@ public abstract class AbstractJiraDownloader
             if ( loginSucceeded( loginGet ) )
             {
                 getLog().debug( "Successfully logged in into JIRA." );
+                saveSession( client, jiraUrl );
                 return true;
             }
             else
@@ -526,9 +591,87 @@ public abstract class AbstractJiraDownloader
                 getLog().error( "Error trying to login into JIRA. Cause is: " + e.getLocalizedMessage() );
             }
         }
+        finally
+        {
+            loginGet.releaseConnection();
+        }
+        return false;
+    }
+
+    /**
+     * Get the store for the session of the JIRA user at a JIRA installation.
+     *
+     * @param jiraUrl the JIRA installation
+     * @return the store, or <code>null</code> if sessions are not stored
+     */
+    private CookieStore getSessionStore( String jiraUrl )
+    {
+        if ( sessionDirectory == null )
+        {
+            return null;
+        }
+        String name = jiraUrl.replaceFirst( "^[a-zA-Z]+://", "" ) + "-" + jiraUser;
+        return new CookieStore( new File( sessionDirectory, name.replaceAll( "[^a-zA-Z0-9.-]", "_" )
+            + ".session" ) );
+    }
+
+    /**
+     * Reuse a stored JIRA session, so that we don't have to log in.
+     *
+     * @param client  the transport to add the session cookies to
+     * @param jiraUrl the JIRA installation
+     * @return <code>true</code> if a session that has not expired was found
+     */
+    private boolean restoreSession( HttpTransport client, String jiraUrl )
+    {
+        CookieStore store = getSessionStore( jiraUrl );
+        if ( store == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            if ( store.load( client.getState() ) )
+            {
+                getLog().debug( "Reusing the JIRA session stored in " + store.getFile() );
+                return true;
+            }
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to read the JIRA session from " + store.getFile() + ". Cause is: "
+                + e.getLocalizedMessage() );
+        }
         return false;
     }
 
+    /**
+     * Store the JIRA session, so that later builds don't have to log in.
+     *
+     * @param client  the transport with the session cookies
+     * @param jiraUrl the JIRA installation
+     */
+    private void saveSession( HttpTransport client, String jiraUrl )
+    {
+        CookieStore store = getSessionStore( jiraUrl );
+        if ( store == null )
+        {
+            return;
+        }
+
+        try
+        {
+            store.save( client.getState() );
+            getLog().debug( "Stored the JIRA session in " + store.getFile() );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to store the JIRA session in " + store.getFile() + ". Cause is: "
+                + e.getLocalizedMessage() );
+        }
+    }
+
     /**
      * Check to see if we think that JIRA authentication is needed.
      *
@@ -558,9 +701,9 @@ public abstract class AbstractJiraDownloader
     /**
      * Setup proxy access if we have to.
      *
-     * @param client  the HttpClient
+     * @param client  the transport to configure
      */
-    private void determineProxy( HttpClient client )
+    private void determineProxy( HttpTransport client )
     {
         // see whether there is any proxy defined in maven
         Proxy proxy = null;
@@ -600,38 +743,37 @@ public abstract class AbstractJiraDownloader
 
         if ( proxyHost != null )
         {
-            client.getHostConfiguration().setProxy( proxyHost, proxyPort );
-
             getLog().debug( "Using proxy: " + proxyHost + " at port " + proxyPort );
 
             if ( proxyUser != null )
             {
                 getLog().debug( "Using proxy user: " + proxyUser );
-
-                client.getState().setProxyCredentials(
-                                                       new AuthScope( null, AuthScope.ANY_PORT, null,
-                                                                      AuthScope.ANY_SCHEME ),
-                                                       new UsernamePasswordCredentials( proxyUser, proxyPass ) );
             }
+
+            client.setProxy( proxyHost, proxyPort, proxyUser, proxyPass );
         }
     }
 
     /**
-     * Downloads the given link using the configured HttpClient, possibly following redirects.
+     * Downloads the given link using the configured transport, possibly following redirects.
      *
-     * @param cl     the HttpClient
+     * @param cl     the transport to use
      * @param link   the URL to JIRA
+     * @return <code>true</code> if JIRA asked for a login instead of returning the issues
      */
-    private void download( final HttpClient cl, final String link )
+    private boolean download( final HttpTransport cl, final String link )
     {
+        PluginEvent event = PluginEvent.begin( PluginEvent.DOWNLOAD, link );
+        GetMethod gm = new GetMethod( link );
         try
         {
-            GetMethod gm = new GetMethod( link );
 
             getLog().info( "Downloading from JIRA at: " + link );
 
             gm.setFollowRedirects( true );
 
+            ContentEncoding.acceptCompressed( gm );
+
             cl.executeMethod( gm );
 
             StatusLine sl = gm.getStatusLine();
@@ -640,7 +782,14 @@ public abstract class AbstractJiraDownloader
             {
                 getLog().error( "Unknown error validating link: " + link );
 
-                return;
+                return false;
+            }
+
+            if ( isLoginRequired( gm ) )
+            {
+                getLog().debug( "JIRA asked for a login when downloading from " + link );
+
+                return true;
             }
 
             // if we get a redirect, do so
@@ -658,25 +807,22 @@ public abstract class AbstractJiraDownloader
 
                     getLog().debug( "Following redirect to " + newLink );
 
-                    download( cl, newLink );
+                    // Free the connection before it is needed for the redirect
+                    gm.releaseConnection();
+
+                    return download( cl, newLink );
                 }
             }
 
             if ( gm.getStatusCode() == HttpStatus.SC_OK )
             {
-                final String strGetResponseBody = gm.getResponseBodyAsString();
-
                 if ( !output.getParentFile().exists() )
                 {
                     output.getParentFile().mkdirs();
                 }
 
-                // write the reponse to file
-                PrintWriter pw = new PrintWriter( new FileWriter( output ) );
-
-                pw.print( strGetResponseBody );
-
-                pw.close();
+                writeResponse( gm );
+                event.setBytes( output.length() );
 
                 getLog().debug( "Downloading from JIRA was successful" );
             }
@@ -708,6 +854,98 @@ public abstract class AbstractJiraDownloader
                 getLog().error( "Error downloading issues from JIRA. Cause is " + e.getLocalizedMessage() );
             }
         }
+        finally
+        {
+            gm.releaseConnection();
+            event.commit();
+        }
+        return false;
+    }
+
+    /**
+     * Check if JIRA answered with a login page, or a redirect to it, instead of the requested page.
+     *
+     * @param gm The method that was executed
+     * @return <code>true</code> if JIRA asked for a login
+     */
+    private static boolean isLoginRequired( GetMethod gm )
+    {
+        if ( gm.getStatusCode() == HttpStatus.SC_UNAUTHORIZED )
+        {
+            return true;
+        }
+
+        Header locationHeader = gm.getResponseHeader( "Location" );
+        if ( locationHeader != null && locationHeader.getValue().indexOf( LOGIN_PAGE ) != -1 )
+        {
+            return true;
+        }
+
+        // The path of the method is updated when a redirect is followed
+        return gm.getPath() != null && gm.getPath().indexOf( LOGIN_PAGE ) != -1;
+    }
+
+    /**
+     * Stream the body of the response to the output file. With <code>compressOutput</code> a gzip compressed response
+     * is written as is, and other responses are compressed while they are written. Otherwise the response is
+     * decompressed while it is written. The response is written to a temporary file first, so that the issues
+     * from an earlier download are kept if the download fails.
+     *
+     * @param gm The method that was executed
+     * @throws IOException If the response could not be read or written
+     */
+    private void writeResponse( GetMethod gm )
+        throws IOException
+    {
+        String contentEncoding = ContentEncoding.getContentEncoding( gm );
+        getLog().debug( "The content encoding of the response is " + contentEncoding );
+
+        File partialOutput = new File( output.getPath() + ".part" );
+        InputStream in = null;
+        OutputStream out = null;
+        try
+        {
+            out = new FileOutputStream( partialOutput );
+            if ( compressOutput && ContentEncoding.GZIP.equals( contentEncoding ) )
+            {
+                in = gm.getResponseBodyAsStream();
+            }
+            else
+            {
+                in = ContentEncoding.getResponseBodyAsStream( gm );
+                if ( compressOutput )
+                {
+                    out = new GZIPOutputStream( out );
+                }
+            }
+
+            if ( in != null )
+            {
+                IOUtil.copy( in, out );
+            }
+            out.close();
+            out = null;
+        }
+        finally
+        {
+            IOUtil.close( in );
+            IOUtil.close( out );
+            if ( out != null )
+            {
+                partialOutput.delete();
+            }
+        }
+
+        if ( output.exists() )
+        {
+            output.delete();
+        }
+        if ( !partialOutput.renameTo( output ) )
+        {
+            throw new IOException( "Unable to rename " + partialOutput + " to " + output );
+        }
+        downloaded = true;
+        metrics.addCount( ExecutionMetrics.BYTES, output.length() );
     }
 
     /**
@@ -725,6 +963,17 @@ public abstract class AbstractJiraDownloader
         return this.output;
     }
 
+    /**
+     * Sets if the output file should be gzip compressed. A compressed output file is decompressed by
+     * {@link JiraXML} while it is parsed.
+     *
+     * @param compressOutput <code>true</code> to compress the output file
+     */
+    public void setCompressOutput( boolean compressOutput )
+    {
+        this.compressOutput = compressOutput;
+    }
+
     /**
      * Sets the project.
      *
@@ -825,6 +1074,27 @@ public abstract class AbstractJiraDownloader
         this.jiraUser = thisJiraUser;
     }
 
+    /**
+     * Sets the URL of the JIRA project to download the issues of. The URL has the same format as the URL in the
+     * issue management section of a POM.
+     *
+     * @param issueManagementUrl The URL, or <code>null</code> to use the issue management URL of the project
+     */
+    public void setIssueManagementUrl( String issueManagementUrl )
+    {
+        this.issueManagementUrl = issueManagementUrl;
+    }
+
+    /**
+     * Get the URL of the JIRA project to download the issues of.
+     *
+     * @return The URL that was set, or else the issue management URL of the project
+     */
+    public String getIssueManagementUrl()
+    {
+        return issueManagementUrl == null ? project.getIssueManagement().getUrl() : issueManagementUrl;
+    }
+
     /**
      * Sets the filter to apply to query to JIRA.
      *
@@ -865,6 +1135,60 @@ public abstract class AbstractJiraDownloader
         typeIds = theseTypeIds;
     }
 
+    /**
+     * Sets if only issues for the current version of the project should be downloaded.
+     *
+     * @param onlyCurrentVersion <code>true</code> to only download issues for the current version
+     */
+    public void setOnlyCurrentVersion( boolean onlyCurrentVersion )
+    {
+        this.onlyCurrentVersion = onlyCurrentVersion;
+    }
+
+    /**
+     * Sets the fields to download from JIRA.
+     *
+     * @param fields The names of the XML elements of an item to download, or <code>null</code> to download all fields
+     */
+    public void setFields( Set fields )
+    {
+        this.fields = fields;
+    }
+
+    /**
+     * Sets the directory to store JIRA sessions in. A stored session is reused by later downloads until it expires,
+     * so that they don't have to log in. The stored sessions are secrets, so the directory should only be readable by
+     * the user.
+     *
+     * @param sessionDirectory The directory, or <code>null</code> to not store sessions
+     */
+    public void setSessionDirectory( File sessionDirectory )
+    {
+        this.sessionDirectory = sessionDirectory;
+    }
+
+    /**
+     * Sets the transport used to talk to JIRA. The transport is not closed by the downloader. If no transport is
+     * set, the downloader uses a transport of its own for each execution.
+     *
+     * @param transport The transport to use
+     */
+    public void setTransport( HttpTransport transport )
+    {
+        this.transport = transport;
+    }
+
+    /**
+     * Sets the metrics that the time spent authenticating, looking up the project and downloading the issues is
+     * recorded in, along with the size of the downloaded issues.
+     *
+     * @param metrics The metrics of the goal that uses the downloader
+     */
+    public void setMetrics( ExecutionMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+
     public void setLog( Log log )
     {
         this.log = log;
@@ -23,7 +23,10 @@ import java.text.NumberFormat;
 import java.text.ParsePosition;
 
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.maven.plugin.http.CommonsHttpTransport;
+import org.apache.maven.plugin.http.HttpTransport;
 import org.apache.maven.plugin.logging.Log;
 
 /**
@@ -45,6 +48,20 @@ public class JiraHelper
      * @return The JIRA id for the project, or null if it can't be found
      */
     public static String getPidFromJira( Log log, String issueManagementUrl, HttpClient client )
+    {
+        return getPidFromJira( log, issueManagementUrl, new CommonsHttpTransport( client ) );
+    }
+
+    /**
+     * Try to get a JIRA pid from the issue management URL.
+     *
+     * @param log     Used to tell the user what happened
+     * @param issueManagementUrl The URL to the issue management system
+     * @param client  The transport used to connect to JIRA
+     * @return The JIRA id for the project, or null if it can't be found
+     * @since 2.4
+     */
+    public static String getPidFromJira( Log log, String issueManagementUrl, HttpTransport client )
     {
         String jiraId = null;
         GetMethod gm = new GetMethod( issueManagementUrl );
@@ -68,6 +85,10 @@ public class JiraHelper
             }
             return null;
         }
+        finally
+        {
+            gm.releaseConnection();
+        }
 
         int pidIndex = projectPage.indexOf( PID );
 
@@ -84,4 +105,206 @@ public class JiraHelper
         }
         return jiraId;
     }
+
+    /**
+     * Try to get the JIRA id of a version of a project. This uses the REST API of JIRA to list the versions of the
+     * project, which is not available in older JIRA installations.
+     *
+     * @param log     Used to tell the user what happened
+     * @param jiraUrl The base URL of the JIRA installation
+     * @param jiraId  The JIRA id of the project
+     * @param version The name of the version
+     * @param client  The transport used to connect to JIRA
+     * @return The JIRA id of the version, or null if it can't be found
+     * @since 2.4
+     */
+    public static String getVersionIdFromJira( Log log, String jiraUrl, String jiraId, String version,
+                                               HttpTransport client )
+    {
+        String versionsUrl = jiraUrl + "/rest/api/2/project/" + jiraId + "/versions";
+        GetMethod gm = new GetMethod( versionsUrl );
+
+        String versions;
+        try
+        {
+            client.executeMethod( gm );
+            if ( gm.getStatusCode() != HttpStatus.SC_OK )
+            {
+                log.debug( "Unable to list the JIRA versions at " + versionsUrl + ". Received: ["
+                    + gm.getStatusCode() + "]" );
+                return null;
+            }
+            versions = gm.getResponseBodyAsString();
+        }
+        catch ( Exception e )
+        {
+            // Older JIRA installations have no REST API, the issues of all versions are downloaded then
+            if ( log.isDebugEnabled() )
+            {
+                log.debug( "Unable to list the JIRA versions:", e );
+            }
+            else
+            {
+                log.warn( "Unable to list the JIRA versions. Cause is: " + e.getLocalizedMessage() );
+            }
+            return null;
+        }
+        finally
+        {
+            gm.releaseConnection();
+        }
+
+        String versionId = getVersionId( versions, version );
+        if ( versionId == null )
+        {
+            log.debug( "Unable to find the version " + version + " among the JIRA versions at " + versionsUrl );
+        }
+        else
+        {
+            log.debug( "Found the version id " + versionId + " for the version " + version );
+        }
+        return versionId;
+    }
+
+    /**
+     * Find the id of a version in the JSON array of versions that JIRA returns. The array is scanned one version
+     * object at a time, so braces and quotes inside the values, such as the description, are skipped.
+     *
+     * @param versions The JSON array of versions
+     * @param version  The name of the version
+     * @return The id of the version, or null if it can't be found
+     */
+    static String getVersionId( String versions, String version )
+    {
+        // The depth of the array of versions is 1, the depth of the version objects is 2
+        int depth = 0;
+        String key = null;
+        String name = null;
+        String id = null;
+
+        int i = 0;
+        while ( i < versions.length() )
+        {
+            char c = versions.charAt( i );
+            if ( c == '"' )
+            {
+                StringBuffer value = new StringBuffer();
+                i = readString( versions, i + 1, value );
+                if ( depth == 2 )
+                {
+                    if ( isFollowedByColon( versions, i ) )
+                    {
+                        key = value.toString();
+                    }
+                    else if ( "name".equals( key ) )
+                    {
+                        name = value.toString();
+                    }
+                    else if ( "id".equals( key ) )
+                    {
+                        id = value.toString();
+                    }
+                }
+                continue;
+            }
+
+            if ( c == '{' || c == '[' )
+            {
+                depth++;
+                if ( depth == 2 )
+                {
+                    key = null;
+                    name = null;
+                    id = null;
+                }
+            }
+            else if ( c == '}' || c == ']' )
+            {
+                if ( depth == 2 && version.equals( name ) && id != null )
+                {
+                    return id;
+                }
+                depth--;
+            }
+            i++;
+        }
+        return null;
+    }
+
+    /**
+     * Read a JSON string and decode its escapes.
+     *
+     * @param json  The JSON text
+     * @param start The index of the first character after the opening quote
+     * @param value The buffer to append the decoded string to
+     * @return The index of the first character after the closing quote
+     */
+    private static int readString( String json, int start, StringBuffer value )
+    {
+        int i = start;
+        while ( i < json.length() )
+        {
+            char c = json.charAt( i++ );
+            if ( c == '"' )
+            {
+                break;
+            }
+            if ( c != '\\' || i >= json.length() )
+            {
+                value.append( c );
+                continue;
+            }
+
+            char escaped = json.charAt( i++ );
+            switch ( escaped )
+            {
+                case 'b':
+                    value.append( '\b' );
+                    break;
+                case 'f':
+                    value.append( '\f' );
+                    break;
+                case 'n':
+                    value.append( '\n' );
+                    break;
+                case 'r':
+                    value.append( '\r' );
+                    break;
+                case 't':
+                    value.append( '\t' );
+                    break;
+                case 'u':
+                    if ( i + 4 <= json.length() )
+                    {
+                        try
+                        {
+                            value.append( (char) Integer.parseInt( json.substring( i, i + 4 ), 16 ) );
+                            i += 4;
+                            break;
+                        }
+                        catch ( NumberFormatException e )
+                        {
+                            // Keep the escape as it is
+                        }
+                    }
+                    value.append( escaped );
+                    break;
+                default:
+                    // Quotes, backslashes and slashes stand for themselves
+                    value.append( escaped );
+                    break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isFollowedByColon( String json, int index )
+    {
+        int i = index;
+        while ( i < json.length() && Character.isWhitespace( json.charAt( i ) ) )
+        {
+            i++;
+        }
+        return i < json.length() && json.charAt( i ) == ':';
+    }
 }
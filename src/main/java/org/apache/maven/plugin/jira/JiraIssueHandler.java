@@ -0,0 +1,37 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Receives the issues that are parsed from a JIRA download one at a time, so that they don't have to be held in a
+ * list. See {@link JiraXML#JiraXML(java.io.File, java.util.Set, JiraIssueHandler)}.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public interface JiraIssueHandler
+{
+    /**
+     * Handle an issue that has been parsed.
+     *
+     * @param issue The issue
+     */
+    void add( JiraIssue issue );
+}
@@ -0,0 +1,235 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, append only, list of <code>JiraIssue</code>s. The issues are stored column by column instead of as one
+ * object per issue. Fields that have few distinct values, such as status, priority or assignee, are stored as
+ * indexes into a dictionary of values that is shared by all the issues.
+ * <p>
+ * {@link #get(int)} returns a new <code>JiraIssue</code> holding the values of the issue. Changes made to that
+ * object are not reflected in the list.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class JiraIssueList
+    extends AbstractList
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** The index used for <code>null</code> values in the dictionary columns. */
+    private static final int NULL = -1;
+
+    /** All the distinct values of the dictionary columns. */
+    private final List dictionary = new ArrayList();
+
+    /** The indexes into {@link #dictionary}, keyed by value. */
+    private final Map dictionaryIndexes = new HashMap();
+
+    private int size;
+
+    private String[] keys = new String[INITIAL_CAPACITY];
+
+    private String[] summaries = new String[INITIAL_CAPACITY];
+
+    private String[] links = new String[INITIAL_CAPACITY];
+
+    private String[] titles = new String[INITIAL_CAPACITY];
+
+    /** The comments of the issues. Only the issues that have comments have an entry. */
+    private List[] comments = new List[INITIAL_CAPACITY];
+
+    private int[] statuses = new int[INITIAL_CAPACITY];
+
+    private int[] priorities = new int[INITIAL_CAPACITY];
+
+    private int[] types = new int[INITIAL_CAPACITY];
+
+    private int[] resolutions = new int[INITIAL_CAPACITY];
+
+    private int[] assignees = new int[INITIAL_CAPACITY];
+
+    private int[] reporters = new int[INITIAL_CAPACITY];
+
+    private int[] components = new int[INITIAL_CAPACITY];
+
+    private int[] versions = new int[INITIAL_CAPACITY];
+
+    private int[] fixVersions = new int[INITIAL_CAPACITY];
+
+    public JiraIssueList()
+    {
+    }
+
+    /**
+     * Create a list that holds the supplied issues.
+     *
+     * @param issues A list of <code>JiraIssue</code>s
+     */
+    public JiraIssueList( List issues )
+    {
+        for ( Iterator iterator = issues.iterator(); iterator.hasNext(); )
+        {
+            add( iterator.next() );
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public Object get( int index )
+    {
+        if ( index < 0 || index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( keys[index] );
+        issue.setSummary( summaries[index] );
+        issue.setLink( links[index] );
+        issue.setTitle( titles[index] );
+        issue.setStatus( decode( statuses[index] ) );
+        issue.setPriority( decode( priorities[index] ) );
+        issue.setType( decode( types[index] ) );
+        issue.setResolution( decode( resolutions[index] ) );
+        issue.setAssignee( decode( assignees[index] ) );
+        issue.setReporter( decode( reporters[index] ) );
+        issue.setComponent( decode( components[index] ) );
+        issue.setVersion( decode( versions[index] ) );
+        issue.setFixVersion( decode( fixVersions[index] ) );
+        if ( comments[index] != null )
+        {
+            for ( Iterator iterator = comments[index].iterator(); iterator.hasNext(); )
+            {
+                issue.addComment( (String) iterator.next() );
+            }
+        }
+        return issue;
+    }
+
+    /**
+     * Add an issue to the end of the list. Issues can not be inserted anywhere else.
+     *
+     * @param index Must be equal to the size of the list
+     * @param element A <code>JiraIssue</code>
+     */
+    public void add( int index, Object element )
+    {
+        if ( index != size )
+        {
+            throw new UnsupportedOperationException( "Issues can only be added to the end of the list." );
+        }
+
+        ensureCapacity( size + 1 );
+
+        JiraIssue issue = (JiraIssue) element;
+        keys[size] = issue.getKey();
+        summaries[size] = issue.getSummary();
+        links[size] = issue.getLink();
+        titles[size] = issue.getTitle();
+        statuses[size] = encode( issue.getStatus() );
+        priorities[size] = encode( issue.getPriority() );
+        types[size] = encode( issue.getType() );
+        resolutions[size] = encode( issue.getResolution() );
+        assignees[size] = encode( issue.getAssignee() );
+        reporters[size] = encode( issue.getReporter() );
+        components[size] = encode( issue.getComponent() );
+        versions[size] = encode( issue.getVersion() );
+        fixVersions[size] = encode( issue.getFixVersion() );
+        if ( issue.getComments() != null && !issue.getComments().isEmpty() )
+        {
+            comments[size] = new ArrayList( issue.getComments() );
+        }
+
+        size++;
+        modCount++;
+    }
+
+    private int encode( String value )
+    {
+        if ( value == null )
+        {
+            return NULL;
+        }
+
+        Integer index = (Integer) dictionaryIndexes.get( value );
+        if ( index == null )
+        {
+            index = new Integer( dictionary.size() );
+            dictionary.add( value );
+            dictionaryIndexes.put( value, index );
+        }
+        return index.intValue();
+    }
+
+    private String decode( int index )
+    {
+        return index == NULL ? null : (String) dictionary.get( index );
+    }
+
+    private void ensureCapacity( int minCapacity )
+    {
+        if ( minCapacity <= keys.length )
+        {
+            return;
+        }
+
+        int capacity = Math.max( keys.length * 2, minCapacity );
+        keys = (String[]) grow( keys, new String[capacity] );
+        summaries = (String[]) grow( summaries, new String[capacity] );
+        links = (String[]) grow( links, new String[capacity] );
+        titles = (String[]) grow( titles, new String[capacity] );
+        comments = (List[]) grow( comments, new List[capacity] );
+        statuses = grow( statuses, capacity );
+        priorities = grow( priorities, capacity );
+        types = grow( types, capacity );
+        resolutions = grow( resolutions, capacity );
+        assignees = grow( assignees, capacity );
+        reporters = grow( reporters, capacity );
+        components = grow( components, capacity );
+        versions = grow( versions, capacity );
+        fixVersions = grow( fixVersions, capacity );
+    }
+
+    private Object[] grow( Object[] array, Object[] newArray )
+    {
+        System.arraycopy( array, 0, newArray, 0, size );
+        return newArray;
+    }
+
+    private int[] grow( int[] array, int capacity )
+    {
+        int[] newArray = new int[capacity];
+        System.arraycopy( array, 0, newArray, 0, size );
+        return newArray;
+    }
+}
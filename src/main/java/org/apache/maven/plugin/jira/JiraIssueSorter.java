@@ -0,0 +1,577 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Sorts more <code>JiraIssue</code>s than fit in memory. Issues are added until they use up the memory budget. They
+ * are then sorted and written to a temporary file as a sorted run. Iterating over the sorter merges the runs, and the
+ * issues that are still in memory, into one sorted sequence. The sort is stable, so issues that compare equal keep the
+ * order that they were added in.
+ * <p>
+ * The memory use of an issue is estimated from the length of its texts. Issues can't be added once the sorter is
+ * iterated over. {@link #close()} deletes the temporary files.
+ * </p>
+ * <p>
+ * At most {@link #MAX_MERGE_RUNS} runs are read at the same time. When there are more, they are first merged into
+ * fewer, longer runs, so the number of open files stays small however many issues are sorted.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class JiraIssueSorter
+    extends AbstractCollection
+{
+    /** The estimated memory use of an issue besides its texts, in bytes. */
+    private static final int ISSUE_OVERHEAD = 128;
+
+    /** The estimated memory use of a text besides its characters, in bytes. */
+    private static final int TEXT_OVERHEAD = 40;
+
+    /** The marker of a missing text in a run file. */
+    private static final int NULL_TEXT = -1;
+
+    /** The maximum number of runs that are merged at the same time. */
+    static final int MAX_MERGE_RUNS = 16;
+
+    private final Comparator comparator;
+
+    private final long memoryLimit;
+
+    private final File tempDirectory;
+
+    /** The issues that have not been written to a run yet. */
+    private List buffer = new ArrayList();
+
+    private long bufferSize;
+
+    /** The run files, in the order they were written. */
+    private final List runs = new ArrayList();
+
+    /** The streams of the run files that are being read. */
+    private final List openStreams = new ArrayList();
+
+    private int size;
+
+    private boolean sorted;
+
+    /** The failure to write a run, after which no more issues are added. */
+    private IOException failure;
+
+    /**
+     * @param comparator The order to sort the issues in
+     * @param memoryLimit The estimated number of bytes that the issues in memory may use
+     * @param tempDirectory The directory to write the runs to, or <code>null</code> for the default temporary
+     *        directory
+     */
+    public JiraIssueSorter( Comparator comparator, long memoryLimit, File tempDirectory )
+    {
+        this.comparator = comparator;
+        this.memoryLimit = memoryLimit;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Add an issue to sort. If a run could not be written, the failure is kept and the issue is not added. The
+     * failure is thrown by {@link #iterator()}, so that the caller doesn't get an incomplete list of issues, and can
+     * be got from {@link #getFailure()}.
+     *
+     * @param o A <code>JiraIssue</code>
+     * @return <code>true</code> if the issue was added, <code>false</code> if a run could not be written
+     * @throws IllegalStateException If the sorter has already been iterated over
+     */
+    public synchronized boolean add( Object o )
+    {
+        if ( sorted )
+        {
+            throw new IllegalStateException( "Issues can't be added after the sorted issues have been read." );
+        }
+        if ( failure != null )
+        {
+            return false;
+        }
+
+        JiraIssue issue = (JiraIssue) o;
+        buffer.add( issue );
+        bufferSize += estimateSize( issue );
+        size++;
+
+        if ( bufferSize > memoryLimit && buffer.size() > 1 )
+        {
+            try
+            {
+                writeRun();
+            }
+            catch ( IOException e )
+            {
+                failure = e;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the failure to write the issues to a temporary file, after which the sorter has stopped adding issues.
+     *
+     * @return The failure, or <code>null</code> if all the issues were added
+     */
+    public synchronized IOException getFailure()
+    {
+        return failure;
+    }
+
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the number of sorted runs that were written to temporary files.
+     *
+     * @return The number of runs
+     */
+    public synchronized int getRunCount()
+    {
+        return runs.size();
+    }
+
+    /**
+     * Get the sorted issues. The returned iterator reads the runs from their files while it is iterated over.
+     *
+     * @return An iterator over all the <code>JiraIssue</code>s, in sorted order
+     * @throws IllegalStateException If a run could not be written or read
+     */
+    public synchronized Iterator iterator()
+    {
+        if ( failure != null )
+        {
+            throw new IllegalStateException( "Unable to write sorted issues to a temporary file: "
+                + failure.getMessage() );
+        }
+
+        if ( !sorted )
+        {
+            Collections.sort( buffer, comparator );
+            sorted = true;
+        }
+
+        List sources = new ArrayList( runs.size() + 1 );
+        try
+        {
+            // Leave room for the issues in memory
+            while ( runs.size() > MAX_MERGE_RUNS - 1 )
+            {
+                mergeRuns( MAX_MERGE_RUNS );
+            }
+
+            for ( Iterator iterator = runs.iterator(); iterator.hasNext(); )
+            {
+                sources.add( new RunReader( (File) iterator.next() ) );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( "Unable to read sorted issues from a temporary file: " + e.getMessage() );
+        }
+        sources.add( buffer.iterator() );
+        return new MergingIterator( sources );
+    }
+
+    /**
+     * Close the runs that are being read and delete their files.
+     */
+    public synchronized void close()
+    {
+        for ( Iterator iterator = openStreams.iterator(); iterator.hasNext(); )
+        {
+            IOUtil.close( (DataInputStream) iterator.next() );
+        }
+        openStreams.clear();
+
+        for ( Iterator iterator = runs.iterator(); iterator.hasNext(); )
+        {
+            ( (File) iterator.next() ).delete();
+        }
+        runs.clear();
+        buffer = new ArrayList();
+    }
+
+    private void writeRun()
+        throws IOException
+    {
+        Collections.sort( buffer, comparator );
+
+        File run = createRunFile();
+        runs.add( run );
+        writeRun( run, buffer.size(), buffer.iterator() );
+
+        buffer = new ArrayList();
+        bufferSize = 0;
+    }
+
+    /**
+     * Merge the first runs into one. The merged run takes their place, so that the sort stays stable.
+     *
+     * @param count The number of runs to merge
+     */
+    private void mergeRuns( int count )
+        throws IOException
+    {
+        List mergedRuns = runs.subList( 0, count );
+        List sources = new ArrayList( count );
+        int issueCount = 0;
+        for ( Iterator iterator = mergedRuns.iterator(); iterator.hasNext(); )
+        {
+            RunReader reader = new RunReader( (File) iterator.next() );
+            sources.add( reader );
+            issueCount += reader.size();
+        }
+
+        File run = createRunFile();
+        try
+        {
+            writeRun( run, issueCount, new MergingIterator( sources ) );
+        }
+        catch ( IOException e )
+        {
+            run.delete();
+            throw e;
+        }
+
+        for ( Iterator iterator = mergedRuns.iterator(); iterator.hasNext(); )
+        {
+            ( (File) iterator.next() ).delete();
+        }
+        mergedRuns.clear();
+        runs.add( 0, run );
+    }
+
+    private File createRunFile()
+        throws IOException
+    {
+        if ( tempDirectory != null )
+        {
+            tempDirectory.mkdirs();
+        }
+        File run = File.createTempFile( "jira-issues-", ".run", tempDirectory );
+        run.deleteOnExit();
+        return run;
+    }
+
+    private static void writeRun( File run, int issueCount, Iterator issues )
+        throws IOException
+    {
+        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( run ) ) );
+        try
+        {
+            out.writeInt( issueCount );
+            while ( issues.hasNext() )
+            {
+                writeIssue( out, (JiraIssue) issues.next() );
+            }
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    private static long estimateSize( JiraIssue issue )
+    {
+        long estimate = ISSUE_OVERHEAD;
+        estimate += estimateSize( issue.getKey() ) + estimateSize( issue.getSummary() );
+        estimate += estimateSize( issue.getLink() ) + estimateSize( issue.getTitle() );
+        estimate += estimateSize( issue.getStatus() ) + estimateSize( issue.getPriority() );
+        estimate += estimateSize( issue.getType() ) + estimateSize( issue.getResolution() );
+        estimate += estimateSize( issue.getAssignee() ) + estimateSize( issue.getReporter() );
+        estimate += estimateSize( issue.getComponent() ) + estimateSize( issue.getVersion() );
+        estimate += estimateSize( issue.getFixVersion() );
+        if ( issue.getComments() != null )
+        {
+            for ( Iterator iterator = issue.getComments().iterator(); iterator.hasNext(); )
+            {
+                estimate += estimateSize( (String) iterator.next() );
+            }
+        }
+        return estimate;
+    }
+
+    private static long estimateSize( String text )
+    {
+        return text == null ? 0 : TEXT_OVERHEAD + 2 * text.length();
+    }
+
+    private static void writeIssue( DataOutputStream out, JiraIssue issue )
+        throws IOException
+    {
+        writeText( out, issue.getKey() );
+        writeText( out, issue.getSummary() );
+        writeText( out, issue.getLink() );
+        writeText( out, issue.getTitle() );
+        writeText( out, issue.getStatus() );
+        writeText( out, issue.getPriority() );
+        writeText( out, issue.getType() );
+        writeText( out, issue.getResolution() );
+        writeText( out, issue.getAssignee() );
+        writeText( out, issue.getReporter() );
+        writeText( out, issue.getComponent() );
+        writeText( out, issue.getVersion() );
+        writeText( out, issue.getFixVersion() );
+
+        List comments = issue.getComments();
+        out.writeInt( comments == null ? 0 : comments.size() );
+        if ( comments != null )
+        {
+            for ( Iterator iterator = comments.iterator(); iterator.hasNext(); )
+            {
+                writeText( out, (String) iterator.next() );
+            }
+        }
+    }
+
+    private static JiraIssue readIssue( DataInputStream in )
+        throws IOException
+    {
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( readText( in ) );
+        issue.setSummary( readText( in ) );
+        issue.setLink( readText( in ) );
+        issue.setTitle( readText( in ) );
+        issue.setStatus( readText( in ) );
+        issue.setPriority( readText( in ) );
+        issue.setType( readText( in ) );
+        issue.setResolution( readText( in ) );
+        issue.setAssignee( readText( in ) );
+        issue.setReporter( readText( in ) );
+        issue.setComponent( readText( in ) );
+        issue.setVersion( readText( in ) );
+        issue.setFixVersion( readText( in ) );
+
+        int commentCount = in.readInt();
+        for ( int i = 0; i < commentCount; i++ )
+        {
+            issue.addComment( readText( in ) );
+        }
+        return issue;
+    }
+
+    /**
+     * Write a text as its length in bytes followed by its UTF-8 bytes, so that texts longer than
+     * {@link DataOutputStream#writeUTF(String)} allows can be written too.
+     */
+    private static void writeText( DataOutputStream out, String text )
+        throws IOException
+    {
+        if ( text == null )
+        {
+            out.writeInt( NULL_TEXT );
+            return;
+        }
+
+        byte[] bytes = text.getBytes( "UTF-8" );
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    private static String readText( DataInputStream in )
+        throws IOException
+    {
+        int length = in.readInt();
+        if ( length == NULL_TEXT )
+        {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully( bytes );
+        return new String( bytes, "UTF-8" );
+    }
+
+    /**
+     * Reads the issues of a run, one at a time.
+     */
+    private class RunReader
+        implements Iterator
+    {
+        private DataInputStream in;
+
+        /** The number of issues in the run that have not been read yet. */
+        private int remaining;
+
+        private JiraIssue next;
+
+        private RunReader( File run )
+            throws IOException
+        {
+            in = new DataInputStream( new BufferedInputStream( new FileInputStream( run ) ) );
+            synchronized ( JiraIssueSorter.this )
+            {
+                openStreams.add( in );
+            }
+            remaining = in.readInt();
+            readNext();
+        }
+
+        private void readNext()
+        {
+            if ( remaining == 0 )
+            {
+                next = null;
+                closeRun();
+                return;
+            }
+
+            try
+            {
+                next = readIssue( in );
+                remaining--;
+            }
+            catch ( IOException e )
+            {
+                closeRun();
+                throw new IllegalStateException( "Unable to read sorted issues from a temporary file: "
+                    + e.getMessage() );
+            }
+        }
+
+        private void closeRun()
+        {
+            synchronized ( JiraIssueSorter.this )
+            {
+                openStreams.remove( in );
+            }
+            IOUtil.close( in );
+        }
+
+        /**
+         * @return The number of issues in the run that have not been returned yet
+         */
+        private int size()
+        {
+            return next == null ? 0 : remaining + 1;
+        }
+
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        public Object next()
+        {
+            if ( next == null )
+            {
+                throw new NoSuchElementException();
+            }
+            JiraIssue issue = next;
+            readNext();
+            return issue;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Merges sorted sequences of issues into one. The first issue of each sequence is compared with the others, and the
+     * smallest is returned. Issues that compare equal are returned from the earliest sequence first, which keeps the
+     * sort stable. No more than {@link #MAX_MERGE_RUNS} sequences are merged at once, so a linear search for the
+     * smallest issue is fast enough.
+     */
+    private class MergingIterator
+        implements Iterator
+    {
+        private final Iterator[] sources;
+
+        private final JiraIssue[] heads;
+
+        private MergingIterator( List sources )
+        {
+            this.sources = (Iterator[]) sources.toArray( new Iterator[sources.size()] );
+            heads = new JiraIssue[this.sources.length];
+            for ( int i = 0; i < heads.length; i++ )
+            {
+                advance( i );
+            }
+        }
+
+        private void advance( int source )
+        {
+            heads[source] = sources[source].hasNext() ? (JiraIssue) sources[source].next() : null;
+        }
+
+        public boolean hasNext()
+        {
+            for ( int i = 0; i < heads.length; i++ )
+            {
+                if ( heads[i] != null )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Object next()
+        {
+            int smallest = -1;
+            for ( int i = 0; i < heads.length; i++ )
+            {
+                if ( heads[i] != null
+                    && ( smallest == -1 || comparator.compare( heads[i], heads[smallest] ) < 0 ) )
+                {
+                    smallest = i;
+                }
+            }
+            if ( smallest == -1 )
+            {
+                throw new NoSuchElementException();
+            }
+
+            JiraIssue issue = heads[smallest];
+            advance( smallest );
+            return issue;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -20,10 +20,26 @@ package org.apache.maven.plugin.jira;
  */
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.Set;
 
+import org.apache.maven.doxia.siterenderer.sink.SiteRendererSink;
 import org.apache.maven.plugin.changes.AbstractChangesReport;
+import org.apache.maven.plugin.export.RecordExporter;
+import org.apache.maven.plugin.export.Records;
+import org.apache.maven.plugin.http.HttpTransport;
+import org.apache.maven.plugin.http.HttpTransportFactory;
+import org.apache.maven.plugin.http.MeasuringHttpTransport;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.maven.settings.Settings;
 
@@ -217,39 +233,239 @@ public class JiraMojo
      * If you only want to show issues for the current version in the report.
      * The current version being used is <code>${project.version}</code> minus
      * any "-SNAPSHOT" suffix.
+     * <p>
+     * If <code>fixVersionIds</code> is not set, the JIRA id of the current
+     * version is looked up so that only the issues for that version are
+     * downloaded. This requires a JIRA installation with a REST API. If the
+     * version can't be found, the issues for all versions are downloaded and
+     * filtered afterwards.
+     * </p>
      *
      * @parameter default-value="false"
      * @since 2.0
      */
     private boolean onlyCurrentVersion;
 
+    /**
+     * The transport used to talk to JIRA. Valid values are <code>pooled</code>,
+     * which keeps persistent connections that are reused by the requests, and
+     * <code>simple</code>, which uses a single connection at a time.
+     *
+     * @parameter expression="${changes.httpTransport}" default-value="pooled"
+     * @since 2.4
+     */
+    private String httpTransport;
+
+    /**
+     * The time to wait for a connection to JIRA, in milliseconds. Use
+     * <code>0</code> to wait forever.
+     *
+     * @parameter expression="${changes.connectionTimeout}" default-value="30000"
+     * @since 2.4
+     */
+    private int connectionTimeout;
+
+    /**
+     * The time to wait for data from JIRA, in milliseconds. Use
+     * <code>0</code> to wait forever.
+     *
+     * @parameter expression="${changes.socketTimeout}" default-value="120000"
+     * @since 2.4
+     */
+    private int socketTimeout;
+
+    /**
+     * The number of times a request to JIRA is retried when it fails with an
+     * I/O error or a temporary error such as <code>503 Service
+     * Unavailable</code>. The retries wait a growing delay, or the delay that
+     * JIRA asks for.
+     * When requests keep failing, JIRA is not called anymore for the rest of
+     * the build, and the issues downloaded by an earlier
+     * build are used if they exist.
+     *
+     * @parameter expression="${changes.maxRetries}" default-value="3"
+     * @since 2.4
+     */
+    private int maxRetries;
+
+    /**
+     * If the issues downloaded from JIRA should be stored gzip compressed.
+     * A response that JIRA sent compressed is then stored as it was received.
+     * The compressed file is decompressed while it is parsed.
+     *
+     * @parameter expression="${changes.compressJiraXml}" default-value="false"
+     * @since 2.4
+     */
+    private boolean compressJiraXml;
+
+    /**
+     * The directory where the JIRA session of <code>jiraUser</code> is stored
+     * after logging in, for instance <code>${user.home}/.m2/jira-sessions</code>.
+     * Later builds, and the other modules of a multi module build, reuse the
+     * stored session until it expires instead of logging in again. The stored
+     * sessions are secrets, so the directory should only be readable by you.
+     * If this is not set, sessions are not stored.
+     *
+     * @parameter expression="${changes.jiraSessionDirectory}"
+     * @since 2.4
+     */
+    private File jiraSessionDirectory;
+
+    /**
+     * The JIRA projects to download the issues from, for a product that spans
+     * several projects. Each project is the URL of the project, in the same
+     * format as the URL in the issue management section, optionally followed
+     * by white space and a filter that is used instead of <code>filter</code>
+     * for that project. The projects are downloaded at the same time, and
+     * their issues are shown in one report. An issue that is found in more
+     * than one project is shown once. Each project has a circuit breaker of
+     * its own, so a project that keeps failing does not stop the downloads
+     * of the other projects on the same JIRA.
+     * <p>
+     * If this is not set, the issues are downloaded from the project in the
+     * issue management section.
+     * </p>
+     *
+     * @parameter
+     * @since 2.4
+     */
+    private List jiraProjects;
+
+    /**
+     * The maximum number of <code>jiraProjects</code> to download at the
+     * same time.
+     *
+     * @parameter expression="${changes.jiraThreads}" default-value="4"
+     * @since 2.4
+     */
+    private int jiraThreads;
+
+    /**
+     * The fix versions to make a page of their own for, for instance to
+     * publish the issues of several releases at once. The issues of all the
+     * versions are downloaded once, so the other parameters should select the
+     * issues of all of them. The report itself then becomes an index of the
+     * version pages, with the number of issues of each version.
+     * <code>onlyCurrentVersion</code> is ignored when versions are set.
+     *
+     * @parameter
+     * @since 2.4
+     */
+    private List versions;
+
+    /**
+     * Make a page of its own for each of the latest fix versions that are
+     * found among the downloaded issues, like <code>versions</code> does.
+     * Versions are ordered like Maven versions. Use <code>0</code> to make
+     * no version pages. This is ignored if <code>versions</code> is set.
+     *
+     * @parameter expression="${changes.lastVersions}" default-value="0"
+     * @since 2.4
+     */
+    private int lastVersions;
+
+    /**
+     * Sort the issues locally in the order of <code>sortColumnNames</code>,
+     * instead of only letting JIRA sort them. This keeps the order when the
+     * issues of several <code>jiraProjects</code> are combined. Issues that
+     * don't fit in <code>sortMemoryLimit</code> are sorted in temporary files
+     * next to the downloaded issues, so that very many issues can be sorted
+     * without running out of memory. Created and Updated can only be sorted
+     * by JIRA. With <code>versions</code> or <code>lastVersions</code>, the
+     * sorted issues are read once more for each version page.
+     *
+     * @parameter expression="${changes.localSort}" default-value="false"
+     * @since 2.4
+     */
+    private boolean localSort;
+
+    /**
+     * The memory that the issues may use while they are sorted locally, in
+     * megabytes. The memory use of the issues is estimated from the length of
+     * their texts.
+     *
+     * @parameter expression="${changes.sortMemoryLimit}" default-value="16"
+     * @since 2.4
+     */
+    private int sortMemoryLimit;
+
+    /**
+     * The names of the elements in the JIRA XML that are needed, or <code>null</code> if they have not been found
+     * out yet.
+     */
+    private Set requiredFields;
+
     /**
      * @see org.apache.maven.reporting.AbstractMavenReport#canGenerateReport()
      */
     public boolean canGenerateReport()
     {
-        return validateIfIssueManagementComplete();
+        return isMultiProject() || validateIfIssueManagementComplete();
     }
 
     public void executeReport( Locale locale )
         throws MavenReportException
     {
-        JiraDownloader jiraDownloader = new JiraDownloader();
-
-        setJiraDownloaderParameters( jiraDownloader );
+        JiraProjectsDownloader downloader = new JiraProjectsDownloader( jiraThreads, getLog() );
+        downloader.setMetrics( getMetrics() );
 
         JiraReportGenerator report;
 
+        JiraIssueSorter sorter = null;
+        List transports = new ArrayList();
         try
         {
-            jiraDownloader.doExecute();
+            if ( isMultiProject() )
+            {
+                for ( int i = 0; i < jiraProjects.size(); i++ )
+                {
+                    String jiraProject = (String) jiraProjects.get( i );
+                    downloader.addDownloader( createJiraDownloader( JiraProjectsDownloader.getProjectUrl( jiraProject ),
+                        JiraProjectsDownloader.getProjectFilter( jiraProject, filter ),
+                        JiraProjectsDownloader.getOutput( jiraXmlPath, i ), transports ) );
+                }
+            }
+            else
+            {
+                downloader.addDownloader( createJiraDownloader( null, filter, jiraXmlPath, transports ) );
+            }
+
+            Collection issues;
+            if ( localSort )
+            {
+                Comparator comparator = JiraSortOrder.parse( sortColumnNames, getLog() ).getComparator( getLog() );
+                sorter = new JiraIssueSorter( comparator, sortMemoryLimit * 1024L * 1024L,
+                                              jiraXmlPath.getParentFile() );
+                issues = downloader.download( getRequiredFields(), sorter ) ? sorter : null;
+                getMetrics().addCount( "sort runs", sorter.getRunCount() );
+                if ( sorter.getFailure() != null )
+                {
+                    throw new MavenReportException( "Unable to sort the JIRA issues.", sorter.getFailure() );
+                }
+            }
+            else
+            {
+                issues = downloader.download( getRequiredFields() );
+            }
 
-            if ( jiraXmlPath.isFile() )
+            if ( issues != null && isMultiVersion() )
             {
-                report = new JiraReportGenerator( jiraXmlPath, columnNames, project.getVersion(),
-                                                  onlyCurrentVersion );
+                getMetrics().addCount( "issues", issues.size() );
+
+                generateVersionReports( locale, issues );
 
+                exportIssues( issues );
+            }
+            else if ( issues != null )
+            {
+                report = new JiraReportGenerator( issues, columnNames, project.getVersion(), onlyCurrentVersion );
+                getMetrics().addCount( "issues", report.getIssueCount() );
+
+                getMetrics().startPhase( "render" );
                 report.doGenerateReport( getBundle( locale ), getSink(), getLog() );
+                getMetrics().endPhase( "render" );
+
+                exportIssues( issues );
             }
             else
             {
@@ -264,10 +480,189 @@ public class JiraMojo
             // so that the build fails
             throw mre;
         }
+        catch ( IllegalStateException e )
+        {
+            // The sorted issues could not be read back, so the report would be incomplete
+            throw new MavenReportException( e.getMessage(), e );
+        }
         catch ( Exception e )
         {
             e.printStackTrace();
         }
+        finally
+        {
+            if ( sorter != null )
+            {
+                sorter.close();
+            }
+            for ( Iterator iterator = transports.iterator(); iterator.hasNext(); )
+            {
+                ( (HttpTransport) iterator.next() ).close();
+            }
+        }
+    }
+
+    /**
+     * Export the issues, if export formats are configured.
+     *
+     * @param issues The <code>JiraIssue</code>s to export
+     * @throws MavenReportException If the issues could not be exported
+     */
+    private void exportIssues( Collection issues )
+        throws MavenReportException
+    {
+        RecordExporter exporter = createExporter( Records.JIRA_ISSUE_COLUMNS );
+        if ( exporter == null )
+        {
+            return;
+        }
+
+        try
+        {
+            for ( Iterator iterator = issues.iterator(); iterator.hasNext(); )
+            {
+                exporter.write( Records.getRecord( (JiraIssue) iterator.next() ) );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MavenReportException( "Unable to export the JIRA issues.", e );
+        }
+        finally
+        {
+            closeExporter( exporter );
+        }
+    }
+
+    private boolean isMultiVersion()
+    {
+        return ( versions != null && !versions.isEmpty() ) || lastVersions > 0;
+    }
+
+    private Set getRequiredFields()
+        throws MavenReportException
+    {
+        if ( requiredFields == null )
+        {
+            requiredFields =
+                JiraReportGenerator.getRequiredFields( columnNames, onlyCurrentVersion || isMultiVersion() );
+            if ( isExportEnabled() )
+            {
+                requiredFields.addAll( Arrays.asList( Records.JIRA_ISSUE_COLUMNS ) );
+            }
+            if ( localSort )
+            {
+                requiredFields.addAll( JiraSortOrder.parse( sortColumnNames, getLog() ).getRequiredFields() );
+            }
+        }
+        return requiredFields;
+    }
+
+    /**
+     * Generate a page for each of the versions, from the issues that were downloaded once, and an index of the pages
+     * as the report itself.
+     *
+     * @param locale The locale of the report
+     * @param issues All the downloaded <code>JiraIssue</code>s
+     * @throws MavenReportException If a page could not be written
+     */
+    private void generateVersionReports( Locale locale, Collection issues )
+        throws MavenReportException
+    {
+        JiraReportGenerator report = new JiraReportGenerator( issues, columnNames, project.getVersion(), false );
+
+        getMetrics().startPhase( "partition" );
+        Map issueCounts = JiraReportGenerator.getIssueCountsByFixVersion( issues );
+        getMetrics().endPhase( "partition" );
+
+        List reportVersions = versions;
+        if ( reportVersions == null || reportVersions.isEmpty() )
+        {
+            reportVersions = JiraReportGenerator.getLatestVersions( issueCounts.keySet(), lastVersions );
+        }
+
+        getMetrics().startPhase( "render" );
+        report.doGenerateVersionIndex( getBundle( locale ), getSink(), reportVersions, issueCounts, getOutputName() );
+        getMetrics().endPhase( "render" );
+
+        for ( Iterator iterator = reportVersions.iterator(); iterator.hasNext(); )
+        {
+            String version = (String) iterator.next();
+            if ( !issueCounts.containsKey( version ) )
+            {
+                getLog().warn( "No issues were found for the version " + version + "." );
+            }
+            // Each page goes through all the issues again, instead of holding the issues of every version in memory
+            Collection versionIssues = JiraReportGenerator.getIssuesOfFixVersion( issues, issueCounts, version );
+
+            String pageName = JiraReportGenerator.getVersionPageName( getOutputName(), version );
+            SiteRendererSink pageSink = createPageSink( pageName );
+            getMetrics().startPhase( "render" );
+            report.doGenerateVersionReport( getBundle( locale ), pageSink, version, versionIssues );
+            getMetrics().endPhase( "render" );
+            getMetrics().startPhase( "write" );
+            writePage( pageSink, pageName, locale );
+            getMetrics().endPhase( "write" );
+        }
+        getMetrics().addCount( "versions", reportVersions.size() );
+    }
+
+    private boolean isMultiProject()
+    {
+        return jiraProjects != null && !jiraProjects.isEmpty();
+    }
+
+    /**
+     * Create the downloader of a JIRA project.
+     *
+     * @param url        The URL of the project, or <code>null</code> for the project in the issue management section
+     * @param thisFilter The filter of the project
+     * @param output     The file to store the issues in
+     * @param transports The list to add the transport of the downloader to, so that it can be closed afterwards
+     * @return The downloader
+     * @throws MavenReportException If the configuration is not valid
+     */
+    private JiraDownloader createJiraDownloader( String url, String thisFilter, File output, List transports )
+        throws MavenReportException
+    {
+        JiraDownloader jiraDownloader = new JiraDownloader();
+
+        setJiraDownloaderParameters( jiraDownloader );
+
+        jiraDownloader.setIssueManagementUrl( url );
+
+        jiraDownloader.setFilter( thisFilter );
+
+        jiraDownloader.setOutput( output );
+
+        // Each project stops being called on its own when it fails too often
+        HttpTransport transport = createTransport( jiraDownloader.getIssueManagementUrl(), isMultiProject() );
+        transports.add( transport );
+        jiraDownloader.setTransport( transport );
+
+        return jiraDownloader;
+    }
+
+    private HttpTransport createTransport( String url, boolean ownBreaker )
+        throws MavenReportException
+    {
+        HttpTransport transport;
+        try
+        {
+            transport = HttpTransportFactory.createTransport( httpTransport );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new MavenReportException( e.getMessage() );
+        }
+
+        transport.setTimeouts( connectionTimeout, socketTimeout );
+
+        transport = new MeasuringHttpTransport( transport, getMetrics().getHttpMetrics() );
+
+        Date buildStartTime = session == null ? null : session.getStartTime();
+        return HttpTransportFactory.createRetryingTransport( transport, url, ownBreaker, maxRetries, buildStartTime,
+                                                             getLog() );
     }
 
     public String getName( Locale locale )
@@ -290,7 +685,14 @@ public class JiraMojo
         return ResourceBundle.getBundle( "jira-report", locale, this.getClass().getClassLoader() );
     }
 
-    private void setJiraDownloaderParameters( JiraDownloader jira )
+    /**
+     * Configure a downloader with the parameters of the report.
+     *
+     * @param jira The downloader
+     * @throws MavenReportException If the parameters are not valid
+     */
+    void setJiraDownloaderParameters( JiraDownloader jira )
+        throws MavenReportException
     {
         jira.setLog( getLog() );
 
@@ -325,6 +727,15 @@ public class JiraMojo
         jira.setWebPassword( webPassword );
 
         jira.setSettings( settings );
+
+        // The version pages need the issues of all the versions
+        jira.setOnlyCurrentVersion( onlyCurrentVersion && !isMultiVersion() );
+
+        jira.setCompressOutput( compressJiraXml );
+
+        jira.setSessionDirectory( jiraSessionDirectory );
+
+        jira.setFields( getRequiredFields() );
     }
 
     private boolean validateIfIssueManagementComplete()
@@ -0,0 +1,413 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+
+/**
+ * Downloads the issues of several JIRA projects at the same time, on a limited number of threads, and combines
+ * them into one list. An issue that is downloaded from more than one project, for instance by overlapping filters,
+ * is only included once.
+ * <p>
+ * Each project is downloaded by a downloader of its own, with its own output file and transport. A single project is
+ * downloaded on the calling thread.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class JiraProjectsDownloader
+{
+    private final List downloaders = new ArrayList();
+
+    private final int maxThreads;
+
+    private final Log log;
+
+    private ExecutionMetrics metrics = new ExecutionMetrics( "jira-download", null );
+
+    private String parsePhase = "parse";
+
+    /** The issues of each downloader, or <code>null</code> if a downloader has not downloaded any. */
+    private List[] issueLists;
+
+    private int nextIndex;
+
+    /** The collection to add the issues to, or <code>null</code> to parse each project into a list of its own. */
+    private Collection target;
+
+    /** The keys of the issues that have been added to {@link #target}. */
+    private Set targetKeys;
+
+    private Throwable failure;
+
+    /**
+     * @param maxThreads The maximum number of projects to download at the same time
+     * @param log        The log to report problems to
+     */
+    public JiraProjectsDownloader( int maxThreads, Log log )
+    {
+        this.maxThreads = Math.max( 1, maxThreads );
+        this.log = log;
+    }
+
+    /**
+     * Add the downloader of a project.
+     *
+     * @param downloader A downloader that is ready to use, with an output file and a transport of its own
+     */
+    public void addDownloader( AbstractJiraDownloader downloader )
+    {
+        downloaders.add( downloader );
+    }
+
+    public List getDownloaders()
+    {
+        return downloaders;
+    }
+
+    /**
+     * Sets the metrics that the downloading and parsing is recorded in. The durations of projects that are downloaded
+     * at the same time are added up.
+     *
+     * @param metrics The metrics of the goal that uses the downloader
+     */
+    public void setMetrics( ExecutionMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the name of the phase that parsing the downloaded issues is recorded in.
+     *
+     * @param parsePhase The name of the phase, <code>parse</code> by default
+     */
+    public void setParsePhase( String parsePhase )
+    {
+        this.parsePhase = parsePhase;
+    }
+
+    /**
+     * Download and parse the issues of all the projects.
+     *
+     * @param fields The names of the XML elements of the issues to parse, or <code>null</code> to parse all of them
+     * @return A <code>List</code> of <code>JiraIssue</code>s, or <code>null</code> if the issues of none of the
+     *         projects could be downloaded
+     */
+    public List download( Set fields )
+    {
+        downloadAll( fields, null );
+
+        List downloadedLists = new ArrayList( issueLists.length );
+        for ( int i = 0; i < issueLists.length; i++ )
+        {
+            if ( issueLists[i] != null )
+            {
+                downloadedLists.add( issueLists[i] );
+            }
+        }
+        return downloadedLists.isEmpty() ? null : mergeIssues( downloadedLists );
+    }
+
+    /**
+     * Download the issues of all the projects, and add them to a collection while they are parsed, instead of
+     * holding them in a list. Only the first issue with a key is added. Projects that are downloaded at the same time
+     * add their issues in turns.
+     *
+     * @param fields The names of the XML elements of the issues to parse, or <code>null</code> to parse all of them
+     * @param issues The collection to add the <code>JiraIssue</code>s to, for instance a {@link JiraIssueSorter}
+     * @return <code>true</code> if the issues of at least one project were downloaded
+     */
+    public boolean download( Set fields, Collection issues )
+    {
+        downloadAll( fields, issues );
+
+        for ( int i = 0; i < issueLists.length; i++ )
+        {
+            if ( issueLists[i] != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void downloadAll( final Set fields, Collection issues )
+    {
+        issueLists = new List[downloaders.size()];
+        nextIndex = 0;
+        failure = null;
+        target = issues;
+        targetKeys = new HashSet();
+
+        if ( downloaders.size() == 1 )
+        {
+            download( 0, fields, metrics );
+        }
+        else
+        {
+            int threadCount = Math.min( maxThreads, downloaders.size() );
+            Thread[] threads = new Thread[threadCount];
+            for ( int i = 0; i < threadCount; i++ )
+            {
+                threads[i] = new Thread( "changes-JIRA-" + ( i + 1 ) )
+                {
+                    public void run()
+                    {
+                        downloadRemaining( fields );
+                    }
+                };
+                threads[i].start();
+            }
+            join( threads );
+        }
+
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        else if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+    }
+
+    private void join( Thread[] threads )
+    {
+        boolean interrupted = false;
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            while ( threads[i].isAlive() )
+            {
+                try
+                {
+                    threads[i].join();
+                }
+                catch ( InterruptedException e )
+                {
+                    // The downloads can't be stopped, so wait for them anyway
+                    interrupted = true;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized int takeNextIndex()
+    {
+        if ( failure != null || nextIndex >= downloaders.size() )
+        {
+            return -1;
+        }
+        return nextIndex++;
+    }
+
+    private synchronized void setFailure( Throwable t )
+    {
+        if ( failure == null )
+        {
+            failure = t;
+        }
+    }
+
+    /**
+     * Download projects on the current thread, until there are no projects left.
+     *
+     * @param fields The fields to parse
+     */
+    private void downloadRemaining( Set fields )
+    {
+        for ( int index = takeNextIndex(); index != -1; index = takeNextIndex() )
+        {
+            ExecutionMetrics projectMetrics = new ExecutionMetrics( metrics.getGoal(), metrics.getProjectId() );
+            try
+            {
+                download( index, fields, projectMetrics );
+            }
+            catch ( RuntimeException e )
+            {
+                setFailure( e );
+            }
+            catch ( Error e )
+            {
+                setFailure( e );
+            }
+            finally
+            {
+                metrics.add( projectMetrics );
+            }
+        }
+    }
+
+    private void download( int index, Set fields, ExecutionMetrics projectMetrics )
+    {
+        AbstractJiraDownloader downloader = (AbstractJiraDownloader) downloaders.get( index );
+        File output = downloader.getOutput();
+
+        downloader.setMetrics( projectMetrics );
+        try
+        {
+            downloader.doExecute();
+        }
+        catch ( RuntimeException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            log.error( "Error accessing " + downloader.getIssueManagementUrl(), e );
+        }
+
+        if ( output.isFile() )
+        {
+            projectMetrics.startPhase( parsePhase );
+            List issues;
+            if ( target == null )
+            {
+                issues = new JiraXML( output, fields ).getIssueList();
+            }
+            else
+            {
+                new JiraXML( output, fields, new DistinctIssues() );
+                issues = Collections.EMPTY_LIST;
+            }
+            projectMetrics.endPhase( parsePhase );
+
+            synchronized ( this )
+            {
+                issueLists[index] = issues;
+            }
+        }
+        else
+        {
+            log.warn( "jira file " + output.getPath() + " doesn't exists " );
+        }
+    }
+
+    /**
+     * Passes the issues that have a key that was not seen before on to {@link JiraProjectsDownloader#target}.
+     */
+    private class DistinctIssues
+        implements JiraIssueHandler
+    {
+        public void add( JiraIssue issue )
+        {
+            String key = issue.getKey();
+            synchronized ( JiraProjectsDownloader.this )
+            {
+                if ( key == null || targetKeys.add( key ) )
+                {
+                    target.add( issue );
+                }
+            }
+        }
+    }
+
+    /**
+     * Combine lists of issues into one. Only the first issue with a key is included.
+     *
+     * @param issueLists A <code>List</code> of <code>List</code>s of <code>JiraIssue</code>s
+     * @return A <code>List</code> of <code>JiraIssue</code>s
+     */
+    public static List mergeIssues( List issueLists )
+    {
+        if ( issueLists.size() == 1 )
+        {
+            return (List) issueLists.get( 0 );
+        }
+
+        List mergedIssues = new JiraIssueList();
+        Set keys = new HashSet();
+        for ( Iterator listIterator = issueLists.iterator(); listIterator.hasNext(); )
+        {
+            for ( Iterator iterator = ( (List) listIterator.next() ).iterator(); iterator.hasNext(); )
+            {
+                JiraIssue issue = (JiraIssue) iterator.next();
+                if ( issue.getKey() == null || keys.add( issue.getKey() ) )
+                {
+                    mergedIssues.add( issue );
+                }
+            }
+        }
+        return mergedIssues;
+    }
+
+    /**
+     * Get the URL of a project in the <code>jiraProjects</code> parameter.
+     *
+     * @param jiraProject The URL of a JIRA project, optionally followed by white space and a filter
+     * @return The URL
+     */
+    public static String getProjectUrl( String jiraProject )
+    {
+        String[] parts = jiraProject.trim().split( "\\s+", 2 );
+        return parts[0];
+    }
+
+    /**
+     * Get the filter of a project in the <code>jiraProjects</code> parameter.
+     *
+     * @param jiraProject   The URL of a JIRA project, optionally followed by white space and a filter
+     * @param defaultFilter The filter to use if the project has none
+     * @return The filter
+     */
+    public static String getProjectFilter( String jiraProject, String defaultFilter )
+    {
+        String[] parts = jiraProject.trim().split( "\\s+", 2 );
+        return parts.length == 2 ? parts[1] : defaultFilter;
+    }
+
+    /**
+     * Get the file to store the issues of a project in.
+     *
+     * @param output The file to store the issues of the first project in
+     * @param index  The index of the project
+     * @return <code>output</code> for the first project, or else a file next to it with the index in its name
+     */
+    public static File getOutput( File output, int index )
+    {
+        if ( index == 0 )
+        {
+            return output;
+        }
+
+        String name = output.getName();
+        int extension = name.lastIndexOf( '.' );
+        if ( extension == -1 )
+        {
+            return new File( output.getParentFile(), name + "-" + index );
+        }
+        return new File( output.getParentFile(), name.substring( 0, extension ) + "-" + index
+            + name.substring( extension ) );
+    }
+}
@@ -19,15 +19,27 @@ package org.apache.maven.plugin.jira;
  * under the License.
  */
 
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.doxia.sink.Sink;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.reporting.MavenReportException;
 
 import java.io.File;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 /**
  * Generates a JIRA report.
@@ -36,39 +48,239 @@ import java.util.ResourceBundle;
  */
 public class JiraReportGenerator
 {
-    private static final int COLUMN_KEY = 0;
-    private static final int COLUMN_SUMMARY = 1;
-    private static final int COLUMN_STATUS = 2;
-    private static final int COLUMN_RESOLUTION = 3;
-    private static final int COLUMN_ASSIGNEE = 4;
-    private static final int COLUMN_REPORTER = 5;
-    private static final int COLUMN_TYPE = 6;
-    private static final int COLUMN_PRIORITY = 7;
-    private static final int COLUMN_VERSION = 8;
-    private static final int COLUMN_FIX_VERSION = 9;
-    private static final int COLUMN_COMPONENT = 10;
-
-    private static final String[] JIRA_COLUMNS = new String[] {
-        /* 0  */ "Key",
-        /* 1  */ "Summary",
-        /* 2  */ "Status",
-        /* 3  */ "Resolution",
-        /* 4  */ "Assignee",
-        /* 5  */ "Reporter",
-        /* 6  */ "Type",
-        /* 7  */ "Priority",
-        /* 8  */ "Version",
-        /* 9  */ "Fix Version",
-        /* 10 */ "Component"
+    /**
+     * Renders one column of the report.
+     */
+    private abstract static class Column
+    {
+        /**
+         * The name of the column, as used in the <code>columnNames</code> parameter.
+         */
+        private final String name;
+
+        /**
+         * The key of the column header in the resource bundle.
+         */
+        private final String headerKey;
+
+        /**
+         * The names of the elements in the JIRA XML that this column needs.
+         */
+        private final String[] fields;
+
+        Column( String name, String headerKey, String field )
+        {
+            this( name, headerKey, new String[] { field } );
+        }
+
+        Column( String name, String headerKey, String[] fields )
+        {
+            this.name = name;
+            this.headerKey = headerKey;
+            this.fields = fields;
+        }
+
+        /**
+         * Get the value of this column for an issue.
+         */
+        abstract String getValue( JiraIssue issue );
+
+        /**
+         * Render the cell of this column for an issue.
+         */
+        void sinkCell( Sink sink, JiraIssue issue )
+        {
+            JiraReportGenerator.sinkCell( sink, getValue( issue ) );
+        }
+    }
+
+    /**
+     * The issues of one fix version. They are found by going through all the issues each time that they are iterated
+     * over, so that they don't have to be copied into a list of their own.
+     */
+    private static class FixVersionIssues
+        extends AbstractCollection
+    {
+        private final Collection allIssues;
+
+        private final String version;
+
+        private final int size;
+
+        FixVersionIssues( Collection allIssues, String version, int size )
+        {
+            this.allIssues = allIssues;
+            this.version = version;
+            this.size = size;
+        }
+
+        public int size()
+        {
+            return size;
+        }
+
+        public Iterator iterator()
+        {
+            return new FixVersionIterator( allIssues.iterator(), version );
+        }
+    }
+
+    /**
+     * Skips the issues that are not fixed in a version.
+     */
+    private static class FixVersionIterator
+        implements Iterator
+    {
+        private final Iterator issues;
+
+        private final String version;
+
+        private JiraIssue next;
+
+        FixVersionIterator( Iterator issues, String version )
+        {
+            this.issues = issues;
+            this.version = version;
+            findNext();
+        }
+
+        private void findNext()
+        {
+            next = null;
+            while ( next == null && issues.hasNext() )
+            {
+                JiraIssue issue = (JiraIssue) issues.next();
+                if ( version.equals( issue.getFixVersion() ) )
+                {
+                    next = issue;
+                }
+            }
+        }
+
+        public boolean hasNext()
+        {
+            return next != null;
+        }
+
+        public Object next()
+        {
+            if ( next == null )
+            {
+                throw new NoSuchElementException();
+            }
+            JiraIssue issue = next;
+            findNext();
+            return issue;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final Column[] JIRA_COLUMNS = new Column[] {
+        new Column( "Key", "report.jira.label.key", new String[] { "key", "link" } )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getKey();
+            }
+
+            void sinkCell( Sink sink, JiraIssue issue )
+            {
+                sink.tableCell();
+                sink.link( issue.getLink() );
+                sink.text( issue.getKey() );
+                sink.link_();
+                sink.tableCell_();
+            }
+        },
+        new Column( "Summary", "report.jira.label.summary", "summary" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getSummary();
+            }
+        },
+        new Column( "Status", "report.jira.label.status", "status" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getStatus();
+            }
+        },
+        new Column( "Resolution", "report.jira.label.resolution", "resolution" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getResolution();
+            }
+        },
+        new Column( "Assignee", "report.jira.label.by", "assignee" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getAssignee();
+            }
+        },
+        new Column( "Reporter", "report.jira.label.reporter", "reporter" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getReporter();
+            }
+        },
+        new Column( "Type", "report.jira.label.type", "type" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getType();
+            }
+        },
+        new Column( "Priority", "report.jira.label.priority", "priority" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getPriority();
+            }
+        },
+        new Column( "Version", "report.jira.label.version", "version" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getVersion();
+            }
+        },
+        new Column( "Fix Version", "report.jira.label.fixVersion", "fixVersion" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getFixVersion();
+            }
+        },
+        new Column( "Component", "report.jira.label.component", "component" )
+        {
+            String getValue( JiraIssue issue )
+            {
+                return issue.getComponent();
+            }
+        }
     };
 
     private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
 
-    private int[] columnOrder;
+    /**
+     * The columns to include in the report, in the order that they should appear.
+     */
+    private Column[] columns;
 
     private String currentVersion = null;
 
-    private JiraXML jira;
+    /**
+     * The <code>JiraIssue</code>s to report.
+     */
+    private Collection issues;
 
     private boolean onlyCurrentVersion = false;
 
@@ -90,33 +302,96 @@ public class JiraReportGenerator
         this.currentVersion = currentVersion;
         this.onlyCurrentVersion = onlyCurrentVersion;
 
-        jira = new JiraXML( xmlFile );
+        columns = compileColumns( columnNames );
+
+        issues = new JiraXML( xmlFile, getRequiredFields( columns, onlyCurrentVersion ) ).getIssueList();
+    }
+
+    /**
+     * @param issues The <code>JiraIssue</code>s, for instance from several JIRA projects. The issues are iterated
+     *        over once for each page, so they can come from a {@link JiraIssueSorter}
+     * @param columnNames The names of the columns to include in the report
+     * @param currentVersion The current version of the project
+     * @param onlyCurrentVersion If only issues for the current version will be included in the report
+     * @since 2.4
+     */
+    public JiraReportGenerator( Collection issues, String columnNames, String currentVersion,
+                                boolean onlyCurrentVersion )
+        throws MavenReportException
+    {
+        this.currentVersion = currentVersion;
+        this.onlyCurrentVersion = onlyCurrentVersion;
+
+        columns = compileColumns( columnNames );
 
+        this.issues = issues;
+    }
+
+    /**
+     * Get the names of the elements in the JIRA XML that are needed to generate a report.
+     *
+     * @param columnNames The names of the columns to include in the report
+     * @param onlyCurrentVersion If only issues for the current version will be included in the report
+     * @return A <code>Set</code> of element names
+     * @throws MavenReportException If none of the column names are valid
+     * @since 2.4
+     */
+    public static Set getRequiredFields( String columnNames, boolean onlyCurrentVersion )
+        throws MavenReportException
+    {
+        return getRequiredFields( compileColumns( columnNames ), onlyCurrentVersion );
+    }
+
+    private static Set getRequiredFields( Column[] columns, boolean onlyCurrentVersion )
+    {
+        Set fields = new HashSet();
+        for ( int columnIndex = 0; columnIndex < columns.length; columnIndex++ )
+        {
+            fields.addAll( Arrays.asList( columns[columnIndex].fields ) );
+        }
+        if ( onlyCurrentVersion )
+        {
+            fields.add( "fixVersion" );
+        }
+        return fields;
+    }
+
+    private static Column[] compileColumns( String columnNames )
+        throws MavenReportException
+    {
         String[] columnNamesArray = columnNames.split( "," );
-        int validColumnNames = 0;
-        columnOrder = new int[columnNamesArray.length];
-        for ( int i = 0; i < columnOrder.length; i++ )
+        List validColumns = new ArrayList( columnNamesArray.length );
+        for ( int i = 0; i < columnNamesArray.length; i++ )
         {
-            // Default to -1, indicating that the column should not be included in the report
-            columnOrder[i] = -1;
+            String columnName = columnNamesArray[i].trim();
             for ( int columnIndex = 0; columnIndex < JIRA_COLUMNS.length; columnIndex++ )
             {
-                String columnName = columnNamesArray[i].trim();
-                if ( JIRA_COLUMNS[columnIndex].equalsIgnoreCase( columnName ) )
+                if ( JIRA_COLUMNS[columnIndex].name.equalsIgnoreCase( columnName ) )
                 {
                     // Found a valid column name - add it
-                    columnOrder[i] = columnIndex;
-                    validColumnNames++;
+                    validColumns.add( JIRA_COLUMNS[columnIndex] );
                     break;
                 }
             }
         }
-        if ( validColumnNames == 0 )
+        if ( validColumns.isEmpty() )
         {
             // This can happen if the user has configured column names and they are all invalid
             throw new MavenReportException(
                 "maven-changes-plugin: None of the configured columnNames '" + columnNames + "' are valid." );
         }
+        return (Column[]) validColumns.toArray( new Column[validColumns.size()] );
+    }
+
+    /**
+     * Get the number of issues that were read from JIRA.
+     *
+     * @return The number of issues
+     * @since 2.4
+     */
+    public int getIssueCount()
+    {
+        return issues == null ? 0 : issues.size();
     }
 
     public void doGenerateEmptyReport( ResourceBundle bundle, Sink sink )
@@ -135,7 +410,7 @@ public class JiraReportGenerator
     public void doGenerateReport( ResourceBundle bundle, Sink sink, Log log )
         throws MojoExecutionException
     {
-        List issueList = jira.getIssueList();
+        Collection issueList = issues;
 
         if ( onlyCurrentVersion )
         {
@@ -152,144 +427,194 @@ public class JiraReportGenerator
         sinkEndReport( sink );
     }
 
-    private void constructHeaderRow( Sink sink, List issueList, ResourceBundle bundle )
+    /**
+     * Generate the page of one version, with the issues that are fixed in that version.
+     *
+     * @param bundle The resource bundle of the report
+     * @param sink The sink to write the page to
+     * @param version The fix version
+     * @param versionIssues The <code>JiraIssue</code>s of the version, see
+     *        {@link #getIssuesOfFixVersion(Collection, Map, String)}
+     * @since 2.4
+     */
+    public void doGenerateVersionReport( ResourceBundle bundle, Sink sink, String version,
+                                         Collection versionIssues )
+    {
+        sinkBeginReport( sink, bundle, bundle.getString( "report.jira.header" ) + " - " + version );
+
+        constructHeaderRow( sink, versionIssues, bundle );
+
+        constructDetailRows( sink, versionIssues );
+
+        sinkEndReport( sink );
+    }
+
+    /**
+     * Generate an index of the version pages, with the number of issues of each version.
+     *
+     * @param bundle The resource bundle of the report
+     * @param sink The sink to write the index to
+     * @param versions The fix versions to include, in the order that they should appear
+     * @param issueCounts The number of issues of each version, see {@link #getIssueCountsByFixVersion(Collection)}
+     * @param outputName The output name of the report, used as the base name of the version pages
+     * @since 2.4
+     */
+    public void doGenerateVersionIndex( ResourceBundle bundle, Sink sink, List versions, Map issueCounts,
+                                        String outputName )
     {
-        if ( issueList == null )
-        {
-            return;
-        }
+        sinkBeginReport( sink, bundle );
 
         sink.table();
 
         sink.tableRow();
+        sinkHeader( sink, bundle.getString( "report.jira.label.fixVersion" ) );
+        sinkHeader( sink, bundle.getString( "report.jira.label.issues" ) );
+        sink.tableRow_();
 
-        for ( int columnIndex = 0; columnIndex < columnOrder.length; columnIndex++ )
+        for ( Iterator iterator = versions.iterator(); iterator.hasNext(); )
         {
-            switch ( columnOrder[columnIndex] )
-            {
-                case COLUMN_KEY:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.key" ) );
-                    break;
+            String version = (String) iterator.next();
+            Integer issueCount = (Integer) issueCounts.get( version );
 
-                case COLUMN_SUMMARY:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.summary" ) );
-                    break;
+            sink.tableRow();
 
-                case COLUMN_STATUS:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.status" ) );
-                    break;
+            sink.tableCell();
+            sink.link( getVersionPageName( outputName, version ) + ".html" );
+            sink.text( version );
+            sink.link_();
+            sink.tableCell_();
 
-                case COLUMN_RESOLUTION:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.resolution" ) );
-                    break;
+            sinkCell( sink, issueCount == null ? "0" : issueCount.toString() );
 
-                case COLUMN_ASSIGNEE:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.by" ) );
-                    break;
+            sink.tableRow_();
+        }
 
-                case COLUMN_REPORTER:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.reporter" ) );
-                    break;
+        sink.table_();
 
-                case COLUMN_TYPE:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.type" ) );
-                    break;
+        sinkEndReport( sink );
+    }
 
-                case COLUMN_PRIORITY:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.priority" ) );
-                    break;
+    /**
+     * Get the output name of the page of a version.
+     *
+     * @param outputName The output name of the report
+     * @param version The fix version
+     * @return The output name of the page, without characters that don't belong in a file name
+     * @since 2.4
+     */
+    public static String getVersionPageName( String outputName, String version )
+    {
+        StringBuffer pageName = new StringBuffer( outputName ).append( '-' );
+        for ( int i = 0; i < version.length(); i++ )
+        {
+            char c = version.charAt( i );
+            pageName.append( Character.isLetterOrDigit( c ) || c == '.' || c == '-' ? c : '_' );
+        }
+        return pageName.toString();
+    }
 
-                case COLUMN_VERSION:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.version" ) );
-                    break;
+    /**
+     * Count the issues of each fix version, in a single pass over the issues. Issues without a fix version are left
+     * out. Only the counts are held, so the issues may be more than fit in memory, as with a {@link JiraIssueSorter}.
+     *
+     * @param allIssues The <code>JiraIssue</code>s
+     * @return A <code>Map</code> with the number of issues of each fix version as an <code>Integer</code>, in the order
+     *         that the versions were found
+     * @since 2.4
+     */
+    public static Map getIssueCountsByFixVersion( Collection allIssues )
+    {
+        Map issueCounts = new LinkedHashMap();
+        for ( Iterator iterator = allIssues.iterator(); iterator.hasNext(); )
+        {
+            JiraIssue issue = (JiraIssue) iterator.next();
+            if ( issue.getFixVersion() == null )
+            {
+                continue;
+            }
 
-                case COLUMN_FIX_VERSION:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.fixVersion" ) );
-                    break;
+            Integer count = (Integer) issueCounts.get( issue.getFixVersion() );
+            issueCounts.put( issue.getFixVersion(), new Integer( count == null ? 1 : count.intValue() + 1 ) );
+        }
+        return issueCounts;
+    }
 
-                case COLUMN_COMPONENT:
-                    sinkHeader( sink, bundle.getString( "report.jira.label.component" ) );
-                    break;
+    /**
+     * Get the issues of one fix version. The issues are not copied: every time the returned collection is iterated
+     * over, it goes through all the issues and skips the ones of other versions.
+     *
+     * @param allIssues The <code>JiraIssue</code>s
+     * @param issueCounts The number of issues of each version, see {@link #getIssueCountsByFixVersion(Collection)}
+     * @param version The fix version
+     * @return The <code>JiraIssue</code>s of the version, in the order of <code>allIssues</code>
+     * @since 2.4
+     */
+    public static Collection getIssuesOfFixVersion( Collection allIssues, Map issueCounts, String version )
+    {
+        Integer count = (Integer) issueCounts.get( version );
+        if ( count == null )
+        {
+            return Collections.EMPTY_LIST;
+        }
+        return new FixVersionIssues( allIssues, version, count.intValue() );
+    }
 
-                default:
-                    // Do not add a header for this column
-                    break;
+    /**
+     * Get the latest of some versions, using the ordering of Maven versions.
+     *
+     * @param versions The versions to choose from
+     * @param count The number of versions to get
+     * @return A <code>List</code> with at most <code>count</code> versions, latest first
+     * @since 2.4
+     */
+    public static List getLatestVersions( Collection versions, int count )
+    {
+        List sortedVersions = new ArrayList( versions );
+        Collections.sort( sortedVersions, new Comparator()
+        {
+            public int compare( Object o1, Object o2 )
+            {
+                return new DefaultArtifactVersion( (String) o2 ).compareTo( new DefaultArtifactVersion( (String) o1 ) );
             }
+        } );
+        return sortedVersions.subList( 0, Math.min( count, sortedVersions.size() ) );
+    }
+
+    private void constructHeaderRow( Sink sink, Collection issueList, ResourceBundle bundle )
+    {
+        if ( issueList == null )
+        {
+            return;
+        }
+
+        sink.table();
+
+        sink.tableRow();
 
+        for ( int columnIndex = 0; columnIndex < columns.length; columnIndex++ )
+        {
+            sinkHeader( sink, bundle.getString( columns[columnIndex].headerKey ) );
         }
 
         sink.tableRow_();
     }
 
-    private void constructDetailRows( Sink sink, List issueList )
+    private void constructDetailRows( Sink sink, Collection issueList )
     {
         if ( issueList == null )
         {
             return;
         }
 
-        for ( int idx = 0; idx < issueList.size(); idx++ )
+        for ( Iterator iterator = issueList.iterator(); iterator.hasNext(); )
         {
-            JiraIssue issue = (JiraIssue) issueList.get( idx );
+            JiraIssue issue = (JiraIssue) iterator.next();
 
             sink.tableRow();
 
-            for ( int columnIndex = 0; columnIndex < columnOrder.length; columnIndex++ )
+            for ( int columnIndex = 0; columnIndex < columns.length; columnIndex++ )
             {
-                switch ( columnOrder[columnIndex] )
-                {
-                    case COLUMN_KEY:
-                        sink.tableCell();
-                        sink.link( issue.getLink() );
-                        sink.text( issue.getKey() );
-                        sink.link_();
-                        sink.tableCell_();
-                        break;
-
-                    case COLUMN_SUMMARY:
-                        sinkCell( sink, issue.getSummary() );
-                        break;
-
-                    case COLUMN_STATUS:
-                        sinkCell( sink, issue.getStatus() );
-                        break;
-
-                    case COLUMN_RESOLUTION:
-                        sinkCell( sink, issue.getResolution() );
-                        break;
-
-                    case COLUMN_ASSIGNEE:
-                        sinkCell( sink, issue.getAssignee() );
-                        break;
-
-                    case COLUMN_REPORTER:
-                        sinkCell( sink, issue.getReporter() );
-                        break;
-
-                    case COLUMN_TYPE:
-                        sinkCell( sink, issue.getType() );
-                        break;
-
-                    case COLUMN_PRIORITY:
-                        sinkCell( sink, issue.getPriority() );
-                        break;
-
-                    case COLUMN_VERSION:
-                        sinkCell( sink, issue.getVersion() );
-                        break;
-
-                    case COLUMN_FIX_VERSION:
-                        sinkCell( sink, issue.getFixVersion() );
-                        break;
-
-                    case COLUMN_COMPONENT:
-                        sinkCell( sink, issue.getComponent() );
-                        break;
-
-                    default:
-                        // Do not add a cell for this column
-                        break;
-                }
+                columns[columnIndex].sinkCell( sink, issue );
             }
 
             sink.tableRow_();
@@ -299,11 +624,16 @@ public class JiraReportGenerator
     }
 
     private void sinkBeginReport( Sink sink, ResourceBundle bundle )
+    {
+        sinkBeginReport( sink, bundle, bundle.getString( "report.jira.header" ) );
+    }
+
+    private void sinkBeginReport( Sink sink, ResourceBundle bundle, String header )
     {
         sink.head();
 
         sink.title();
-        sink.text( bundle.getString( "report.jira.header" ) );
+        sink.text( header );
         sink.title_();
 
         sink.head_();
@@ -312,7 +642,7 @@ public class JiraReportGenerator
 
         sink.section1();
 
-        sinkSectionTitle1( sink, bundle.getString( "report.jira.header" ) );
+        sinkSectionTitle1( sink, header );
     }
 
     private void sinkEndReport( Sink sink )
@@ -344,7 +674,7 @@ public class JiraReportGenerator
         sink.tableHeaderCell_();
     }
 
-    private void sinkCell( Sink sink, String text )
+    private static void sinkCell( Sink sink, String text )
     {
         sink.tableCell();
 
@@ -375,12 +705,12 @@ public class JiraReportGenerator
      * pom. If the current version is a SNAPSHOT, then that part of the version
      * will be removed prior to the matching.
      *
-     * @param allIssues A list of all issues from JIRA
+     * @param allIssues All issues from JIRA
      * @return A <code>List</code> of issues for the current release of the current project
      * @throws org.apache.maven.plugin.MojoExecutionException
      *          If no issues could be found for the current release
      */
-    public List getIssuesForCurrentRelease( List allIssues )
+    public List getIssuesForCurrentRelease( Collection allIssues )
         throws MojoExecutionException
     {
         List currentReleaseIssues = new ArrayList();
@@ -394,9 +724,9 @@ public class JiraReportGenerator
             releaseVersion = currentVersion.substring( 0, currentVersion.length() - SNAPSHOT_SUFFIX.length() );
         }
 
-        for ( int i = 0; i < allIssues.size(); i++ )
+        for ( Iterator iterator = allIssues.iterator(); iterator.hasNext(); )
         {
-            issue = (JiraIssue) allIssues.get( i );
+            issue = (JiraIssue) iterator.next();
 
             if ( issue.getFixVersion() != null && issue.getFixVersion().equals( releaseVersion ) )
             {
@@ -0,0 +1,408 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * The order to sort JIRA issues in, as configured by the <code>sortColumnNames</code> parameter. For example
+ * <code>Fix Version DESC, Type</code> sorts first by the Fix Version in descending order and then by Type in
+ * ascending order.
+ * <p>
+ * The order can be sent to JIRA, so that JIRA sorts the issues, or be used to sort the issues locally. Locally,
+ * priorities are sorted from Trivial to Blocker, versions are sorted like Maven versions, keys are sorted by project
+ * and then by number, and the other columns are sorted alphabetically. Created and Updated are not downloaded, so
+ * they can only be sorted by JIRA.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class JiraSortOrder
+{
+    /**
+     * The valid column names in lower case, the names of the JIRA fields that they sort by, and the names of the
+     * elements in the JIRA XML that they are sorted by locally.
+     */
+    private static final String[][] COLUMNS = { { "key", "issuekey", "key" }, { "summary", "summary", "summary" },
+        { "status", "status", "status" }, { "resolution", "resolution", "resolution" },
+        { "assignee", "assignee", "assignee" }, { "reporter", "reporter", "reporter" },
+        { "type", "issuetype", "type" }, { "priority", "priority", "priority" },
+        { "version", "versions", "version" }, { "fix version", "fixVersions", "fixVersion" },
+        { "component", "components", "component" }, { "created", "created", null }, { "updated", "updated", null } };
+
+    /** The standard JIRA priorities, from low to high. */
+    private static final String[] PRIORITIES = { "trivial", "minor", "major", "critical", "blocker" };
+
+    /**
+     * A column to sort by.
+     */
+    private static class SortColumn
+    {
+        /** The lower case name of the column. */
+        private final String name;
+
+        private final String fieldName;
+
+        /** The name of the element in the JIRA XML, or <code>null</code> if the column can't be sorted locally. */
+        private final String elementName;
+
+        private final boolean descending;
+
+        private SortColumn( String[] column, boolean descending )
+        {
+            this.name = column[0];
+            this.fieldName = column[1];
+            this.elementName = column[2];
+            this.descending = descending;
+        }
+    }
+
+    /** The <code>SortColumn</code>s in order of significance. */
+    private final List columns;
+
+    private JiraSortOrder( List columns )
+    {
+        this.columns = columns;
+    }
+
+    /**
+     * Parse the sort order. Invalid column names are reported to the log and left out.
+     *
+     * @param sortColumnNames The column names, separated by commas, each optionally followed by <code>ASC</code> or
+     *        <code>DESC</code>
+     * @param log The log to report invalid column names to
+     * @return The sort order
+     */
+    public static JiraSortOrder parse( String sortColumnNames, Log log )
+    {
+        List columns = new ArrayList();
+        if ( sortColumnNames != null )
+        {
+            String[] sortColumnNamesArray = sortColumnNames.split( "," );
+            for ( int i = 0; i < sortColumnNamesArray.length; i++ )
+            {
+                String lowerColumnName = sortColumnNamesArray[i].trim().toLowerCase( Locale.ENGLISH );
+                boolean descending = false;
+                if ( lowerColumnName.endsWith( "desc" ) )
+                {
+                    descending = true;
+                    lowerColumnName = lowerColumnName.substring( 0, lowerColumnName.length() - 4 ).trim();
+                }
+                else if ( lowerColumnName.endsWith( "asc" ) )
+                {
+                    descending = false;
+                    lowerColumnName = lowerColumnName.substring( 0, lowerColumnName.length() - 3 ).trim();
+                }
+
+                String[] column = null;
+                for ( int columnIndex = 0; columnIndex < COLUMNS.length; columnIndex++ )
+                {
+                    if ( COLUMNS[columnIndex][0].equals( lowerColumnName ) )
+                    {
+                        column = COLUMNS[columnIndex];
+                        break;
+                    }
+                }
+
+                if ( column != null )
+                {
+                    columns.add( new SortColumn( column, descending ) );
+                }
+                else
+                {
+                    // Error in the configuration
+                    log.error( "maven-changes-plugin: The configured value '" + lowerColumnName
+                        + "' for sortColumnNames is not correct." );
+                }
+            }
+        }
+        if ( columns.isEmpty() )
+        {
+            // Error in the configuration
+            log.error( "maven-changes-plugin: None of the configured sortColumnNames '" + sortColumnNames
+                + "' are correct." );
+        }
+        return new JiraSortOrder( columns );
+    }
+
+    /**
+     * Get the id of the JIRA field that an element of the JIRA XML holds. JIRA expects the field ids when it is asked
+     * for some fields only.
+     *
+     * @param elementName The name of an element of an issue in the JIRA XML
+     * @return The id of the field, or the name of the element if it is the same as the id of the field
+     */
+    static String getFieldId( String elementName )
+    {
+        for ( int columnIndex = 0; columnIndex < COLUMNS.length; columnIndex++ )
+        {
+            if ( elementName.equals( COLUMNS[columnIndex][2] ) )
+            {
+                // The key is always included, it has no field of its own
+                return "key".equals( elementName ) ? elementName : COLUMNS[columnIndex][1];
+            }
+        }
+        return elementName;
+    }
+
+    /**
+     * Create the request parameters that ask JIRA to sort the issues in this order.
+     *
+     * @return The request parameters, each starting with <code>&amp;</code>
+     */
+    public String getJiraParameters()
+    {
+        StringBuffer parameters = new StringBuffer();
+        // N.B. Add in reverse order (it's the way JIRA likes it!!)
+        for ( int i = columns.size() - 1; i >= 0; i-- )
+        {
+            SortColumn column = (SortColumn) columns.get( i );
+            parameters.append( "&sorter/field=" );
+            parameters.append( column.fieldName );
+            parameters.append( "&sorter/order=" );
+            parameters.append( column.descending ? "DESC" : "ASC" );
+        }
+        return parameters.toString();
+    }
+
+    /**
+     * Get the names of the elements in the JIRA XML that are needed to sort the issues locally.
+     *
+     * @return A <code>Set</code> of element names
+     */
+    public Set getRequiredFields()
+    {
+        Set fields = new HashSet();
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            SortColumn column = (SortColumn) columns.get( i );
+            if ( column.elementName != null )
+            {
+                fields.add( column.elementName );
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Create a comparator that sorts <code>JiraIssue</code>s in this order.
+     *
+     * @param log The log to report columns that can't be sorted locally to
+     * @return The comparator
+     */
+    public Comparator getComparator( Log log )
+    {
+        final List localColumns = new ArrayList( columns.size() );
+        for ( int i = 0; i < columns.size(); i++ )
+        {
+            SortColumn column = (SortColumn) columns.get( i );
+            if ( column.elementName == null )
+            {
+                log.warn( "The issues can't be sorted by " + column.name + " locally, only JIRA can do that." );
+            }
+            else
+            {
+                localColumns.add( column );
+            }
+        }
+
+        return new Comparator()
+        {
+            /** The parsed versions, keyed by version name. There are few distinct versions. */
+            private final Map versions = new HashMap();
+
+            public int compare( Object o1, Object o2 )
+            {
+                JiraIssue issue1 = (JiraIssue) o1;
+                JiraIssue issue2 = (JiraIssue) o2;
+                for ( int i = 0; i < localColumns.size(); i++ )
+                {
+                    SortColumn column = (SortColumn) localColumns.get( i );
+                    int result = compareColumn( column.name, issue1, issue2 );
+                    if ( result != 0 )
+                    {
+                        return column.descending ? -result : result;
+                    }
+                }
+                return 0;
+            }
+
+            private int compareColumn( String name, JiraIssue issue1, JiraIssue issue2 )
+            {
+                if ( "key".equals( name ) )
+                {
+                    return compareKeys( issue1.getKey(), issue2.getKey() );
+                }
+                else if ( "priority".equals( name ) )
+                {
+                    return comparePriorities( issue1.getPriority(), issue2.getPriority() );
+                }
+                else if ( "version".equals( name ) )
+                {
+                    return compareVersions( issue1.getVersion(), issue2.getVersion() );
+                }
+                else if ( "fix version".equals( name ) )
+                {
+                    return compareVersions( issue1.getFixVersion(), issue2.getFixVersion() );
+                }
+                return compareText( getText( name, issue1 ), getText( name, issue2 ) );
+            }
+
+            private int compareVersions( String version1, String version2 )
+            {
+                if ( version1 == null || version2 == null )
+                {
+                    return compareText( version1, version2 );
+                }
+                return getVersion( version1 ).compareTo( getVersion( version2 ) );
+            }
+
+            private synchronized DefaultArtifactVersion getVersion( String version )
+            {
+                DefaultArtifactVersion artifactVersion = (DefaultArtifactVersion) versions.get( version );
+                if ( artifactVersion == null )
+                {
+                    artifactVersion = new DefaultArtifactVersion( version );
+                    versions.put( version, artifactVersion );
+                }
+                return artifactVersion;
+            }
+        };
+    }
+
+    private static String getText( String name, JiraIssue issue )
+    {
+        if ( "summary".equals( name ) )
+        {
+            return issue.getSummary();
+        }
+        else if ( "status".equals( name ) )
+        {
+            return issue.getStatus();
+        }
+        else if ( "resolution".equals( name ) )
+        {
+            return issue.getResolution();
+        }
+        else if ( "assignee".equals( name ) )
+        {
+            return issue.getAssignee();
+        }
+        else if ( "reporter".equals( name ) )
+        {
+            return issue.getReporter();
+        }
+        else if ( "type".equals( name ) )
+        {
+            return issue.getType();
+        }
+        else if ( "component".equals( name ) )
+        {
+            return issue.getComponent();
+        }
+        return null;
+    }
+
+    /**
+     * Compare texts alphabetically. A missing text comes after all other texts.
+     */
+    private static int compareText( String text1, String text2 )
+    {
+        if ( text1 == null || text2 == null )
+        {
+            return text1 == null ? ( text2 == null ? 0 : 1 ) : -1;
+        }
+        return text1.compareToIgnoreCase( text2 );
+    }
+
+    /**
+     * Compare issue keys like <code>MCHANGES-10</code> by project, and then by number.
+     */
+    private static int compareKeys( String key1, String key2 )
+    {
+        if ( key1 == null || key2 == null )
+        {
+            return compareText( key1, key2 );
+        }
+
+        int dash1 = key1.lastIndexOf( '-' );
+        int dash2 = key2.lastIndexOf( '-' );
+        if ( dash1 == -1 || dash2 == -1 )
+        {
+            return compareText( key1, key2 );
+        }
+
+        int result = compareText( key1.substring( 0, dash1 ), key2.substring( 0, dash2 ) );
+        if ( result != 0 )
+        {
+            return result;
+        }
+        try
+        {
+            long number1 = Long.parseLong( key1.substring( dash1 + 1 ) );
+            long number2 = Long.parseLong( key2.substring( dash2 + 1 ) );
+            return number1 < number2 ? -1 : ( number1 == number2 ? 0 : 1 );
+        }
+        catch ( NumberFormatException e )
+        {
+            return compareText( key1, key2 );
+        }
+    }
+
+    /**
+     * Compare the standard JIRA priorities from low to high. Other priorities come before them, alphabetically.
+     */
+    private static int comparePriorities( String priority1, String priority2 )
+    {
+        int rank1 = getPriorityRank( priority1 );
+        int rank2 = getPriorityRank( priority2 );
+        if ( rank1 == -1 && rank2 == -1 )
+        {
+            return compareText( priority1, priority2 );
+        }
+        return rank1 < rank2 ? -1 : ( rank1 == rank2 ? 0 : 1 );
+    }
+
+    private static int getPriorityRank( String priority )
+    {
+        if ( priority != null )
+        {
+            for ( int i = 0; i < PRIORITIES.length; i++ )
+            {
+                if ( PRIORITIES[i].equalsIgnoreCase( priority ) )
+                {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,97 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.issues.IssueTrackerSource;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+
+/**
+ * Gets the releases from JIRA. The issues of one or more JIRA projects are downloaded, and grouped into releases by
+ * their fix version.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class JiraSource
+    implements IssueTrackerSource
+{
+    /** The name of this source. */
+    public static final String NAME = "JIRA";
+
+    private final JiraProjectsDownloader downloader;
+
+    private final ExecutionMetrics metrics;
+
+    /**
+     * @param downloader A downloader that is ready to use. It must download at least the
+     *                   {@link JiraXML#RELEASE_FIELDS}
+     * @param log        The log to report problems to
+     * @param metrics    The metrics to record the download and parsing in
+     */
+    public JiraSource( AbstractJiraDownloader downloader, Log log, ExecutionMetrics metrics )
+    {
+        this( new JiraProjectsDownloader( 1, log ), metrics );
+        this.downloader.addDownloader( downloader );
+    }
+
+    /**
+     * @param downloader The downloaders of the JIRA projects, which must download at least the
+     *                   {@link JiraXML#RELEASE_FIELDS}
+     * @param metrics    The metrics to record the download and parsing in
+     */
+    public JiraSource( JiraProjectsDownloader downloader, ExecutionMetrics metrics )
+    {
+        this.downloader = downloader;
+        this.metrics = metrics;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public List getReleases()
+        throws MojoExecutionException
+    {
+        try
+        {
+            downloader.setMetrics( metrics );
+            downloader.setParsePhase( "jira parse" );
+
+            List issues = downloader.download( JiraXML.RELEASE_FIELDS );
+            if ( issues == null )
+            {
+                return Collections.EMPTY_LIST;
+            }
+            metrics.addCount( "issues", issues.size() );
+
+            return JiraXML.getReleases( issues );
+        }
+        catch ( Exception e )
+        {
+            throw new MojoExecutionException( "Failed to extract JIRA issues from the downloaded file", e );
+        }
+    }
+}
@@ -20,32 +20,69 @@ package org.apache.maven.plugin.jira;
  */
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 
+import org.apache.maven.plugin.http.ContentEncoding;
+import org.apache.maven.plugin.metrics.PluginEvent;
 import org.apache.maven.plugins.changes.model.Action;
 import org.apache.maven.plugins.changes.model.Release;
+import org.codehaus.plexus.util.IOUtil;
 import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * XML parser for <code>JiraIssue</code>s. This works on an XML file downloaded
  * from JIRA and creates a List of issues that is exposed to the user of the
- * class.
+ * class. The file may be gzip compressed.
  *
  * @version $Id$
  */
 public class JiraXML
     extends DefaultHandler
 {
-    private List issueList;
+    /**
+     * The fields that are needed to create releases from issues, see {@link #getReleases(List)}.
+     */
+    public static final Set RELEASE_FIELDS =
+        Collections.unmodifiableSet( new HashSet( Arrays.asList( new String[] { "key", "type", "assignee", "summary",
+            "fixVersion" } ) ) );
+
+    /**
+     * The parsed issues, or <code>null</code> if they are passed on to {@link #handler}.
+     */
+    private List issues;
+
+    /**
+     * The handler that the parsed issues are passed on to, or <code>null</code> to add them to {@link #issues}.
+     */
+    private JiraIssueHandler handler;
+
+    private int issueCount;
+
+    /**
+     * The names of the elements of an item to capture, or <code>null</code> to capture all of them.
+     */
+    private Set fields;
+
+    /**
+     * If the text of the current element is being captured.
+     */
+    private boolean capturing = true;
 
     private StringBuffer currentElement = new StringBuffer( 1024 );
 
@@ -55,20 +92,71 @@ public class JiraXML
 
     public JiraXML( File xmlPath )
     {
+        this( xmlPath, null );
+    }
+
+    /**
+     * Parse an XML file downloaded from JIRA, capturing only some of the fields of the issues. The other fields of the
+     * issues are left empty. Leaving out fields like the comments saves a lot of memory for large downloads.
+     *
+     * @param xmlPath An XML file containing issues from JIRA
+     * @param fields The names of the XML elements of an item to capture, for instance <code>key</code>,
+     *        <code>summary</code> or <code>fixVersion</code>. Use <code>null</code> to capture all fields
+     * @since 2.4
+     */
+    public JiraXML( File xmlPath, Set fields )
+    {
+        this( xmlPath, fields, null );
+    }
+
+    /**
+     * Parse an XML file downloaded from JIRA, passing the issues on to a handler as they are parsed. This way the
+     * issues don't have to be held in a list, for instance when they are added to a {@link JiraIssueSorter}.
+     *
+     * @param xmlPath An XML file containing issues from JIRA
+     * @param fields The names of the XML elements of an item to capture, or <code>null</code> to capture all fields
+     * @param handler The handler to pass the issues on to, or <code>null</code> to collect them in the list that
+     *        {@link #getIssueList()} returns
+     * @since 2.4
+     */
+    public JiraXML( File xmlPath, Set fields, JiraIssueHandler handler )
+    {
+        this.fields = fields;
+
         SAXParserFactory factory = SAXParserFactory.newInstance();
 
-        issueList = new ArrayList();
+        this.handler = handler;
+        if ( handler == null )
+        {
+            this.issues = new JiraIssueList();
+        }
 
+        PluginEvent event = PluginEvent.begin( PluginEvent.PARSE, String.valueOf( xmlPath ) );
+        InputStream in = null;
         try
         {
             SAXParser saxParser = factory.newSAXParser();
 
-            saxParser.parse( xmlPath, this );
+            in = ContentEncoding.decompressIfGzipped( new FileInputStream( xmlPath ) );
+            InputSource source = new InputSource( in );
+            source.setSystemId( xmlPath.toURI().toString() );
+
+            saxParser.parse( source, this );
         }
         catch ( Throwable t )
         {
             t.printStackTrace();
         }
+        finally
+        {
+            IOUtil.close( in );
+            if ( xmlPath != null )
+            {
+                event.setBytes( xmlPath.length() );
+            }
+            event.setItemCount( issueCount );
+            event.commit();
+        }
     }
 
     public void startElement( String namespaceURI, String sName, String qName, Attributes attrs )
@@ -80,6 +168,8 @@ public class JiraXML
 
             currentParent = "item";
         }
+
+        capturing = fields == null || fields.contains( qName );
     }
 
     public void endElement( String namespaceURI, String sName, String qName )
@@ -87,10 +177,22 @@ public class JiraXML
     {
         if ( qName.equals( "item" ) )
         {
-            issueList.add( issue );
+            if ( handler == null )
+            {
+                issues.add( issue );
+            }
+            else
+            {
+                handler.add( issue );
+            }
+            issueCount++;
 
             currentParent = "";
         }
+        else if ( !capturing )
+        {
+            // This field is not wanted
+        }
         else if ( qName.equals( "key" ) )
         {
             issue.setKey( currentElement.toString().trim() );
@@ -149,17 +251,28 @@ public class JiraXML
         }
 
         currentElement.setLength( 0 );
+
+        capturing = fields == null;
     }
 
     public void characters( char[] buf, int offset, int len )
         throws SAXException
     {
-        currentElement.append( buf, offset, len );
+        if ( capturing )
+        {
+            currentElement.append( buf, offset, len );
+        }
     }
 
+    /**
+     * Get the parsed issues.
+     *
+     * @return A <code>List</code> of <code>JiraIssue</code>s, or <code>null</code> if the issues were passed on to
+     *         a handler
+     */
     public List getIssueList()
     {
-        return this.issueList;
+        return issues;
     }
 
     public static List getReleases( List issues )
@@ -0,0 +1,140 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.WriterFactory;
+
+/**
+ * Collects the metrics of all the goal executions of a build, so that they can be written to a single file in the
+ * target directory of the execution root. The file is rewritten after each execution, so at the end of the build it
+ * holds the metrics of the whole reactor.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public final class BuildMetrics
+{
+    /** The name of the metrics file in the target directory of the execution root. */
+    public static final String METRICS_FILE = "target/changes-metrics.json";
+
+    /** The metrics of the executions of the current build. */
+    private static final List EXECUTIONS = new ArrayList();
+
+    /** The start time of the build that the metrics belong to. */
+    private static Date executionsBuildStartTime;
+
+    private BuildMetrics()
+    {
+        // utility class
+    }
+
+    /**
+     * Finish the metrics of an execution and report them: a summary is logged, along with a summary of the HTTP
+     * requests at debug level, and the metrics of the build are written to a file if requested. Failures of
+     * {@link PluginEventListener}s during the execution are reported as well.
+     *
+     * @param metrics The metrics of the execution
+     * @param log     The log to write the summary to
+     * @param session The current build session, or <code>null</code> if it is not known
+     * @param write   <code>true</code> to write the metrics of the build to {@link #METRICS_FILE}
+     */
+    public static void report( ExecutionMetrics metrics, Log log, MavenSession session, boolean write )
+    {
+        metrics.finish();
+        log.info( metrics.getSummary() );
+        PluginEvents.reportFailures( log );
+        if ( metrics.hasHttpMetrics() && log.isDebugEnabled() )
+        {
+            log.debug( metrics.getHttpMetrics().getSummary() );
+        }
+
+        String json;
+        synchronized ( EXECUTIONS )
+        {
+            Date buildStartTime = session == null ? null : session.getStartTime();
+            if ( buildStartTime == null || !buildStartTime.equals( executionsBuildStartTime ) )
+            {
+                EXECUTIONS.clear();
+                executionsBuildStartTime = buildStartTime;
+            }
+            EXECUTIONS.add( metrics );
+
+            if ( !write || session == null )
+            {
+                return;
+            }
+            json = toJson( buildStartTime, EXECUTIONS );
+        }
+
+        File file = new File( session.getExecutionRootDirectory(), METRICS_FILE );
+        Writer writer = null;
+        try
+        {
+            file.getParentFile().mkdirs();
+            writer = WriterFactory.newWriter( file, "UTF-8" );
+            writer.write( json );
+            log.debug( "Wrote the metrics of the build to " + file );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to write the metrics to " + file + ". Cause is: " + e.getLocalizedMessage() );
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    /**
+     * Create a JSON document with the metrics of executions.
+     *
+     * @param buildStartTime The start time of the build
+     * @param executions     A list of <code>ExecutionMetrics</code>
+     * @return The JSON document
+     */
+    static String toJson( Date buildStartTime, List executions )
+    {
+        StringBuffer json = new StringBuffer( "{\"buildStartTime\":" );
+        json.append( buildStartTime == null ? -1 : buildStartTime.getTime() );
+        json.append( ",\"executions\":[" );
+        for ( Iterator iterator = executions.iterator(); iterator.hasNext(); )
+        {
+            json.append( "\n  " );
+            ( (ExecutionMetrics) iterator.next() ).appendJson( json );
+            if ( iterator.hasNext() )
+            {
+                json.append( ',' );
+            }
+        }
+        json.append( "\n]}\n" );
+        return json.toString();
+    }
+}
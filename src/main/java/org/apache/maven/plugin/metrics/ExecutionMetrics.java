@@ -0,0 +1,350 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The time spent in each phase of one execution of a goal, and the sizes of what it processed. Phases are timed with
+ * {@link #startPhase(String)} and {@link #endPhase(String)}. A phase that runs more than once adds up its durations.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class ExecutionMetrics
+{
+    /** The count of bytes, which is shown in a human readable unit. */
+    public static final String BYTES = "bytes";
+
+    private final String goal;
+
+    private final String projectId;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private long duration = -1;
+
+    /** The durations of the phases in milliseconds, in the order that they started. */
+    private final Map phaseDurations = new LinkedHashMap();
+
+    private final Map phaseStartTimes = new HashMap();
+
+    private final Map counts = new LinkedHashMap();
+
+    /** The HTTP requests of the execution, or <code>null</code> if it did not use HTTP. */
+    private HttpMetrics httpMetrics;
+
+    /**
+     * Start measuring an execution.
+     *
+     * @param goal      The goal that is executed
+     * @param projectId The id of the project that the goal is executed for, or <code>null</code>
+     */
+    public ExecutionMetrics( String goal, String projectId )
+    {
+        this.goal = goal;
+        this.projectId = projectId;
+    }
+
+    public String getGoal()
+    {
+        return goal;
+    }
+
+    public String getProjectId()
+    {
+        return projectId;
+    }
+
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * Start timing a phase.
+     *
+     * @param phase The name of the phase
+     */
+    public synchronized void startPhase( String phase )
+    {
+        if ( !phaseDurations.containsKey( phase ) )
+        {
+            phaseDurations.put( phase, new Long( 0 ) );
+        }
+        phaseStartTimes.put( phase, new Long( System.currentTimeMillis() ) );
+    }
+
+    /**
+     * Stop timing a phase that was started with {@link #startPhase(String)}.
+     *
+     * @param phase The name of the phase
+     */
+    public synchronized void endPhase( String phase )
+    {
+        Long phaseStartTime = (Long) phaseStartTimes.remove( phase );
+        if ( phaseStartTime != null )
+        {
+            addPhaseDuration( phase, System.currentTimeMillis() - phaseStartTime.longValue() );
+        }
+    }
+
+    /**
+     * Add time to a phase that was measured elsewhere.
+     *
+     * @param phase    The name of the phase
+     * @param duration The time spent in milliseconds
+     */
+    public synchronized void addPhaseDuration( String phase, long duration )
+    {
+        Long phaseDuration = (Long) phaseDurations.get( phase );
+        long total = phaseDuration == null ? duration : phaseDuration.longValue() + duration;
+        phaseDurations.put( phase, new Long( total ) );
+    }
+
+    /**
+     * Get the time spent in a phase.
+     *
+     * @param phase The name of the phase
+     * @return The time spent in milliseconds, or -1 if the phase has not run
+     */
+    public synchronized long getPhaseDuration( String phase )
+    {
+        Long phaseDuration = (Long) phaseDurations.get( phase );
+        return phaseDuration == null ? -1 : phaseDuration.longValue();
+    }
+
+    /**
+     * Add to a count, such as the number of issues or the number of bytes downloaded.
+     *
+     * @param name  The name of the count
+     * @param count The number to add
+     */
+    public synchronized void addCount( String name, long count )
+    {
+        counts.put( name, new Long( getCount( name ) + count ) );
+    }
+
+    /**
+     * Get a count.
+     *
+     * @param name The name of the count
+     * @return The count, or 0 if nothing was counted
+     */
+    public synchronized long getCount( String name )
+    {
+        Long count = (Long) counts.get( name );
+        return count == null ? 0 : count.longValue();
+    }
+
+    /**
+     * Add the phase durations and counts of another execution to this one, for instance of work that was done on
+     * another thread. The HTTP statistics are not added.
+     *
+     * @param other The metrics to add, which are no longer changed
+     */
+    public void add( ExecutionMetrics other )
+    {
+        Map otherPhaseDurations;
+        Map otherCounts;
+        synchronized ( other )
+        {
+            otherPhaseDurations = new LinkedHashMap( other.phaseDurations );
+            otherCounts = new LinkedHashMap( other.counts );
+        }
+
+        synchronized ( this )
+        {
+            for ( Iterator iterator = otherPhaseDurations.entrySet().iterator(); iterator.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) iterator.next();
+                addPhaseDuration( (String) entry.getKey(), ( (Long) entry.getValue() ).longValue() );
+            }
+            for ( Iterator iterator = otherCounts.entrySet().iterator(); iterator.hasNext(); )
+            {
+                Map.Entry entry = (Map.Entry) iterator.next();
+                addCount( (String) entry.getKey(), ( (Long) entry.getValue() ).longValue() );
+            }
+        }
+    }
+
+    /**
+     * Get the statistics of the HTTP requests that the execution sends.
+     *
+     * @return The statistics, never <code>null</code>
+     */
+    public synchronized HttpMetrics getHttpMetrics()
+    {
+        if ( httpMetrics == null )
+        {
+            httpMetrics = new HttpMetrics();
+        }
+        return httpMetrics;
+    }
+
+    /**
+     * Find out if the execution sent any HTTP requests.
+     *
+     * @return <code>true</code> if HTTP requests were recorded
+     */
+    public synchronized boolean hasHttpMetrics()
+    {
+        return httpMetrics != null && httpMetrics.getRequests() > 0;
+    }
+
+    /**
+     * Stop measuring the execution.
+     */
+    public synchronized void finish()
+    {
+        if ( duration == -1 )
+        {
+            duration = System.currentTimeMillis() - startTime;
+        }
+    }
+
+    /**
+     * Get the time that the execution took.
+     *
+     * @return The duration in milliseconds, or -1 if the execution has not finished
+     */
+    public synchronized long getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * Get a one line summary of the execution, for instance
+     * <code>jira-report took 3512 ms: download 2710 ms, parse 512 ms, render 290 ms; issues 1200, bytes 5.1 MB</code>.
+     *
+     * @return The summary
+     */
+    public synchronized String getSummary()
+    {
+        StringBuffer summary = new StringBuffer( goal );
+        summary.append( " took " ).append( duration ).append( " ms" );
+
+        String separator = ": ";
+        for ( Iterator iterator = phaseDurations.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            summary.append( separator ).append( entry.getKey() ).append( ' ' ).append( entry.getValue() ).append(
+                " ms" );
+            separator = ", ";
+        }
+
+        separator = "; ";
+        for ( Iterator iterator = counts.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            summary.append( separator ).append( entry.getKey() ).append( ' ' );
+            long count = ( (Long) entry.getValue() ).longValue();
+            summary.append( BYTES.equals( entry.getKey() ) ? formatBytes( count ) : String.valueOf( count ) );
+            separator = ", ";
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Append the execution to a JSON document.
+     *
+     * @param json The JSON document to append to
+     */
+    synchronized void appendJson( StringBuffer json )
+    {
+        json.append( "{\"goal\":" );
+        appendJsonString( json, goal );
+        json.append( ",\"project\":" );
+        appendJsonString( json, projectId );
+        json.append( ",\"startTime\":" ).append( startTime );
+        json.append( ",\"duration\":" ).append( duration );
+        json.append( ",\"phases\":" );
+        appendJsonObject( json, phaseDurations );
+        json.append( ",\"counts\":" );
+        appendJsonObject( json, counts );
+        if ( hasHttpMetrics() )
+        {
+            json.append( ",\"http\":" );
+            httpMetrics.appendJson( json );
+        }
+        json.append( '}' );
+    }
+
+    private static void appendJsonObject( StringBuffer json, Map values )
+    {
+        json.append( '{' );
+        for ( Iterator iterator = values.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            appendJsonString( json, (String) entry.getKey() );
+            json.append( ':' ).append( entry.getValue() );
+            if ( iterator.hasNext() )
+            {
+                json.append( ',' );
+            }
+        }
+        json.append( '}' );
+    }
+
+    static void appendJsonString( StringBuffer json, String value )
+    {
+        if ( value == null )
+        {
+            json.append( "null" );
+            return;
+        }
+
+        json.append( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            if ( c == '"' || c == '\\' )
+            {
+                json.append( '\\' ).append( c );
+            }
+            else if ( c < ' ' )
+            {
+                String hex = Integer.toHexString( c );
+                json.append( "\\u" ).append( "0000".substring( hex.length() ) ).append( hex );
+            }
+            else
+            {
+                json.append( c );
+            }
+        }
+        json.append( '"' );
+    }
+
+    static String formatBytes( long bytes )
+    {
+        if ( bytes < 1024 )
+        {
+            return bytes + " B";
+        }
+        else if ( bytes < 1024 * 1024 )
+        {
+            return ( bytes * 10 / 1024 ) / 10.0 + " kB";
+        }
+        return ( bytes * 10 / ( 1024 * 1024 ) ) / 10.0 + " MB";
+    }
+}
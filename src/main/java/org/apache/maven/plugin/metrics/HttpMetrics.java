@@ -0,0 +1,261 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics about the HTTP requests that a goal sent to an issue tracker. Latencies are counted in a fixed set of
+ * buckets, so recording a request takes constant time and memory, and percentiles are reported as the upper limit of
+ * the bucket they fall in.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class HttpMetrics
+{
+    /** The upper limits of the latency buckets in milliseconds. The last bucket holds everything slower. */
+    private static final long[] BUCKET_LIMITS = { 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000, 60000 };
+
+    private final int[] latencyBuckets = new int[BUCKET_LIMITS.length + 1];
+
+    private int requests;
+
+    private int failures;
+
+    private long totalLatency;
+
+    private long maxLatency;
+
+    private long bytes;
+
+    private int unknownSizes;
+
+    private int redirects;
+
+    /** The number of responses, keyed by status code. */
+    private final Map statusCodes = new TreeMap();
+
+    private String proxy;
+
+    /**
+     * Record a request that got a response.
+     *
+     * @param latency       The time until the response headers were received, in milliseconds
+     * @param statusCode    The status code of the response
+     * @param contentLength The length of the response body as sent by the server, or -1 if it is not known
+     * @param redirected    If the request was redirected, either by a redirect response or because the transport
+     *                      followed one
+     */
+    public synchronized void recordResponse( long latency, int statusCode, long contentLength, boolean redirected )
+    {
+        recordLatency( latency );
+
+        Integer key = new Integer( statusCode );
+        Integer count = (Integer) statusCodes.get( key );
+        statusCodes.put( key, new Integer( count == null ? 1 : count.intValue() + 1 ) );
+
+        if ( contentLength < 0 )
+        {
+            unknownSizes++;
+        }
+        else
+        {
+            bytes += contentLength;
+        }
+
+        if ( redirected || ( statusCode >= 300 && statusCode < 400 ) )
+        {
+            redirects++;
+        }
+    }
+
+    /**
+     * Record a request that failed without a response.
+     *
+     * @param latency The time until the request failed, in milliseconds
+     */
+    public synchronized void recordFailure( long latency )
+    {
+        recordLatency( latency );
+        failures++;
+    }
+
+    private void recordLatency( long latency )
+    {
+        requests++;
+        totalLatency += latency;
+        maxLatency = Math.max( maxLatency, latency );
+
+        int bucket = 0;
+        while ( bucket < BUCKET_LIMITS.length && latency > BUCKET_LIMITS[bucket] )
+        {
+            bucket++;
+        }
+        latencyBuckets[bucket]++;
+    }
+
+    /**
+     * Set the proxy that the requests are sent through.
+     *
+     * @param proxy The host and port of the proxy, or <code>null</code> if the requests are sent directly
+     */
+    public synchronized void setProxy( String proxy )
+    {
+        this.proxy = proxy;
+    }
+
+    public synchronized String getProxy()
+    {
+        return proxy;
+    }
+
+    public synchronized int getRequests()
+    {
+        return requests;
+    }
+
+    public synchronized int getFailures()
+    {
+        return failures;
+    }
+
+    public synchronized long getBytes()
+    {
+        return bytes;
+    }
+
+    public synchronized int getRedirects()
+    {
+        return redirects;
+    }
+
+    /**
+     * Get the number of responses with a status code.
+     *
+     * @param statusCode The status code
+     * @return The number of responses
+     */
+    public synchronized int getStatusCount( int statusCode )
+    {
+        Integer count = (Integer) statusCodes.get( new Integer( statusCode ) );
+        return count == null ? 0 : count.intValue();
+    }
+
+    /**
+     * Get a latency percentile.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The upper limit of the bucket that the percentile falls in, or the slowest latency if that is lower, in
+     *         milliseconds. 0 if no requests were recorded
+     */
+    public synchronized long getLatencyPercentile( double percentile )
+    {
+        long rank = (long) Math.ceil( requests * percentile / 100 );
+        long seen = 0;
+        for ( int bucket = 0; bucket < latencyBuckets.length; bucket++ )
+        {
+            seen += latencyBuckets[bucket];
+            if ( seen >= rank && seen > 0 )
+            {
+                return bucket < BUCKET_LIMITS.length ? Math.min( BUCKET_LIMITS[bucket], maxLatency ) : maxLatency;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Get a one line summary of the requests, for instance
+     * <code>HTTP 3 requests, 0 failed, latency p50 500 ms, p90 2000 ms, p99 2000 ms, max 1700 ms, total 2800 ms;
+     * 5.1 MB; status 200 x2, 302 x1; 1 redirects; proxy none</code>.
+     *
+     * @return The summary
+     */
+    public synchronized String getSummary()
+    {
+        StringBuffer summary = new StringBuffer( "HTTP " );
+        summary.append( requests ).append( " requests, " ).append( failures ).append( " failed" );
+        summary.append( ", latency p50 " ).append( getLatencyPercentile( 50 ) );
+        summary.append( " ms, p90 " ).append( getLatencyPercentile( 90 ) );
+        summary.append( " ms, p99 " ).append( getLatencyPercentile( 99 ) );
+        summary.append( " ms, max " ).append( maxLatency );
+        summary.append( " ms, total " ).append( totalLatency ).append( " ms; " );
+        summary.append( ExecutionMetrics.formatBytes( bytes ) );
+        if ( unknownSizes > 0 )
+        {
+            summary.append( " and " ).append( unknownSizes ).append( " responses of unknown size" );
+        }
+        summary.append( "; status" );
+        String separator = " ";
+        for ( Iterator iterator = statusCodes.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            summary.append( separator ).append( entry.getKey() ).append( " x" ).append( entry.getValue() );
+            separator = ", ";
+        }
+        summary.append( "; " ).append( redirects ).append( " redirects; proxy " );
+        summary.append( proxy == null ? "none" : proxy );
+        return summary.toString();
+    }
+
+    /**
+     * Append the statistics to a JSON document.
+     *
+     * @param json The JSON document to append to
+     */
+    synchronized void appendJson( StringBuffer json )
+    {
+        json.append( "{\"requests\":" ).append( requests );
+        json.append( ",\"failures\":" ).append( failures );
+        json.append( ",\"latency\":{\"p50\":" ).append( getLatencyPercentile( 50 ) );
+        json.append( ",\"p90\":" ).append( getLatencyPercentile( 90 ) );
+        json.append( ",\"p99\":" ).append( getLatencyPercentile( 99 ) );
+        json.append( ",\"max\":" ).append( maxLatency );
+        json.append( ",\"total\":" ).append( totalLatency );
+        json.append( ",\"buckets\":{" );
+        for ( int bucket = 0; bucket < latencyBuckets.length; bucket++ )
+        {
+            if ( bucket > 0 )
+            {
+                json.append( ',' );
+            }
+            json.append( '"' ).append( bucket < BUCKET_LIMITS.length ? "<=" + BUCKET_LIMITS[bucket] : "more" );
+            json.append( "\":" ).append( latencyBuckets[bucket] );
+        }
+        json.append( "}},\"bytes\":" ).append( bytes );
+        json.append( ",\"unknownSizes\":" ).append( unknownSizes );
+        json.append( ",\"statusCodes\":{" );
+        for ( Iterator iterator = statusCodes.entrySet().iterator(); iterator.hasNext(); )
+        {
+            Map.Entry entry = (Map.Entry) iterator.next();
+            json.append( '"' ).append( entry.getKey() ).append( "\":" ).append( entry.getValue() );
+            if ( iterator.hasNext() )
+            {
+                json.append( ',' );
+            }
+        }
+        json.append( "},\"redirects\":" ).append( redirects );
+        json.append( ",\"proxy\":" );
+        ExecutionMetrics.appendJsonString( json, proxy );
+        json.append( '}' );
+    }
+}
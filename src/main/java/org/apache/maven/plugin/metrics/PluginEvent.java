@@ -0,0 +1,179 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * Something that the plugin spent time on, such as a download or the parsing of a file. Events are meant for tools
+ * that correlate the work of the plugin with the rest of a build, for instance a listener that turns them into Java
+ * Flight Recorder events.
+ * <p>
+ * An event is started with {@link #begin(String, String)} and handed to the listeners by {@link #commit()}. When no
+ * {@link PluginEventListener} is registered, <code>begin</code> returns a shared event that ignores everything, so
+ * events cost nothing unless someone is listening.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public final class PluginEvent
+{
+    /** Issues or tickets are downloaded from an issue tracker. */
+    public static final String DOWNLOAD = "download";
+
+    /** A file is parsed. */
+    public static final String PARSE = "parse";
+
+    /** A report or an announcement is rendered. */
+    public static final String RENDER = "render";
+
+    /** An XML-RPC method is called. */
+    public static final String XML_RPC = "xml-rpc";
+
+    /** An announcement is mailed. */
+    public static final String MAIL = "mail";
+
+    /** The event that is returned when no listener is registered. */
+    private static final PluginEvent DISABLED = new PluginEvent( null, null, false );
+
+    private final String type;
+
+    private final String source;
+
+    private final boolean enabled;
+
+    private final String threadName;
+
+    private final long startTime;
+
+    private long duration = -1;
+
+    private long bytes = -1;
+
+    private int itemCount = -1;
+
+    private PluginEvent( String type, String source, boolean enabled )
+    {
+        this.type = type;
+        this.source = source;
+        this.enabled = enabled;
+        this.threadName = enabled ? Thread.currentThread().getName() : null;
+        this.startTime = enabled ? System.currentTimeMillis() : 0;
+    }
+
+    /**
+     * Start an event.
+     *
+     * @param type   The type of the event, for instance {@link #DOWNLOAD}
+     * @param source What the event works on, such as a URL or a file
+     * @return The event, which must be committed when the work is done
+     */
+    public static PluginEvent begin( String type, String source )
+    {
+        return PluginEvents.isEnabled() ? new PluginEvent( type, source, true ) : DISABLED;
+    }
+
+    /**
+     * End the event and hand it to the listeners. An event should only be committed once.
+     */
+    public void commit()
+    {
+        if ( enabled )
+        {
+            duration = System.currentTimeMillis() - startTime;
+            PluginEvents.fire( this );
+        }
+    }
+
+    /**
+     * Find out if the event will be handed to listeners. This can be used to avoid computing values that are only
+     * needed by the event.
+     *
+     * @return <code>true</code> if the event is recorded
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public String getType()
+    {
+        return type;
+    }
+
+    public String getSource()
+    {
+        return source;
+    }
+
+    public String getThreadName()
+    {
+        return threadName;
+    }
+
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * @return The duration in milliseconds, or -1 if the event has not been committed
+     */
+    public long getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * @return The number of bytes that were read or written, or -1 if it is not known
+     */
+    public long getBytes()
+    {
+        return bytes;
+    }
+
+    public void setBytes( long bytes )
+    {
+        if ( enabled )
+        {
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * @return The number of items, such as issues or releases, that were handled, or -1 if it is not known
+     */
+    public int getItemCount()
+    {
+        return itemCount;
+    }
+
+    public void setItemCount( int itemCount )
+    {
+        if ( enabled )
+        {
+            this.itemCount = itemCount;
+        }
+    }
+
+    public String toString()
+    {
+        return type + " " + source + " took " + duration + " ms, bytes " + bytes + ", items " + itemCount;
+    }
+}
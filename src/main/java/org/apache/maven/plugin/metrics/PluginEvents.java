@@ -0,0 +1,174 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * The registry of {@link PluginEventListener}s. Listeners can be registered from code, or by setting the system
+ * property <code>changes.eventListeners</code> to a comma separated list of listener class names. The classes must
+ * have a public no argument constructor and be visible to the plugin, for instance by adding them as a dependency of
+ * the plugin. They are registered when the first goal of the plugin starts, see {@link #registerListeners(Log)}.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public final class PluginEvents
+{
+    /** The system property with the class names of the listeners to register. */
+    public static final String LISTENERS_PROPERTY = "changes.eventListeners";
+
+    private static final PluginEventListener[] NO_LISTENERS = new PluginEventListener[0];
+
+    /** The registered listeners. The array is replaced, never changed, so it can be read without locking. */
+    private static volatile PluginEventListener[] listeners = NO_LISTENERS;
+
+    /** If the listeners of the system property have been registered. */
+    private static boolean propertyListenersRegistered;
+
+    /** The first failure of a listener that has not been reported yet, or <code>null</code>. */
+    private static String failure;
+
+    /** The number of failures of listeners that have not been reported yet. */
+    private static int failureCount;
+
+    private PluginEvents()
+    {
+        // utility class
+    }
+
+    /**
+     * Find out if events are recorded.
+     *
+     * @return <code>true</code> if at least one listener is registered
+     */
+    public static boolean isEnabled()
+    {
+        return listeners.length > 0;
+    }
+
+    /**
+     * Register the listeners that are named by the system property {@link #LISTENERS_PROPERTY}, the first time this
+     * is called. Goals call this when they start, because then there is a log to report problems to.
+     *
+     * @param log The log to report listeners that can not be registered to
+     */
+    public static synchronized void registerListeners( Log log )
+    {
+        if ( propertyListenersRegistered )
+        {
+            return;
+        }
+        propertyListenersRegistered = true;
+
+        String classNames = System.getProperty( LISTENERS_PROPERTY );
+        if ( StringUtils.isNotEmpty( classNames ) )
+        {
+            String[] names = StringUtils.split( classNames, "," );
+            for ( int i = 0; i < names.length; i++ )
+            {
+                String className = names[i].trim();
+                try
+                {
+                    Class listenerClass = Class.forName( className, true, PluginEvents.class.getClassLoader() );
+                    addListener( (PluginEventListener) listenerClass.newInstance() );
+                }
+                catch ( Exception e )
+                {
+                    log.warn( "Unable to register the plugin event listener " + className + ": " + e );
+                }
+            }
+        }
+    }
+
+    /**
+     * Report the failures of listeners since the last report. Failures are not reported while they happen, because
+     * events are fired where there is no log.
+     *
+     * @param log The log to report the failures to
+     */
+    public static synchronized void reportFailures( Log log )
+    {
+        if ( failure == null )
+        {
+            return;
+        }
+
+        if ( failureCount > 1 )
+        {
+            log.warn( failure + " There were " + ( failureCount - 1 ) + " more failures of plugin event listeners." );
+        }
+        else
+        {
+            log.warn( failure );
+        }
+        failure = null;
+        failureCount = 0;
+    }
+
+    private static synchronized void recordFailure( String message )
+    {
+        if ( failure == null )
+        {
+            failure = message;
+        }
+        failureCount++;
+    }
+
+    public static synchronized void addListener( PluginEventListener listener )
+    {
+        List newListeners = new ArrayList( Arrays.asList( listeners ) );
+        newListeners.add( listener );
+        listeners = (PluginEventListener[]) newListeners.toArray( NO_LISTENERS );
+    }
+
+    public static synchronized void removeListener( PluginEventListener listener )
+    {
+        List newListeners = new ArrayList( Arrays.asList( listeners ) );
+        newListeners.remove( listener );
+        listeners = (PluginEventListener[]) newListeners.toArray( NO_LISTENERS );
+    }
+
+    /**
+     * Hand an event to the listeners. A listener that fails does not stop the build.
+     *
+     * @param event The event
+     */
+    static void fire( PluginEvent event )
+    {
+        PluginEventListener[] currentListeners = listeners;
+        for ( int i = 0; i < currentListeners.length; i++ )
+        {
+            try
+            {
+                currentListeners[i].eventCommitted( event );
+            }
+            catch ( RuntimeException e )
+            {
+                recordFailure( "The plugin event listener " + currentListeners[i] + " failed: " + e );
+            }
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.commons.httpclient.util.URIUtil;
+import org.apache.maven.plugin.export.CsvRecordReader;
+import org.apache.maven.plugin.http.HttpTransport;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.apache.maven.plugin.metrics.PluginEvent;
+
+/**
+ * Gets tickets from the CSV export of a Trac query. All the tickets that match the query come in a single response,
+ * instead of one XML-RPC call per ticket. The export holds the fields of the tickets as text, formatted for display,
+ * so only the fields in {@link #EXPORTABLE_COLUMNS} can be read from it. The times that tickets were created and
+ * changed are read from the <code>time</code> and <code>changetime</code> fields of the export.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class TracCsvDownloader
+{
+    /** The columns of the report that can be read from the CSV export. */
+    public static final List EXPORTABLE_COLUMNS =
+        Arrays.asList( new String[] { "id", "type", "summary", "status", "resolution", "milestone", "owner",
+            "priority", "reporter", "component", "created", "changed" } );
+
+    /** The fields of the tickets that the CSV export is asked for. */
+    private static final String[] EXPORTED_FIELDS = { "id", "type", "summary", "status", "resolution", "milestone",
+        "owner", "priority", "reporter", "component", "time", "changetime" };
+
+    /** The Trac installation, without a trailing slash. */
+    private final String tracUrl;
+
+    private final HttpTransport transport;
+
+    private ExecutionMetrics metrics = new ExecutionMetrics( "trac-download", null );
+
+    /**
+     * @param tracUrl   The Trac installation, without a trailing slash
+     * @param transport The transport to send the requests through. It keeps the cookie of a login
+     */
+    public TracCsvDownloader( String tracUrl, HttpTransport transport )
+    {
+        this.tracUrl = tracUrl;
+        this.transport = transport;
+    }
+
+    /**
+     * Sets the metrics that the time spent downloading tickets is recorded in.
+     *
+     * @param metrics The metrics of the goal that uses the downloader
+     */
+    public void setMetrics( ExecutionMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Check if all the columns of a report can be read from the CSV export.
+     *
+     * @param columnNames The names of the columns, separated by commas
+     * @return <code>true</code> if every column can be read from the CSV export
+     */
+    public static boolean isExportable( String columnNames )
+    {
+        String[] columns = columnNames.split( "," );
+        for ( int i = 0; i < columns.length; i++ )
+        {
+            String column = columns[i].trim().toLowerCase();
+            if ( column.length() > 0 && !EXPORTABLE_COLUMNS.contains( column ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Log in to Trac. Trac only asks for credentials at its login page, and remembers the login in a cookie that
+     * the transport sends with the requests that follow.
+     *
+     * @param user     The user to log in as
+     * @param password The password of the user
+     * @throws IOException If the login failed
+     */
+    public void login( String user, String password )
+        throws IOException
+    {
+        transport.setBasicCredentials( user, password );
+
+        GetMethod method = new GetMethod( tracUrl + "/login" );
+        try
+        {
+            int status = transport.executeMethod( method );
+            if ( status >= HttpStatus.SC_BAD_REQUEST )
+            {
+                throw new IOException( "Logging in to Trac returned the status " + status + "." );
+            }
+        }
+        finally
+        {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Get the tickets that match a query.
+     *
+     * @param query A Trac query, for instance <code>milestone=1.0&amp;order=id</code>
+     * @return A <code>List</code> of <code>TracTicket</code>s, in the order of the query
+     * @throws IOException If the tickets could not be downloaded, or Trac did not answer with CSV
+     */
+    public List getTickets( String query )
+        throws IOException
+    {
+        String url = getQueryUrl( tracUrl, query );
+        GetMethod method = new GetMethod( url );
+        PluginEvent event = PluginEvent.begin( PluginEvent.DOWNLOAD, url );
+        metrics.startPhase( "fetch" );
+        try
+        {
+            int status = transport.executeMethod( method );
+            if ( status != HttpStatus.SC_OK )
+            {
+                throw new IOException( "The CSV export of Trac returned the status " + status + "." );
+            }
+
+            Header contentType = method.getResponseHeader( "Content-Type" );
+            if ( contentType == null || contentType.getValue().toLowerCase().indexOf( "csv" ) == -1 )
+            {
+                // Trac shows an HTML page when the user may not view the tickets
+                throw new IOException( "The CSV export of Trac returned "
+                    + ( contentType == null ? "no content type" : contentType.getValue() ) + " instead of CSV." );
+            }
+
+            InputStream in = method.getResponseBodyAsStream();
+            if ( in == null )
+            {
+                throw new IOException( "The CSV export of Trac returned no content." );
+            }
+            List tickets = parseTickets( new BufferedReader( new InputStreamReader( in, "UTF-8" ) ), tracUrl );
+            event.setItemCount( tickets.size() );
+            metrics.addCount( "tickets", tickets.size() );
+            return tickets;
+        }
+        finally
+        {
+            metrics.endPhase( "fetch" );
+            method.releaseConnection();
+            event.commit();
+        }
+    }
+
+    /**
+     * Build the URL of the CSV export of a query, with all the fields that can be read from it. Trac shows a page of
+     * the results at a time, unless the query says how many results it wants, so all the results are asked for.
+     *
+     * @param tracUrl The Trac installation, without a trailing slash
+     * @param query   A Trac query, or <code>null</code> for all the tickets
+     * @return The URL
+     */
+    static String getQueryUrl( String tracUrl, String query )
+    {
+        StringBuffer url = new StringBuffer( tracUrl );
+        url.append( "/query?format=csv" );
+        for ( int i = 0; i < EXPORTED_FIELDS.length; i++ )
+        {
+            url.append( "&col=" ).append( EXPORTED_FIELDS[i] );
+        }
+
+        boolean max = false;
+        if ( query != null && query.length() > 0 )
+        {
+            String[] parameters = query.split( "&" );
+            for ( int i = 0; i < parameters.length; i++ )
+            {
+                if ( parameters[i].length() > 0 )
+                {
+                    if ( parameters[i].startsWith( "max=" ) )
+                    {
+                        max = true;
+                    }
+                    url.append( '&' ).append( escape( parameters[i] ) );
+                }
+            }
+        }
+        if ( !max )
+        {
+            url.append( "&max=0" );
+        }
+        return url.toString();
+    }
+
+    private static String escape( String parameter )
+    {
+        try
+        {
+            return URIUtil.encodeQuery( parameter, "UTF-8" );
+        }
+        catch ( IOException e )
+        {
+            // UTF-8 is always supported
+            return parameter;
+        }
+    }
+
+    /**
+     * Parse the CSV export of a query. The first record holds the names of the columns. Columns that are unknown are
+     * skipped.
+     *
+     * @param in      The export
+     * @param tracUrl The Trac installation, without a trailing slash. It is used to build the links to the tickets
+     * @return A <code>List</code> of <code>TracTicket</code>s
+     * @throws IOException If the export could not be read, or holds a time that is not in a known format
+     */
+    static List parseTickets( Reader in, String tracUrl )
+        throws IOException
+    {
+        CsvRecordReader reader = new CsvRecordReader( in );
+        TimeParser timeParser = new TimeParser();
+        List tickets = new ArrayList();
+        try
+        {
+            String[] columns = reader.readRecord();
+            if ( columns == null )
+            {
+                return tickets;
+            }
+            // Trac starts the export with a byte order mark
+            if ( columns.length > 0 && columns[0].length() > 0 && columns[0].charAt( 0 ) == '\uFEFF' )
+            {
+                columns[0] = columns[0].substring( 1 );
+            }
+
+            for ( String[] values = reader.readRecord(); values != null; values = reader.readRecord() )
+            {
+                if ( values.length == 1 && values[0].length() == 0 )
+                {
+                    // An empty line
+                    continue;
+                }
+
+                TracTicket ticket = new TracTicket();
+                for ( int i = 0; i < columns.length && i < values.length; i++ )
+                {
+                    setField( ticket, columns[i].trim().toLowerCase(), values[i].length() == 0 ? null : values[i],
+                              timeParser );
+                }
+                ticket.setLink( tracUrl + "/ticket/" + ticket.getId() );
+                tickets.add( ticket );
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        return tickets;
+    }
+
+    private static void setField( TracTicket ticket, String column, String value, TimeParser timeParser )
+        throws IOException
+    {
+        if ( "id".equals( column ) || "ticket".equals( column ) )
+        {
+            ticket.setId( value );
+        }
+        else if ( "type".equals( column ) )
+        {
+            ticket.setType( value );
+        }
+        else if ( "summary".equals( column ) )
+        {
+            ticket.setSummary( value );
+        }
+        else if ( "status".equals( column ) )
+        {
+            ticket.setStatus( value );
+        }
+        else if ( "resolution".equals( column ) )
+        {
+            ticket.setResolution( value );
+        }
+        else if ( "milestone".equals( column ) )
+        {
+            ticket.setMilestone( value );
+        }
+        else if ( "owner".equals( column ) )
+        {
+            ticket.setOwner( value );
+        }
+        else if ( "priority".equals( column ) )
+        {
+            ticket.setPriority( value );
+        }
+        else if ( "reporter".equals( column ) )
+        {
+            ticket.setReporter( value );
+        }
+        else if ( "component".equals( column ) )
+        {
+            ticket.setComponent( value );
+        }
+        else if ( "time".equals( column ) )
+        {
+            ticket.setTimeCreated( timeParser.parse( value ) );
+        }
+        else if ( "changetime".equals( column ) )
+        {
+            ticket.setTimeChanged( timeParser.parse( value ) );
+        }
+    }
+
+    /**
+     * Reads the times of the CSV export. Trac 1.2 and later write them in ISO 8601, with the offset of their time
+     * zone. Older versions write them as <code>yyyy-MM-dd HH:mm:ss</code>, in the time zone of the user, which is
+     * taken to be the time zone of the build.
+     */
+    static class TimeParser
+    {
+        private final DateFormat isoFormat = new SimpleDateFormat( "yyyy-MM-dd'T'HH:mm:ssZ", Locale.ENGLISH );
+
+        private final DateFormat localFormat = new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss", Locale.ENGLISH );
+
+        /**
+         * @param value The time, may be <code>null</code>
+         * @return The date, or <code>null</code> if the value is <code>null</code>
+         * @throws IOException If the time is not in a known format
+         */
+        Date parse( String value )
+            throws IOException
+        {
+            if ( value == null )
+            {
+                return null;
+            }
+
+            String text = value.trim();
+            try
+            {
+                if ( text.indexOf( 'T' ) == -1 )
+                {
+                    return localFormat.parse( text );
+                }
+                if ( text.endsWith( "Z" ) )
+                {
+                    text = text.substring( 0, text.length() - 1 ) + "+0000";
+                }
+                else if ( text.length() > 6 && text.charAt( text.length() - 3 ) == ':' )
+                {
+                    // SimpleDateFormat only reads offsets without a colon
+                    text = text.substring( 0, text.length() - 3 ) + text.substring( text.length() - 2 );
+                }
+                return isoFormat.parse( text );
+            }
+            catch ( ParseException e )
+            {
+                throw new IOException( "The CSV export of Trac holds the time '" + value
+                    + "', which is not in a known format." );
+            }
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.http.HttpTransport;
+import org.apache.maven.plugin.http.XmlRpcHttpTransportFactory;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.apache.maven.plugin.metrics.PluginEvent;
+import org.apache.maven.plugins.changes.model.Action;
+import org.apache.maven.plugins.changes.model.Release;
+import org.apache.xmlrpc.XmlRpcException;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+
+/**
+ * Gets tickets from Trac through its XML-RPC interface.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class TracDownloader
+{
+    /** The Trac installation, without a trailing slash. */
+    private final String tracUrl;
+
+    private final XmlRpcClient client;
+
+    private final TracTicketDecoder decoder;
+
+    private ExecutionMetrics metrics = new ExecutionMetrics( "trac-download", null );
+
+    /**
+     * @param tracUrl The Trac installation, without a trailing slash
+     * @param client  A client that was created by {@link #createClient}
+     */
+    public TracDownloader( String tracUrl, XmlRpcClient client )
+    {
+        this.tracUrl = tracUrl;
+        this.client = client;
+        this.decoder = new TracTicketDecoder( tracUrl );
+    }
+
+    /**
+     * Create an XML-RPC client for a Trac installation.
+     *
+     * @param tracUrl           The Trac installation, without a trailing slash
+     * @param user              The user to log in as, or <code>null</code>
+     * @param password          The password of the user
+     * @param connectionTimeout The time to wait for a connection, in milliseconds
+     * @param socketTimeout     The time to wait for data, in milliseconds
+     * @param transport         The transport to send the calls through, or <code>null</code> to use the default
+     *                          transport of the XML-RPC client. The credentials of the user are handed to the
+     *                          transport, which sends them with every request instead of waiting to be challenged
+     * @return The client
+     * @throws MalformedURLException If the URL of the Trac installation is not valid
+     */
+    public static XmlRpcClient createClient( String tracUrl, String user, String password, int connectionTimeout,
+                                             int socketTimeout, HttpTransport transport )
+        throws MalformedURLException
+    {
+        XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
+        config.setServerURL( new URL( tracUrl + "/login/xmlrpc" ) );
+        if ( transport == null )
+        {
+            config.setBasicUserName( user );
+            config.setBasicPassword( password );
+        }
+        else if ( user != null && user.length() > 0 )
+        {
+            transport.setBasicCredentials( user, password );
+        }
+        config.setConnectionTimeout( connectionTimeout );
+        config.setReplyTimeout( socketTimeout );
+        // Let Trac compress its responses
+        config.setGzipRequesting( true );
+
+        XmlRpcClient client = new XmlRpcClient();
+
+        client.setConfig( config );
+
+        if ( transport != null )
+        {
+            client.setTransportFactory( new XmlRpcHttpTransportFactory( client, transport ) );
+        }
+        return client;
+    }
+
+    /**
+     * Sets the metrics that the time spent querying and fetching tickets is recorded in.
+     *
+     * @param metrics The metrics of the goal that uses the downloader
+     */
+    public void setMetrics( ExecutionMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Find the tickets that match a query.
+     *
+     * @param query A Trac query, for instance <code>milestone=1.0&amp;order=id</code>
+     * @return The ids of the tickets
+     * @throws XmlRpcException If Trac could not be queried
+     */
+    public Object[] queryTicketIds( String query )
+        throws XmlRpcException
+    {
+        metrics.startPhase( "query" );
+        try
+        {
+            return execute( "ticket.query", new Object[] { query == null ? "" : query } );
+        }
+        finally
+        {
+            metrics.endPhase( "query" );
+        }
+    }
+
+    /**
+     * Get tickets.
+     *
+     * @param ticketIds The ids of the tickets, as returned by {@link #queryTicketIds(String)}
+     * @return A <code>List</code> of <code>TracTicket</code>s
+     * @throws XmlRpcException If a ticket could not be retrieved
+     */
+    public List getTickets( Object[] ticketIds )
+        throws XmlRpcException
+    {
+        List tickets = new ArrayList( ticketIds.length );
+        metrics.startPhase( "fetch" );
+        try
+        {
+            for ( int i = 0; i < ticketIds.length; i++ )
+            {
+                tickets.add( getTicket( ticketIds[i] ) );
+            }
+        }
+        finally
+        {
+            metrics.endPhase( "fetch" );
+            metrics.addCount( "tickets", tickets.size() );
+        }
+        return tickets;
+    }
+
+    /**
+     * Get a ticket.
+     *
+     * @param ticketId The id of the ticket
+     * @return The ticket
+     * @throws XmlRpcException If the ticket could not be retrieved
+     */
+    public TracTicket getTicket( Object ticketId )
+        throws XmlRpcException
+    {
+        return decoder.decode( execute( "ticket.get", new Object[] { ticketId } ) );
+    }
+
+    /**
+     * Start fetching tickets on worker threads. The tickets can be used while the rest are still being fetched.
+     *
+     * @param ticketIds   The ids of the tickets, as returned by {@link #queryTicketIds(String)}
+     * @param threadCount The number of tickets to fetch at the same time
+     * @param windowSize  The maximum number of tickets to hold that have been fetched but not used yet
+     * @return The started stream of tickets, which must be closed after use
+     */
+    public TracTicketStream streamTickets( Object[] ticketIds, int threadCount, int windowSize )
+    {
+        TracTicketStream stream = new TracTicketStream( this, ticketIds, threadCount, windowSize );
+        stream.setMetrics( metrics );
+        stream.start();
+        return stream;
+    }
+
+    /**
+     * Get the tickets that match a query.
+     *
+     * @param query A Trac query
+     * @return A <code>List</code> of <code>TracTicket</code>s
+     * @throws XmlRpcException If Trac could not be queried or a ticket could not be retrieved
+     */
+    public List getTickets( String query )
+        throws XmlRpcException
+    {
+        return getTickets( queryTicketIds( query ) );
+    }
+
+    private Object[] execute( String method, Object[] params )
+        throws XmlRpcException
+    {
+        PluginEvent event = PluginEvent.begin( PluginEvent.XML_RPC, tracUrl + " " + method );
+        try
+        {
+            Object[] result = (Object[]) client.execute( method, params );
+            event.setItemCount( result.length );
+            return result;
+        }
+        finally
+        {
+            event.commit();
+        }
+    }
+
+    /**
+     * Group tickets into releases by their milestone. Tickets without a milestone are left out.
+     *
+     * @param tickets A <code>List</code> of <code>TracTicket</code>s
+     * @return A <code>List</code> of <code>Release</code>s, in the order that their milestones first appear
+     */
+    public static List getReleases( List tickets )
+    {
+        Map releasesMap = new LinkedHashMap();
+        for ( Iterator iterator = tickets.iterator(); iterator.hasNext(); )
+        {
+            TracTicket ticket = (TracTicket) iterator.next();
+            if ( ticket.getMilestone() == null || ticket.getMilestone().length() == 0 )
+            {
+                continue;
+            }
+
+            Release release = (Release) releasesMap.get( ticket.getMilestone() );
+            if ( release == null )
+            {
+                release = new Release();
+                release.setVersion( ticket.getMilestone() );
+                releasesMap.put( ticket.getMilestone(), release );
+            }
+            release.addAction( createAction( ticket ) );
+        }
+        return new ArrayList( releasesMap.values() );
+    }
+
+    /**
+     * Create an <code>Action</code> from a Trac ticket.
+     *
+     * @param ticket The ticket to extract the information from
+     * @return An <code>Action</code>
+     */
+    private static Action createAction( TracTicket ticket )
+    {
+        Action action = new Action();
+
+        action.setIssue( ticket.getId() );
+
+        String type = "";
+        if ( "defect".equals( ticket.getType() ) )
+        {
+            type = "fix";
+        }
+        else if ( "enhancement".equals( ticket.getType() ) )
+        {
+            type = "add";
+        }
+        else if ( "task".equals( ticket.getType() ) )
+        {
+            type = "update";
+        }
+        action.setType( type );
+
+        action.setDev( ticket.getOwner() );
+
+        // Set dueTo to the empty String instead of null to make Velocity happy
+        action.setDueTo( "" );
+
+        action.setAction( ticket.getSummary() );
+        return action;
+    }
+}
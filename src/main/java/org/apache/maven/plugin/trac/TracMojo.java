@@ -19,20 +19,24 @@ package org.apache.maven.plugin.trac;
  * under the License.
  */
 
+import java.io.IOException;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 import java.util.ResourceBundle;
 
 import org.apache.maven.doxia.siterenderer.Renderer;
 import org.apache.maven.plugin.changes.AbstractChangesReport;
+import org.apache.maven.plugin.export.RecordExporter;
+import org.apache.maven.plugin.export.Records;
+import org.apache.maven.plugin.http.HttpTransport;
+import org.apache.maven.plugin.http.HttpTransportFactory;
+import org.apache.maven.plugin.http.MeasuringHttpTransport;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.xmlrpc.XmlRpcException;
 import org.apache.xmlrpc.client.XmlRpcClient;
-import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
 import org.codehaus.plexus.util.StringUtils;
 
 /**
@@ -87,6 +91,90 @@ public class TracMojo
      */
     private String columnNames;
 
+    /**
+     * The transport used to talk to Trac. Valid values are <code>pooled</code>,
+     * which keeps persistent connections that are reused by the XML-RPC calls,
+     * and <code>simple</code>, which uses the default transport of the XML-RPC
+     * client.
+     *
+     * @parameter expression="${changes.httpTransport}" default-value="pooled"
+     * @since 2.4
+     */
+    private String httpTransport;
+
+    /**
+     * The time to wait for a connection to Trac, in milliseconds. Use
+     * <code>0</code> to wait forever.
+     *
+     * @parameter expression="${changes.connectionTimeout}" default-value="30000"
+     * @since 2.4
+     */
+    private int connectionTimeout;
+
+    /**
+     * The time to wait for data from Trac, in milliseconds. Use
+     * <code>0</code> to wait forever.
+     *
+     * @parameter expression="${changes.socketTimeout}" default-value="120000"
+     * @since 2.4
+     */
+    private int socketTimeout;
+
+    /**
+     * The number of times a request to Trac is retried when it fails with an
+     * I/O error or a temporary error such as <code>503 Service
+     * Unavailable</code>. The retries wait a growing delay, or the delay that
+     * Trac asks for.
+     * When requests keep failing, Trac is not called anymore for the rest of
+     * the build.
+     *
+     * @parameter expression="${changes.maxRetries}" default-value="3"
+     * @since 2.4
+     */
+    private int maxRetries;
+
+    /**
+     * The maximum number of tickets to fetch from Trac at the same time. The
+     * report is written while the tickets are being fetched.
+     *
+     * @parameter expression="${changes.tracThreads}" default-value="4"
+     * @since 2.4
+     */
+    private int tracThreads;
+
+    /**
+     * The maximum number of tickets that have been fetched from Trac but
+     * have not been written to the report yet. When this many tickets are
+     * waiting, fetching pauses until the report has caught up.
+     *
+     * @parameter expression="${changes.ticketQueueSize}" default-value="100"
+     * @since 2.4
+     */
+    private int ticketQueueSize;
+
+    /**
+     * The maximum number of persistent connections that the
+     * <code>pooled</code> transport keeps open to Trac. It should be at
+     * least <code>tracThreads</code>, otherwise the threads wait for each
+     * other's connections.
+     *
+     * @parameter expression="${changes.maxConnectionsPerHost}" default-value="4"
+     * @since 2.4
+     */
+    private int maxConnectionsPerHost;
+
+    /**
+     * Get the tickets from the CSV export of the query, in a single
+     * request, instead of fetching them one by one through XML-RPC.
+     * XML-RPC is still used when a column cannot be read from the export,
+     * or when the CSV export fails, for instance because Trac writes times
+     * in a format that is not known.
+     *
+     * @parameter expression="${changes.tracCsvExport}" default-value="false"
+     * @since 2.4
+     */
+    private boolean tracCsvExport;
+
     /**
      * @see org.apache.maven.reporting.AbstractMavenReport#canGenerateReport()
      */
@@ -105,25 +193,71 @@ public class TracMojo
 
         parseTracUrl();
 
-        XmlRpcClientConfigImpl config = new XmlRpcClientConfigImpl();
-
-        try
+        HttpTransport transport = null;
+        if ( !HttpTransportFactory.SIMPLE.equals( httpTransport ) )
         {
-            config.setServerURL( new URL( project.getIssueManagement().getUrl() + "/login/xmlrpc" ) );
+            try
+            {
+                transport = HttpTransportFactory.createTransport( httpTransport, maxConnectionsPerHost );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                throw new MavenReportException( e.getMessage() );
+            }
+            transport.setTimeouts( connectionTimeout, socketTimeout );
+            transport = new MeasuringHttpTransport( transport, getMetrics().getHttpMetrics() );
+            transport =
+                HttpTransportFactory.createRetryingTransport( transport, project.getIssueManagement().getUrl(),
+                                                              maxRetries, session == null ? null
+                                                                              : session.getStartTime(), getLog() );
         }
-        catch ( MalformedURLException e1 )
+
+        try
         {
+            if ( transport != null && !transport.isAvailable() )
+            {
+                getLog().warn( "Not calling Trac, because it has failed too often during this build." );
+                new TracReportGenerator( columnNames ).doGenerateEmptyReport( getBundle( locale ), getSink() );
+                return;
+            }
+
+            XmlRpcClient client;
+            try
+            {
+                client =
+                    TracDownloader.createClient( project.getIssueManagement().getUrl(), tracUser, tracPassword,
+                                                 connectionTimeout, socketTimeout, transport );
+            }
+            catch ( MalformedURLException e1 )
+            {
 
-            throw new MavenReportException( "The Trac URL is incorrect." );
+                throw new MavenReportException( "The Trac URL is incorrect." );
+
+            }
+
+            if ( tracCsvExport && generateCsvReport( locale, transport ) )
+            {
+                return;
+            }
 
+            TracDownloader downloader = new TracDownloader( project.getIssueManagement().getUrl(), client );
+            downloader.setMetrics( getMetrics() );
+
+            generateReport( locale, downloader );
+        }
+        finally
+        {
+            if ( transport != null )
+            {
+                transport.close();
+            }
         }
-        config.setBasicUserName( tracUser );
-        config.setBasicPassword( tracPassword );
+    }
 
+    private void generateReport( Locale locale, TracDownloader downloader )
+        throws MavenReportException
+    {
         Object[] queryResult = null;
-        XmlRpcClient client = new XmlRpcClient();
-
-        client.setConfig( config );
 
         String qstr = "";
 
@@ -132,19 +266,15 @@ public class TracMojo
             qstr = query;
         }
 
-        Object[] params = new Object[] { new String( qstr ) };
         try
         {
-            queryResult = (Object[]) client.execute( "ticket.query", params );
+            queryResult = downloader.queryTicketIds( qstr );
         }
         catch ( XmlRpcException e )
         {
             throw new MavenReportException( "XmlRpc Error.", e );
         }
 
-        ArrayList ticketList = new ArrayList();
-        TracTicket matchTicket;
-
         TracReportGenerator report = new TracReportGenerator( columnNames );
 
         if ( queryResult.length == 0 )
@@ -157,26 +287,113 @@ public class TracMojo
         else
         {
 
-            for ( int i = 0; i < queryResult.length; i++ )
+            TracTicketStream tickets = downloader.streamTickets( queryResult, tracThreads, ticketQueueSize );
+            try
             {
-                params = new Object[] { queryResult[i] };
+                // The time spent waiting for tickets that have not arrived yet is included
+                renderTickets( locale, report, tickets );
+
                 try
                 {
-                    Object[] ticketresult = null;
-                    matchTicket = new TracTicket();
-                    ticketresult = (Object[]) client.execute( "ticket.get", params );
-                    ticketList.add( setQueryResult( ticketresult, matchTicket ) );
-
+                    tickets.checkFailure();
                 }
                 catch ( XmlRpcException e )
                 {
                     throw new MavenReportException( "XmlRpc Error.", e );
                 }
             }
+            finally
+            {
+                tickets.close();
+            }
+        }
+
+    }
+
+    /**
+     * Generate the report from the CSV export of the query, if the export holds all the columns that are needed.
+     *
+     * @param locale    The locale of the report
+     * @param transport The transport to download the export with, or <code>null</code> to use a simple transport
+     * @return <code>true</code> if the report was generated, <code>false</code> if XML-RPC has to be used instead
+     * @throws MavenReportException If the report could not be generated
+     */
+    private boolean generateCsvReport( Locale locale, HttpTransport transport )
+        throws MavenReportException
+    {
+        if ( !TracCsvDownloader.isExportable( columnNames ) )
+        {
+            getLog().info( "Using XML-RPC instead of the CSV export of Trac, because not all the columns "
+                + columnNames + " can be read from the export." );
+            return false;
+        }
+
+        HttpTransport csvTransport = transport;
+        if ( csvTransport == null )
+        {
+            csvTransport = HttpTransportFactory.createTransport( HttpTransportFactory.SIMPLE );
+            csvTransport.setTimeouts( connectionTimeout, socketTimeout );
+        }
+
+        List ticketList;
+        try
+        {
+            TracCsvDownloader downloader =
+                new TracCsvDownloader( project.getIssueManagement().getUrl(), csvTransport );
+            downloader.setMetrics( getMetrics() );
+            if ( !StringUtils.isEmpty( tracUser ) )
+            {
+                downloader.login( tracUser, tracPassword );
+            }
+            ticketList = downloader.getTickets( query );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to use the CSV export of Trac, using XML-RPC instead: " + e.getMessage() );
+            return false;
+        }
+        finally
+        {
+            if ( csvTransport != transport )
+            {
+                csvTransport.close();
+            }
+        }
+
+        TracReportGenerator report = new TracReportGenerator( columnNames );
+        if ( ticketList.isEmpty() )
+        {
+            report.doGenerateEmptyReport( getBundle( locale ), getSink() );
+            getLog().warn( "No ticket has matched." );
+        }
+        else
+        {
+            renderTickets( locale, report, ticketList.iterator() );
+        }
+        return true;
+    }
+
+    /**
+     * Write the report, and export the tickets if export formats are configured.
+     *
+     * @param locale  The locale of the report
+     * @param report  The generator of the report
+     * @param tickets An <code>Iterator</code> over the <code>TracTicket</code>s
+     * @throws MavenReportException If the tickets could not be exported
+     */
+    private void renderTickets( Locale locale, TracReportGenerator report, Iterator tickets )
+        throws MavenReportException
+    {
+        RecordExporter exporter = createExporter( Records.TRAC_TICKET_COLUMNS );
+        try
+        {
+            ExportingIterator exporting = exporter == null ? null : new ExportingIterator( tickets, exporter );
             try
             {
 
-                report.doGenerateReport( getBundle( locale ), getSink(), ticketList );
+                getMetrics().startPhase( "render" );
+                report.doGenerateReport( getBundle( locale ), getSink(), exporting == null ? tickets : exporting );
+                getMetrics().endPhase( "render" );
 
             }
             catch ( Exception e )
@@ -186,8 +403,73 @@ public class TracMojo
 
             }
 
+            if ( exporting != null && exporting.getFailure() != null )
+            {
+                throw new MavenReportException( "Unable to export the Trac tickets.", exporting.getFailure() );
+            }
+        }
+        finally
+        {
+            if ( exporter != null )
+            {
+                closeExporter( exporter );
+            }
         }
+    }
+
+    /**
+     * Exports the tickets that the report is generated from, while they pass by.
+     */
+    private static class ExportingIterator
+        implements Iterator
+    {
+        private final Iterator tickets;
 
+        private final RecordExporter exporter;
+
+        private IOException failure;
+
+        ExportingIterator( Iterator tickets, RecordExporter exporter )
+        {
+            this.tickets = tickets;
+            this.exporter = exporter;
+        }
+
+        public boolean hasNext()
+        {
+            return tickets.hasNext();
+        }
+
+        public Object next()
+        {
+            TracTicket ticket = (TracTicket) tickets.next();
+            if ( failure == null )
+            {
+                try
+                {
+                    exporter.write( Records.getRecord( ticket ) );
+                }
+                catch ( IOException e )
+                {
+                    // Finish the report, the export fails afterwards
+                    failure = e;
+                }
+            }
+            return ticket;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return The reason why the tickets could not be exported, or <code>null</code>
+         */
+        IOException getFailure()
+        {
+            return failure;
+        }
     }
 
     public String getName( Locale locale )
@@ -232,40 +514,6 @@ public class TracMojo
 
     }
 
-    private TracTicket setQueryResult( Object[] ticketObj, TracTicket ticket )
-    {
-
-        ticket.setId( String.valueOf( ticketObj[0] ) );
-
-        ticket.setLink( project.getIssueManagement().getUrl() + "/ticket/" + String.valueOf( ticketObj[0] ) );
-
-        ticket.setTimeCreated( String.valueOf( ticketObj[1] ) );
-
-        ticket.setTimeChanged( String.valueOf( ticketObj[2] ) );
-
-        Map attributes = (Map) ticketObj[3];
-
-        ticket.setType( (String) attributes.get( "type" ) );
-
-        ticket.setSummary( (String) attributes.get( "summary" ) );
-
-        ticket.setStatus( (String) attributes.get( "status" ) );
-
-        ticket.setResolution( (String) attributes.get( "resolution" ) );
-
-        ticket.setOwner( (String) attributes.get( "owner" ) );
-
-        ticket.setMilestone( (String) attributes.get( "milestone" ) );
-
-        ticket.setPriority( (String) attributes.get( "priority" ) );
-
-        ticket.setReporter( (String) attributes.get( "reporter" ) );
-
-        ticket.setComponent( (String) attributes.get( "component" ) );
-
-        return ticket;
-    }
-
     private boolean validateIfIssueManagementComplete()
     {
         if ( project.getIssueManagement() == null )
@@ -20,7 +20,7 @@ package org.apache.maven.plugin.trac;
  */
 
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ResourceBundle;
 
@@ -111,21 +111,35 @@ public class TracReportGenerator
         sinkEndReport( sink );
     }
 
-    public void doGenerateReport( ResourceBundle bundle, Sink sink, ArrayList ticketList )
+    public void doGenerateReport( ResourceBundle bundle, Sink sink, List ticketList )
+    {
+        doGenerateReport( bundle, sink, ticketList == null ? null : ticketList.iterator() );
+    }
+
+    /**
+     * Generate the report from tickets that may still be arriving. A row is written for each ticket as soon as the
+     * iterator returns it.
+     *
+     * @param bundle  The resource bundle of the report
+     * @param sink    The sink to write the report to
+     * @param tickets An <code>Iterator</code> over <code>TracTicket</code>s, for instance a {@link TracTicketStream}
+     * @since 2.4
+     */
+    public void doGenerateReport( ResourceBundle bundle, Sink sink, Iterator tickets )
     {
 
         sinkBeginReport( sink, bundle );
 
-        constructHeaderRow( sink, ticketList, bundle );
+        constructHeaderRow( sink, tickets, bundle );
 
-        constructDetailRows( sink, ticketList, bundle );
+        constructDetailRows( sink, tickets, bundle );
 
         sinkEndReport( sink );
     }
 
-    private void constructHeaderRow( Sink sink, List ticketList, ResourceBundle bundle )
+    private void constructHeaderRow( Sink sink, Iterator tickets, ResourceBundle bundle )
     {
-        if ( ticketList == null )
+        if ( tickets == null )
         {
             return;
         }
@@ -183,18 +197,18 @@ public class TracReportGenerator
         sink.tableRow_();
     }
 
-    private void constructDetailRows( Sink sink, List ticketList, ResourceBundle bundle )
+    private void constructDetailRows( Sink sink, Iterator tickets, ResourceBundle bundle )
     {
-        if ( ticketList == null )
+        if ( tickets == null )
         {
             return;
         }
 
-        for ( int idx = 0; idx < ticketList.size(); idx++ )
-        {
-            SimpleDateFormat sdf = new SimpleDateFormat( bundle.getString( "report.trac.dateformat" ) );
+        SimpleDateFormat sdf = new SimpleDateFormat( bundle.getString( "report.trac.dateformat" ) );
 
-            TracTicket ticket = (TracTicket) ticketList.get( idx );
+        while ( tickets.hasNext() )
+        {
+            TracTicket ticket = (TracTicket) tickets.next();
 
             sink.tableRow();
 
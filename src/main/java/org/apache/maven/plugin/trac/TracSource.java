@@ -0,0 +1,72 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.issues.IssueTrackerSource;
+import org.apache.xmlrpc.XmlRpcException;
+
+/**
+ * Gets the releases from Trac. The tickets that match a query are downloaded, and grouped into releases by their
+ * milestone.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class TracSource
+    implements IssueTrackerSource
+{
+    /** The name of this source. */
+    public static final String NAME = "Trac";
+
+    private final TracDownloader downloader;
+
+    private final String query;
+
+    /**
+     * @param downloader The downloader to get the tickets with
+     * @param query      The Trac query that selects the tickets
+     */
+    public TracSource( TracDownloader downloader, String query )
+    {
+        this.downloader = downloader;
+        this.query = query;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public List getReleases()
+        throws MojoExecutionException
+    {
+        try
+        {
+            return TracDownloader.getReleases( downloader.getTickets( query ) );
+        }
+        catch ( XmlRpcException e )
+        {
+            throw new MojoExecutionException( "Failed to get the tickets from Trac.", e );
+        }
+    }
+}
@@ -19,11 +19,7 @@ package org.apache.maven.plugin.trac;
  * under the License.
  */
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.Locale;
 
 /**
  * A Trac Ticket.
@@ -170,7 +166,16 @@ public class TracTicket
 
     public void setTimeChanged( String timeChanged )
     {
-        this.timeChanged = parseDate( timeChanged );
+        this.timeChanged = TracTicketDecoder.parseDate( timeChanged );
+    }
+
+    /**
+     * @param timeChanged The time the ticket was last changed
+     * @since 2.4
+     */
+    public void setTimeChanged( Date timeChanged )
+    {
+        this.timeChanged = timeChanged;
     }
 
     public Date getTimeCreated()
@@ -180,31 +185,16 @@ public class TracTicket
 
     public void setTimeCreated( String timeCreated )
     {
-        this.timeCreated = parseDate( timeCreated );
-    }
-
-    private Date parseDate( String timeCreated )
-        throws RuntimeException
-    {
-        try
-        {
-            long millis = Long.parseLong( timeCreated );
-            Calendar cld = Calendar.getInstance();
-            cld.setTimeInMillis( millis * 1000L );
-            return cld.getTime();
-        }
-        catch ( NumberFormatException e )
-        {
-            SimpleDateFormat format = new SimpleDateFormat( "EEE MMM dd HH:mm:ss z yyyy", Locale.ENGLISH );
-            try
-            {
-                return format.parse( timeCreated );
-            }
-            catch ( ParseException e1 )
-            {
-                throw new RuntimeException( "Failed to parse date '" + timeCreated + "' as a date.", e1 );
-            }
-        }
+        this.timeCreated = TracTicketDecoder.parseDate( timeCreated );
+    }
+
+    /**
+     * @param timeCreated The time the ticket was created
+     * @since 2.4
+     */
+    public void setTimeCreated( Date timeCreated )
+    {
+        this.timeCreated = timeCreated;
     }
 
     public String getLink()
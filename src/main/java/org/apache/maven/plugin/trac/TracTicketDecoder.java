@@ -0,0 +1,165 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decodes the structures that the Trac XML-RPC interface returns for <code>ticket.get</code> into
+ * <code>TracTicket</code>s. A decoder keeps no state between calls, so one decoder can be shared by threads that
+ * fetch tickets in parallel.
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class TracTicketDecoder
+{
+    /** The format that <code>java.util.Date.toString()</code> produces. */
+    private static final String DATE_PATTERN = "EEE MMM dd HH:mm:ss z yyyy";
+
+    /**
+     * The formats used to parse dates that are sent as text. <code>SimpleDateFormat</code> is not thread safe, so
+     * every thread gets its own instance, which it then reuses for all the dates it parses.
+     */
+    private static final ThreadLocal DATE_FORMAT = new ThreadLocal()
+    {
+        protected Object initialValue()
+        {
+            return new SimpleDateFormat( DATE_PATTERN, Locale.ENGLISH );
+        }
+    };
+
+    /** The Trac installation, without a trailing slash. */
+    private final String tracUrl;
+
+    /**
+     * @param tracUrl The Trac installation, without a trailing slash. It is used to build the links to the tickets
+     */
+    public TracTicketDecoder( String tracUrl )
+    {
+        this.tracUrl = tracUrl;
+    }
+
+    /**
+     * Decode the result of a <code>ticket.get</code> call. The result holds the id of the ticket, the time it was
+     * created, the time it was last changed and a <code>Map</code> of its attributes.
+     *
+     * @param ticketObj The result of the call
+     * @return The ticket
+     * @throws IllegalArgumentException If the result does not have the structure of a ticket
+     */
+    public TracTicket decode( Object[] ticketObj )
+    {
+        if ( ticketObj.length < 4 || !( ticketObj[3] instanceof Map ) )
+        {
+            throw new IllegalArgumentException( "The result of ticket.get is not a ticket: " + ticketObj.length
+                + " values." );
+        }
+
+        TracTicket ticket = new TracTicket();
+
+        String id = String.valueOf( ticketObj[0] );
+        ticket.setId( id );
+        ticket.setLink( tracUrl + "/ticket/" + id );
+        ticket.setTimeCreated( parseDate( ticketObj[1] ) );
+        ticket.setTimeChanged( parseDate( ticketObj[2] ) );
+
+        Map attributes = (Map) ticketObj[3];
+        ticket.setType( getString( attributes, "type" ) );
+        ticket.setSummary( getString( attributes, "summary" ) );
+        ticket.setStatus( getString( attributes, "status" ) );
+        ticket.setResolution( getString( attributes, "resolution" ) );
+        ticket.setOwner( getString( attributes, "owner" ) );
+        ticket.setMilestone( getString( attributes, "milestone" ) );
+        ticket.setPriority( getString( attributes, "priority" ) );
+        ticket.setReporter( getString( attributes, "reporter" ) );
+        ticket.setComponent( getString( attributes, "component" ) );
+
+        return ticket;
+    }
+
+    private static String getString( Map attributes, String name )
+    {
+        Object value = attributes.get( name );
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Convert a time sent by Trac to a date. Newer versions of the XML-RPC plugin send a <code>dateTime.iso8601</code>
+     * value, older versions send the number of seconds since the epoch, either as a number or as text. Dates in the
+     * format of <code>java.util.Date.toString()</code> are accepted as well.
+     *
+     * @param value The time, may be <code>null</code>
+     * @return The date, or <code>null</code> if the value is <code>null</code>
+     * @throws IllegalArgumentException If the value is not a date
+     */
+    public static Date parseDate( Object value )
+    {
+        if ( value == null || value instanceof Date )
+        {
+            return (Date) value;
+        }
+        if ( value instanceof Number )
+        {
+            return new Date( ( (Number) value ).longValue() * 1000L );
+        }
+
+        String text = value.toString().trim();
+        if ( isDigits( text ) )
+        {
+            return new Date( Long.parseLong( text ) * 1000L );
+        }
+
+        DateFormat format = (DateFormat) DATE_FORMAT.get();
+        try
+        {
+            return format.parse( text );
+        }
+        catch ( ParseException e )
+        {
+            IllegalArgumentException exception =
+                new IllegalArgumentException( "Failed to parse date '" + text + "' as a date." );
+            exception.initCause( e );
+            throw exception;
+        }
+    }
+
+    private static boolean isDigits( String text )
+    {
+        // Leave room for the multiplication by 1000
+        if ( text.length() == 0 || text.length() > 15 )
+        {
+            return false;
+        }
+        for ( int i = 0; i < text.length(); i++ )
+        {
+            if ( !Character.isDigit( text.charAt( i ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,300 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.apache.xmlrpc.XmlRpcException;
+
+/**
+ * Fetches tickets on worker threads and returns them in the order of their ids, as soon as they have arrived. The
+ * tickets that have been fetched but not yet returned are held in a window of a fixed size. When the window is full,
+ * the workers wait until the consumer has taken tickets out of it, so the memory used does not depend on the number of
+ * tickets.
+ * <p>
+ * {@link #hasNext()} waits until the next ticket has arrived. It returns <code>false</code> when a ticket could not
+ * be fetched, after which {@link #checkFailure()} throws the cause. The tickets before the failure that have arrived
+ * by then are still returned. The stream must be closed when it is no longer used, to stop the workers.
+ * </p>
+ *
+ * @version $Id$
+ * @since 2.4
+ */
+public class TracTicketStream
+    implements Iterator
+{
+    private final TracDownloader downloader;
+
+    private final Object[] ticketIds;
+
+    /** The tickets that have arrived but have not been returned yet, at the index of their id modulo the size. */
+    private final TracTicket[] window;
+
+    private final Thread[] threads;
+
+    private ExecutionMetrics metrics = new ExecutionMetrics( "trac-download", null );
+
+    /** The index of the next ticket to fetch. */
+    private int nextFetch;
+
+    /** The index of the next ticket to return. */
+    private int nextRead;
+
+    private Throwable failure;
+
+    private boolean closed;
+
+    /**
+     * @param downloader  The downloader to fetch the tickets with
+     * @param ticketIds   The ids of the tickets, in the order to return them in
+     * @param threadCount The number of tickets to fetch at the same time
+     * @param windowSize  The maximum number of tickets to hold that have been fetched but not returned
+     */
+    public TracTicketStream( TracDownloader downloader, Object[] ticketIds, int threadCount, int windowSize )
+    {
+        this.downloader = downloader;
+        this.ticketIds = ticketIds;
+        this.window = new TracTicket[Math.max( 1, windowSize )];
+        this.threads = new Thread[Math.max( 1, Math.min( threadCount, ticketIds.length ) )];
+    }
+
+    /**
+     * Sets the metrics that the time spent fetching tickets is recorded in. The times of tickets that are fetched at
+     * the same time are added up.
+     *
+     * @param metrics The metrics of the goal that uses the stream
+     */
+    public void setMetrics( ExecutionMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Start the workers.
+     */
+    public void start()
+    {
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i] = new Thread( "changes-Trac-" + ( i + 1 ) )
+            {
+                public void run()
+                {
+                    fetchRemaining();
+                }
+            };
+            threads[i].setDaemon( true );
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Wait until the next ticket has arrived.
+     *
+     * @return <code>true</code> if there is a next ticket, <code>false</code> if all the tickets have been returned,
+     *         a ticket could not be fetched or the stream has been closed
+     */
+    public synchronized boolean hasNext()
+    {
+        boolean interrupted = false;
+        try
+        {
+            while ( !closed && failure == null && nextRead < ticketIds.length
+                && window[nextRead % window.length] == null )
+            {
+                try
+                {
+                    wait();
+                }
+                catch ( InterruptedException e )
+                {
+                    // Keep waiting, the workers only stop at the end of a call
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return !closed && nextRead < ticketIds.length && window[nextRead % window.length] != null;
+    }
+
+    /**
+     * @return The next <code>TracTicket</code>
+     */
+    public synchronized Object next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        int slot = nextRead % window.length;
+        TracTicket ticket = window[slot];
+        window[slot] = null;
+        nextRead++;
+        notifyAll();
+        return ticket;
+    }
+
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Throws the reason why a ticket could not be fetched, if any.
+     *
+     * @throws XmlRpcException If a ticket could not be retrieved
+     */
+    public synchronized void checkFailure()
+        throws XmlRpcException
+    {
+        if ( failure instanceof XmlRpcException )
+        {
+            throw (XmlRpcException) failure;
+        }
+        else if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        else if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * Stop the workers and wait for the calls that are running to end. The tickets that have not been returned yet
+     * are dropped.
+     */
+    public void close()
+    {
+        synchronized ( this )
+        {
+            if ( closed )
+            {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+
+        boolean interrupted = false;
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            while ( threads[i] != null && threads[i].isAlive() )
+            {
+                try
+                {
+                    threads[i].join();
+                }
+                catch ( InterruptedException e )
+                {
+                    // The calls can't be stopped, so wait for them anyway
+                    interrupted = true;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        metrics.addCount( "tickets", nextRead );
+    }
+
+    /**
+     * Wait until there is room in the window for the next ticket to fetch.
+     *
+     * @return The index of the ticket to fetch, or -1 if the worker should stop
+     */
+    private synchronized int takeNextIndex()
+    {
+        while ( !closed && failure == null && nextFetch < ticketIds.length && nextFetch >= nextRead + window.length )
+        {
+            try
+            {
+                wait();
+            }
+            catch ( InterruptedException e )
+            {
+                return -1;
+            }
+        }
+        if ( closed || failure != null || nextFetch >= ticketIds.length )
+        {
+            return -1;
+        }
+        return nextFetch++;
+    }
+
+    private synchronized void put( int index, TracTicket ticket )
+    {
+        window[index % window.length] = ticket;
+        notifyAll();
+    }
+
+    private synchronized void setFailure( Throwable t )
+    {
+        if ( failure == null )
+        {
+            failure = t;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Fetch tickets on the current thread, until there are no tickets left.
+     */
+    private void fetchRemaining()
+    {
+        for ( int index = takeNextIndex(); index != -1; index = takeNextIndex() )
+        {
+            long start = System.currentTimeMillis();
+            try
+            {
+                put( index, downloader.getTicket( ticketIds[index] ) );
+            }
+            catch ( XmlRpcException e )
+            {
+                setFailure( e );
+            }
+            catch ( RuntimeException e )
+            {
+                setFailure( e );
+            }
+            catch ( Error e )
+            {
+                setFailure( e );
+            }
+            finally
+            {
+                metrics.addPhaseDuration( "fetch", System.currentTimeMillis() - start );
+            }
+        }
+    }
+}
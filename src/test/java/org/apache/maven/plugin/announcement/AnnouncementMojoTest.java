@@ -1,14 +1,28 @@
 package org.apache.maven.plugin.announcement;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
+import org.apache.maven.model.IssueManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.apache.maven.plugins.changes.model.Action;
 import org.apache.maven.plugins.changes.model.Release;
+import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.ReflectionUtils;
 
 /*
  * Licensed to the Apache Software Foundation (ASF) under one
@@ -93,6 +107,242 @@ public class AnnouncementMojoTest
         assertContains( "Deleted the erroneous code.", result );
     }
 
+    /**
+     * Answers the requests for the JIRA issues and the Trac tickets.
+     */
+    private static class IssueTrackerServer
+        extends Thread
+    {
+        private static final String TRAC_QUERY_RESPONSE = "<?xml version=\"1.0\"?><methodResponse><params><param>"
+            + "<value><array><data><value><int>7</int></value></data></array></value></param></params>"
+            + "</methodResponse>";
+
+        private static final String TRAC_TICKET_RESPONSE = "<?xml version=\"1.0\"?><methodResponse><params><param>"
+            + "<value><array><data><value><int>7</int></value><value><int>1230000000</int></value>"
+            + "<value><int>1230000000</int></value><value><struct>"
+            + "<member><name>type</name><value><string>defect</string></value></member>"
+            + "<member><name>summary</name><value><string>Fixed in Trac</string></value></member>"
+            + "<member><name>milestone</name><value><string>1.1</string></value></member>"
+            + "<member><name>owner</name><value><string>dev</string></value></member>"
+            + "</struct></value></data></array></value></param></params></methodResponse>";
+
+        private final ServerSocket serverSocket;
+
+        private final List paths = new ArrayList();
+
+        IssueTrackerServer()
+            throws IOException
+        {
+            serverSocket = new ServerSocket( 0 );
+        }
+
+        String getUrl()
+        {
+            return "http://localhost:" + serverSocket.getLocalPort();
+        }
+
+        public void run()
+        {
+            try
+            {
+                while ( true )
+                {
+                    Socket socket = serverSocket.accept();
+                    try
+                    {
+                        answer( socket.getInputStream(), socket.getOutputStream() );
+                    }
+                    finally
+                    {
+                        socket.close();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                // The server socket was closed
+            }
+        }
+
+        private void answer( InputStream in, OutputStream out )
+            throws IOException
+        {
+            String requestLine = readLine( in );
+            String path = requestLine.substring( requestLine.indexOf( ' ' ) + 1, requestLine.lastIndexOf( ' ' ) );
+            synchronized ( paths )
+            {
+                paths.add( path );
+            }
+
+            int contentLength = 0;
+            boolean chunked = false;
+            for ( String header = readLine( in ); header.length() > 0; header = readLine( in ) )
+            {
+                String value = header.substring( header.indexOf( ':' ) + 1 ).trim();
+                if ( header.toLowerCase().startsWith( "content-length:" ) )
+                {
+                    contentLength = Integer.parseInt( value );
+                }
+                else if ( header.toLowerCase().startsWith( "transfer-encoding:" ) )
+                {
+                    chunked = "chunked".equalsIgnoreCase( value );
+                }
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            if ( chunked )
+            {
+                for ( int size = readChunkSize( in ); size > 0; size = readChunkSize( in ) )
+                {
+                    read( in, body, size );
+                    readLine( in );
+                }
+                readLine( in );
+            }
+            else
+            {
+                read( in, body, contentLength );
+            }
+
+            String response;
+            if ( path.startsWith( "/jira/secure/IssueNavigator.jspa" ) )
+            {
+                response = FileUtils.fileRead( new File( getBasedir(), "src/test/unit/jira-results.xml" ), "UTF-8" );
+            }
+            else if ( path.equals( "/trac/login/xmlrpc" ) )
+            {
+                boolean query = body.toString( "UTF-8" ).indexOf( "ticket.query" ) != -1;
+                response = query ? TRAC_QUERY_RESPONSE : TRAC_TICKET_RESPONSE;
+            }
+            else
+            {
+                out.write( "HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"
+                    .getBytes( "US-ASCII" ) );
+                out.flush();
+                return;
+            }
+
+            byte[] content = response.getBytes( "UTF-8" );
+            out.write( ( "HTTP/1.1 200 OK\r\nContent-Type: text/xml; charset=UTF-8\r\nContent-Length: "
+                + content.length + "\r\nConnection: close\r\n\r\n" ).getBytes( "US-ASCII" ) );
+            out.write( content );
+            out.flush();
+        }
+
+        private static int readChunkSize( InputStream in )
+            throws IOException
+        {
+            String line = readLine( in );
+            int extension = line.indexOf( ';' );
+            return Integer.parseInt( extension == -1 ? line.trim() : line.substring( 0, extension ).trim(), 16 );
+        }
+
+        private static void read( InputStream in, OutputStream out, int length )
+            throws IOException
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                out.write( in.read() );
+            }
+        }
+
+        private static String readLine( InputStream in )
+            throws IOException
+        {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            for ( int b = in.read(); b != -1 && b != '\n'; b = in.read() )
+            {
+                if ( b != '\r' )
+                {
+                    line.write( b );
+                }
+            }
+            return line.toString( "US-ASCII" );
+        }
+
+        void close()
+            throws IOException, InterruptedException
+        {
+            serverSocket.close();
+            join();
+        }
+    }
+
+    private AnnouncementMojo createMojo( String issueManagementUrl )
+        throws IllegalAccessException
+    {
+        Model model = new Model();
+        model.setVersion( "1.1" );
+        IssueManagement issueManagement = new IssueManagement();
+        issueManagement.setUrl( issueManagementUrl );
+        model.setIssueManagement( issueManagement );
+
+        AnnouncementMojo mojo = new AnnouncementMojo();
+        ReflectionUtils.setVariableValueInObject( mojo, "project", new MavenProject( model ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "xmlPath",
+                                                  new File( getBasedir(), "src/test/unit/announce-changes.xml" ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "jiraXML",
+                                                  new File( getBasedir(), "target/test/announcement-jira.xml" ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "statusIds", "Closed" );
+        ReflectionUtils.setVariableValueInObject( mojo, "maxEntries", new Integer( 100 ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "jiraThreads", new Integer( 1 ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "tracQuery", "order=id" );
+        ReflectionUtils.setVariableValueInObject( mojo, "connectionTimeout", new Integer( 10000 ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "socketTimeout", new Integer( 10000 ) );
+        return mojo;
+    }
+
+    public void testGetReleasesFromChangesJiraAndTrac()
+        throws Exception
+    {
+        IssueTrackerServer server = new IssueTrackerServer();
+        server.start();
+        try
+        {
+            AnnouncementMojo mojo = createMojo( server.getUrl() + "/jira/browse/MCHANGES?pid=11212" );
+            ReflectionUtils.setVariableValueInObject( mojo, "tracUrl", server.getUrl() + "/trac/" );
+
+            List releases = mojo.getReleases( Arrays.asList( new String[] { "changes.xml", "JIRA", "Trac" } ) );
+
+            assertEquals( 4, releases.size() );
+            assertNotNull( mojo.getRelease( releases, "1.0" ) );
+            assertNotNull( mojo.getRelease( releases, "2.0" ) );
+            assertNotNull( mojo.getRelease( releases, "2.1" ) );
+
+            // changes.xml and Trac are merged into one release
+            Release release = mojo.getRelease( releases, "1.1" );
+            boolean fromTrac = false;
+            for ( Iterator iterator = release.getActions().iterator(); iterator.hasNext(); )
+            {
+                Action action = (Action) iterator.next();
+                fromTrac |= "7".equals( action.getIssue() ) && "Fixed in Trac".equals( action.getAction() );
+            }
+            assertTrue( "The Trac ticket is in release 1.1", fromTrac );
+            assertTrue( release.getActions().size() > 1 );
+
+            assertTrue( server.paths.contains( "/trac/login/xmlrpc" ) );
+        }
+        finally
+        {
+            server.close();
+        }
+    }
+
+    public void testJiraAndTracCannotShareTheIssueManagementUrl()
+        throws Exception
+    {
+        AnnouncementMojo mojo = createMojo( "http://localhost/jira/browse/MCHANGES?pid=11212" );
+        try
+        {
+            mojo.getReleases( Arrays.asList( new String[] { "JIRA", "Trac" } ) );
+            fail( "JIRA and Trac should not both use the issue management URL" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertTrue( e.getMessage(), e.getMessage().indexOf( "tracUrl" ) != -1 );
+        }
+    }
+
     protected void assertContains( String content, String announce )
     {
         assertTrue( announce.indexOf( content ) > 0 );
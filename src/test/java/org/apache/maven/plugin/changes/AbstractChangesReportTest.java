@@ -0,0 +1,66 @@
+package org.apache.maven.plugin.changes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.doxia.site.decoration.DecorationModel;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+
+/**
+ * @version $Id$
+ */
+public class AbstractChangesReportTest
+    extends TestCase
+{
+    public void testCopySiteRenderingContext()
+    {
+        Map properties = new HashMap();
+        properties.put( "outputEncoding", "UTF-8" );
+
+        SiteRenderingContext siteContext = new SiteRenderingContext();
+        siteContext.setTemplateName( "org/apache/maven/doxia/siterenderer/resources/default-site.vm" );
+        siteContext.setTemplateProperties( properties );
+        siteContext.setSkinJarFile( new File( "skin.jar" ) );
+        siteContext.setLocale( Locale.ENGLISH );
+        siteContext.setDecoration( new DecorationModel() );
+        siteContext.addSiteDirectory( new File( "src/site" ) );
+        siteContext.setDefaultWindowTitle( "Cached" );
+
+        SiteRenderingContext changes = AbstractChangesReport.copySiteRenderingContext( siteContext, "Changes" );
+        SiteRenderingContext jira = AbstractChangesReport.copySiteRenderingContext( siteContext, "JIRA" );
+
+        assertEquals( "Changes", changes.getDefaultWindowTitle() );
+        assertEquals( "JIRA", jira.getDefaultWindowTitle() );
+        assertEquals( "Cached", siteContext.getDefaultWindowTitle() );
+
+        assertEquals( siteContext.getTemplateName(), changes.getTemplateName() );
+        assertEquals( siteContext.getSkinJarFile(), changes.getSkinJarFile() );
+        assertEquals( Locale.ENGLISH, changes.getLocale() );
+        assertSame( siteContext.getDecoration(), changes.getDecoration() );
+        assertEquals( siteContext.getSiteDirectories(), changes.getSiteDirectories() );
+        assertEquals( properties, changes.getTemplateProperties() );
+    }
+}
@@ -0,0 +1,74 @@
+package org.apache.maven.plugin.changes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * @version $Id$
+ */
+public class ChangesMojoTest
+    extends PlexusTestCase
+{
+    public void testGetSharedImagesPath()
+    {
+        File root = new File( getBasedir(), "target/work/app" );
+
+        assertEquals( "images/", ChangesMojo.getSharedImagesPath( root, root ) );
+        assertEquals( "../images/", ChangesMojo.getSharedImagesPath( root, new File( root, "module" ) ) );
+        assertEquals( "../../images/",
+                      ChangesMojo.getSharedImagesPath( root, new File( root, "modules/module" ) ) );
+    }
+
+    public void testGetSharedImagesPathForSibling()
+    {
+        File root = new File( getBasedir(), "target/work/app" );
+
+        assertNull( ChangesMojo.getSharedImagesPath( root, new File( getBasedir(), "target/work/app-ext" ) ) );
+        assertNull( ChangesMojo.getSharedImagesPath( root, new File( getBasedir(), "target/work" ) ) );
+    }
+
+    public void testCopyIfChanged()
+        throws IOException
+    {
+        File file = new File( getBasedir(), "target/test/copy-if-changed/images/image.gif" );
+        if ( file.exists() )
+        {
+            file.delete();
+        }
+
+        ChangesMojo.copyIfChanged( "first".getBytes( "UTF-8" ), file );
+        assertEquals( "first", FileUtils.fileRead( file ) );
+
+        // Unchanged content is not written again
+        long lastModified = ( file.lastModified() / 1000 - 60 ) * 1000;
+        file.setLastModified( lastModified );
+        ChangesMojo.copyIfChanged( "first".getBytes( "UTF-8" ), file );
+        assertEquals( lastModified, file.lastModified() );
+
+        // Content of the same length that differs is written
+        ChangesMojo.copyIfChanged( "other".getBytes( "UTF-8" ), file );
+        assertEquals( "other", FileUtils.fileRead( file ) );
+    }
+}
@@ -0,0 +1,75 @@
+package org.apache.maven.plugin.changes;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * @version $Id$
+ */
+public class ChangesReportGeneratorTest
+    extends TestCase
+{
+    private ChangesReportGenerator createGenerator( int releaseCount )
+    {
+        StringBuffer changes = new StringBuffer( "<document><body>" );
+        for ( int i = releaseCount; i > 0; i-- )
+        {
+            changes.append( "<release version=\"1." ).append( i ).append( "\" date=\"2008-01-01\"/>" );
+        }
+        changes.append( "</body></document>" );
+        return new ChangesReportGenerator( new ChangesXML( new StringReader( changes.toString() ), "changes.xml",
+                                                           new SystemStreamLog() ) );
+    }
+
+    public void testNoReleasePagesByDefault()
+    {
+        ChangesReportGenerator generator = createGenerator( 10 );
+
+        assertEquals( 0, generator.getReleasePageCount() );
+    }
+
+    public void testReleasePageCount()
+    {
+        ChangesReportGenerator generator = createGenerator( 10 );
+        generator.setReleasesPerPage( 3 );
+
+        assertEquals( 4, generator.getReleasePageCount() );
+
+        generator.setInlineReleases( 4 );
+
+        assertEquals( 2, generator.getReleasePageCount() );
+
+        generator.setInlineReleases( 20 );
+
+        assertEquals( 0, generator.getReleasePageCount() );
+    }
+
+    public void testReleasePageName()
+    {
+        ChangesReportGenerator generator = createGenerator( 2 );
+
+        assertEquals( "changes-report-2", generator.getReleasePageName( 2 ) );
+    }
+}
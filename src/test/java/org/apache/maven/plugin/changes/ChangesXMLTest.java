@@ -1,6 +1,7 @@
 package org.apache.maven.plugin.changes;
 
 import java.io.File;
+import java.io.StringReader;
 import java.util.Iterator;
 import java.util.List;
 
@@ -160,5 +161,20 @@ public class ChangesXMLTest
             }
         }
     }
-    
+
+    public void testParseChangesFromReader()
+        throws Exception
+    {
+        String changes = "<document><properties><title>Read from a reader</title></properties>"
+            + "<body><release version=\"1.0\" date=\"2008-01-01\"><action dev=\"olamy\" type=\"fix\">"
+            + "Fixed</action></release></body></document>";
+        ChangesXML changesXML = new ChangesXML( new StringReader( changes ), "changes.xml", new MockLog() );
+        assertNotNull( changesXML.getChangesDocument() );
+        assertEquals( "Read from a reader", changesXML.getTitle() );
+
+        List releases = changesXML.getReleaseList();
+        assertEquals( 1, releases.size() );
+        assertEquals( "1.0", ( (Release) releases.get( 0 ) ).getVersion() );
+    }
+
 }
@@ -0,0 +1,77 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class CsvRecordReaderTest
+    extends TestCase
+{
+    public void testReadRecord()
+        throws IOException
+    {
+        String csv = "id,summary\r\n1,\"Quotes \"\"and\"\", commas\"\n2,\"Two\r\nlines\"\r\n3,";
+        CsvRecordReader reader = new CsvRecordReader( new StringReader( csv ) );
+
+        assertEquals( Arrays.asList( new String[] { "id", "summary" } ), Arrays.asList( reader.readRecord() ) );
+        assertEquals( Arrays.asList( new String[] { "1", "Quotes \"and\", commas" } ),
+                      Arrays.asList( reader.readRecord() ) );
+        assertEquals( Arrays.asList( new String[] { "2", "Two\r\nlines" } ), Arrays.asList( reader.readRecord() ) );
+        assertEquals( Arrays.asList( new String[] { "3", "" } ), Arrays.asList( reader.readRecord() ) );
+        assertNull( reader.readRecord() );
+    }
+
+    public void testReadWrittenRecords()
+        throws IOException
+    {
+        String[] record = new String[] { "a,b", "\"quoted\"", "line\nbreak", "plain" };
+        StringWriter out = new StringWriter();
+        CsvRecordWriter writer = new CsvRecordWriter( out, new String[] { "1", "2", "3", "4" } );
+        writer.writeRecord( record );
+        writer.close();
+
+        CsvRecordReader reader = new CsvRecordReader( new StringReader( out.toString() ) );
+        reader.readRecord();
+        assertEquals( Arrays.asList( record ), Arrays.asList( reader.readRecord() ) );
+        assertNull( reader.readRecord() );
+    }
+
+    public void testUnterminatedQuote()
+    {
+        CsvRecordReader reader = new CsvRecordReader( new StringReader( "1,\"open" ) );
+        try
+        {
+            reader.readRecord();
+            fail( "Expected an IOException" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.apache.maven.plugin.export;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.jira.JiraIssue;
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * @version $Id$
+ */
+public class RecordExporterTest
+    extends PlexusTestCase
+{
+    public void testExport()
+        throws Exception
+    {
+        File directory = new File( getBasedir(), "target/export-test" );
+        RecordExporter exporter =
+            new RecordExporter( directory, "report", RecordExporter.parseFormats( "CSV, ndjson" ), new String[] {
+                "key", "summary", "fixVersion" } );
+        try
+        {
+            exporter.write( new String[] { "A-1", "Plain", "1.0" } );
+            exporter.write( new String[] { "A-2", "Say \"hi\", then\nleave", null } );
+        }
+        finally
+        {
+            exporter.close();
+        }
+
+        assertEquals( 2, exporter.getRecordCount() );
+        assertEquals( "key,summary,fixVersion\r\nA-1,Plain,1.0\r\nA-2,\"Say \"\"hi\"\", then\nleave\",\r\n",
+                      FileUtils.fileRead( new File( directory, "report.csv" ), "UTF-8" ) );
+        assertEquals( "{\"key\":\"A-1\",\"summary\":\"Plain\",\"fixVersion\":\"1.0\"}\n"
+            + "{\"key\":\"A-2\",\"summary\":\"Say \\\"hi\\\", then\\u000aleave\"}\n",
+                      FileUtils.fileRead( new File( directory, "report.ndjson" ), "UTF-8" ) );
+    }
+
+    public void testParseFormats()
+    {
+        assertEquals( Arrays.asList( new String[] { "ndjson", "csv" } ),
+                      RecordExporter.parseFormats( "ndjson,,csv, NDJSON" ) );
+        assertTrue( RecordExporter.parseFormats( null ).isEmpty() );
+        try
+        {
+            RecordExporter.parseFormats( "csv,xml" );
+            fail( "xml should not be supported" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().indexOf( "'xml'" ) != -1 );
+        }
+    }
+
+    public void testJiraIssueRecord()
+    {
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( "MCHANGES-1" );
+        issue.setFixVersion( "2.0" );
+
+        List record = Arrays.asList( Records.getRecord( issue ) );
+        assertEquals( Records.JIRA_ISSUE_COLUMNS.length, record.size() );
+        assertEquals( "MCHANGES-1", record.get( 0 ) );
+        assertEquals( "2.0", record.get( Arrays.asList( Records.JIRA_ISSUE_COLUMNS ).indexOf( "fixVersion" ) ) );
+    }
+}
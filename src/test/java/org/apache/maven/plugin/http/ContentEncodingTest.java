@@ -0,0 +1,61 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * @version $Id$
+ */
+public class ContentEncodingTest
+    extends TestCase
+{
+    private static final String XML = "<?xml version=\"1.0\"?><rss/>";
+
+    public void testDecompressGzipped()
+        throws IOException
+    {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream( compressed );
+        out.write( XML.getBytes( "UTF-8" ) );
+        out.close();
+
+        InputStream in = ContentEncoding.decompressIfGzipped( new ByteArrayInputStream( compressed.toByteArray() ) );
+        assertEquals( XML, IOUtil.toString( in, "UTF-8" ) );
+    }
+
+    public void testDecompressPlain()
+        throws IOException
+    {
+        InputStream in = ContentEncoding.decompressIfGzipped( new ByteArrayInputStream( XML.getBytes( "UTF-8" ) ) );
+        assertEquals( XML, IOUtil.toString( in, "UTF-8" ) );
+
+        in = ContentEncoding.decompressIfGzipped( new ByteArrayInputStream( new byte[0] ) );
+        assertEquals( -1, in.read() );
+    }
+}
@@ -0,0 +1,124 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+
+import org.apache.commons.httpclient.Cookie;
+import org.apache.commons.httpclient.HttpState;
+import org.codehaus.plexus.PlexusTestCase;
+
+/**
+ * @version $Id$
+ */
+public class CookieStoreTest
+    extends PlexusTestCase
+{
+    private CookieStore store;
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        store = new CookieStore( new File( getBasedir(), "target/test-classes/sessions/jira.session" ) );
+        store.delete();
+    }
+
+    public void testSaveAndLoad()
+        throws IOException
+    {
+        HttpState state = new HttpState();
+        Cookie session = new Cookie( "jira.example.org", "JSESSIONID", "ABC=123", "/", null, false );
+        session.setPathAttributeSpecified( true );
+        state.addCookie( session );
+        state.addCookie( new Cookie( "jira.example.org", "seraph.rememberme", "xyz", "/jira",
+                                     new Date( System.currentTimeMillis() + 60000 ), true ) );
+        store.save( state );
+
+        HttpState loaded = new HttpState();
+        assertTrue( store.load( loaded ) );
+
+        Cookie[] cookies = loaded.getCookies();
+        assertEquals( 2, cookies.length );
+        Cookie cookie = findCookie( cookies, "JSESSIONID" );
+        assertEquals( "ABC=123", cookie.getValue() );
+        assertEquals( "jira.example.org", cookie.getDomain() );
+        assertEquals( "/", cookie.getPath() );
+        assertNull( cookie.getExpiryDate() );
+        assertTrue( cookie.isPathAttributeSpecified() );
+        cookie = findCookie( cookies, "seraph.rememberme" );
+        assertTrue( cookie.getSecure() );
+        assertNotNull( cookie.getExpiryDate() );
+    }
+
+    public void testExpiredCookiesAreNotLoaded()
+        throws IOException
+    {
+        HttpState state = new HttpState();
+        state.addCookie( new Cookie( "jira.example.org", "JSESSIONID", "ABC", "/",
+                                     new Date( System.currentTimeMillis() - 1000 ), false ) );
+        store.save( state );
+        assertFalse( store.load( new HttpState() ) );
+    }
+
+    public void testSaveReplacesStoredCookies()
+        throws IOException
+    {
+        HttpState state = new HttpState();
+        state.addCookie( new Cookie( "jira.example.org", "JSESSIONID", "old", "/", null, false ) );
+        store.save( state );
+
+        state = new HttpState();
+        state.addCookie( new Cookie( "jira.example.org", "JSESSIONID", "new", "/", null, false ) );
+        store.save( state );
+
+        HttpState loaded = new HttpState();
+        assertTrue( store.load( loaded ) );
+        assertEquals( 1, loaded.getCookies().length );
+        assertEquals( "new", loaded.getCookies()[0].getValue() );
+
+        String[] names = store.getFile().getParentFile().list();
+        for ( int i = 0; i < names.length; i++ )
+        {
+            assertFalse( "Partial file left behind: " + names[i], names[i].endsWith( ".part" ) );
+        }
+    }
+
+    public void testLoadWithoutFile()
+        throws IOException
+    {
+        assertFalse( store.load( new HttpState() ) );
+    }
+
+    private static Cookie findCookie( Cookie[] cookies, String name )
+    {
+        for ( int i = 0; i < cookies.length; i++ )
+        {
+            if ( cookies[i].getName().equals( name ) )
+            {
+                return cookies[i];
+            }
+        }
+        fail( "No cookie named " + name );
+        return null;
+    }
+}
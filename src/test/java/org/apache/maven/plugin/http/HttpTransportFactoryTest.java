@@ -0,0 +1,100 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Date;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * @version $Id$
+ */
+public class HttpTransportFactoryTest
+    extends TestCase
+{
+    public void testCreateTransport()
+    {
+        HttpTransport transport = HttpTransportFactory.createTransport( HttpTransportFactory.SIMPLE );
+        assertFalse( transport instanceof PooledHttpTransport );
+        transport.close();
+
+        transport = HttpTransportFactory.createTransport( HttpTransportFactory.POOLED );
+        assertTrue( transport instanceof PooledHttpTransport );
+        transport.close();
+
+        transport = HttpTransportFactory.createTransport( null );
+        assertTrue( transport instanceof PooledHttpTransport );
+        transport.close();
+    }
+
+    public void testCreateTransportWithMaxConnections()
+    {
+        PooledHttpTransport transport =
+            (PooledHttpTransport) HttpTransportFactory.createTransport( HttpTransportFactory.POOLED, 8 );
+        assertEquals( 8, transport.getMaxConnectionsPerHost() );
+        transport.close();
+
+        transport = (PooledHttpTransport) HttpTransportFactory.createTransport( null );
+        assertEquals( PooledHttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, transport.getMaxConnectionsPerHost() );
+        transport.close();
+    }
+
+    public void testCreateUnknownTransport()
+    {
+        try
+        {
+            HttpTransportFactory.createTransport( "carrier-pigeon" );
+            fail( "An unknown transport should not be created" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            assertTrue( e.getMessage().indexOf( "carrier-pigeon" ) != -1 );
+        }
+    }
+
+    public void testCircuitBreakerPerHost()
+    {
+        Date buildStartTime = new Date();
+        CircuitBreaker first = getCircuitBreaker( "http://jira.example.org/browse/FIRST", false, buildStartTime );
+        CircuitBreaker second = getCircuitBreaker( "http://jira.example.org/browse/SECOND", false, buildStartTime );
+        assertSame( first, second );
+        assertEquals( "jira.example.org", first.getName() );
+    }
+
+    public void testCircuitBreakerPerUrl()
+    {
+        Date buildStartTime = new Date();
+        CircuitBreaker first = getCircuitBreaker( "http://jira.example.org/browse/FIRST", true, buildStartTime );
+        CircuitBreaker second = getCircuitBreaker( "http://jira.example.org/browse/SECOND", true, buildStartTime );
+        assertNotSame( first, second );
+        assertSame( first, getCircuitBreaker( "http://jira.example.org/browse/FIRST", true, buildStartTime ) );
+    }
+
+    private CircuitBreaker getCircuitBreaker( String url, boolean ownBreaker, Date buildStartTime )
+    {
+        HttpTransport transport = HttpTransportFactory.createTransport( HttpTransportFactory.SIMPLE );
+        RetryingHttpTransport retryingTransport = (RetryingHttpTransport) HttpTransportFactory
+            .createRetryingTransport( transport, url, ownBreaker, 0, buildStartTime, new SystemStreamLog() );
+        retryingTransport.close();
+        return retryingTransport.getCircuitBreaker();
+    }
+}
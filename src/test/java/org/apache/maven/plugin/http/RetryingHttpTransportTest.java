@@ -0,0 +1,257 @@
+package org.apache.maven.plugin.http;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
+import org.apache.commons.httpclient.methods.GetMethod;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * @version $Id$
+ */
+public class RetryingHttpTransportTest
+    extends TestCase
+{
+    /**
+     * Answers with the statuses it is given, where -1 means an I/O error.
+     */
+    private static class ScriptedTransport
+        implements HttpTransport
+    {
+        private final int[] statuses;
+
+        private int requests;
+
+        ScriptedTransport( int[] statuses )
+        {
+            this.statuses = statuses;
+        }
+
+        public int executeMethod( HttpMethod method )
+            throws IOException
+        {
+            int status = statuses[Math.min( requests++, statuses.length - 1 )];
+            if ( status == -1 )
+            {
+                throw new IOException( "Connection reset" );
+            }
+            return status;
+        }
+
+        public HttpState getState()
+        {
+            return null;
+        }
+
+        public void setProxy( String host, int port, String user, String password )
+        {
+        }
+
+        public void setBasicCredentials( String user, String password )
+        {
+        }
+
+        public void setTimeouts( int connectionTimeout, int socketTimeout )
+        {
+        }
+
+        public boolean isAvailable()
+        {
+            return true;
+        }
+
+        public void close()
+        {
+        }
+    }
+
+    private List delays;
+
+    private RetryingHttpTransport createTransport( ScriptedTransport scripted, CircuitBreaker breaker )
+    {
+        return new RetryingHttpTransport( scripted, breaker, new SystemStreamLog() )
+        {
+            protected void sleep( long delay )
+            {
+                delays.add( new Long( delay ) );
+            }
+        };
+    }
+
+    protected void setUp()
+        throws Exception
+    {
+        super.setUp();
+        delays = new ArrayList();
+    }
+
+    public void testRetryTransientFailures()
+        throws IOException
+    {
+        ScriptedTransport scripted = new ScriptedTransport( new int[] { 503, -1, 200 } );
+        CircuitBreaker breaker = new CircuitBreaker( "jira" );
+        RetryingHttpTransport transport = createTransport( scripted, breaker );
+
+        assertEquals( 200, transport.executeMethod( new GetMethod( "http://jira.example.org/" ) ) );
+        assertEquals( 3, scripted.requests );
+        assertEquals( 2, delays.size() );
+        assertFalse( breaker.isOpen() );
+    }
+
+    public void testHttpClientDoesNotRetry()
+        throws IOException, InterruptedException
+    {
+        final ServerSocket server = new ServerSocket( 0 );
+        final int[] connections = new int[1];
+        Thread acceptor = new Thread()
+        {
+            public void run()
+            {
+                try
+                {
+                    while ( true )
+                    {
+                        Socket socket = server.accept();
+                        synchronized ( connections )
+                        {
+                            connections[0]++;
+                        }
+                        // Close without answering, which HttpClient retries by default
+                        socket.close();
+                    }
+                }
+                catch ( IOException e )
+                {
+                    // The server socket was closed
+                }
+            }
+        };
+        acceptor.start();
+
+        HttpTransport commons = HttpTransportFactory.createTransport( HttpTransportFactory.SIMPLE );
+        RetryingHttpTransport transport = new RetryingHttpTransport( commons, new CircuitBreaker( "local" ),
+                                                                     new SystemStreamLog() );
+        transport.setMaxRetries( 0 );
+        GetMethod method = new GetMethod( "http://localhost:" + server.getLocalPort() + "/" );
+        try
+        {
+            transport.executeMethod( method );
+            fail( "The request should fail" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+        finally
+        {
+            method.releaseConnection();
+            transport.close();
+            server.close();
+            acceptor.join();
+        }
+
+        synchronized ( connections )
+        {
+            assertEquals( 1, connections[0] );
+        }
+    }
+
+    public void testDoNotRetryOtherFailures()
+        throws IOException
+    {
+        ScriptedTransport scripted = new ScriptedTransport( new int[] { 404 } );
+        RetryingHttpTransport transport = createTransport( scripted, new CircuitBreaker( "jira" ) );
+
+        assertEquals( 404, transport.executeMethod( new GetMethod( "http://jira.example.org/" ) ) );
+        assertEquals( 1, scripted.requests );
+        assertEquals( 0, delays.size() );
+    }
+
+    public void testCircuitBreakerOpens()
+        throws IOException
+    {
+        ScriptedTransport scripted = new ScriptedTransport( new int[] { 503 } );
+        CircuitBreaker breaker = new CircuitBreaker( "jira" );
+        breaker.setFailureThreshold( 2 );
+        RetryingHttpTransport transport = createTransport( scripted, breaker );
+        transport.setMaxRetries( 1 );
+
+        assertEquals( 503, transport.executeMethod( new GetMethod( "http://jira.example.org/" ) ) );
+        assertTrue( transport.isAvailable() );
+        assertEquals( 503, transport.executeMethod( new GetMethod( "http://jira.example.org/" ) ) );
+        assertFalse( transport.isAvailable() );
+        assertEquals( 4, scripted.requests );
+
+        try
+        {
+            transport.executeMethod( new GetMethod( "http://jira.example.org/" ) );
+            fail( "An open circuit breaker should not let requests through" );
+        }
+        catch ( CircuitBreakerOpenException e )
+        {
+            assertEquals( 4, scripted.requests );
+        }
+    }
+
+    public void testBackoffDelay()
+    {
+        for ( int attempt = 0; attempt < 5; attempt++ )
+        {
+            long delay = RetryingHttpTransport.getBackoffDelay( attempt );
+            long maxDelay = 1000L << attempt;
+            assertTrue( delay >= maxDelay / 2 );
+            assertTrue( delay <= maxDelay );
+        }
+        assertTrue( RetryingHttpTransport.getBackoffDelay( 100 ) <= 60000 );
+    }
+
+    public void testRetryAfterDelay()
+    {
+        GetMethod method = new GetMethod( "http://jira.example.org/" )
+        {
+            public Header getResponseHeader( String name )
+            {
+                return "Retry-After".equals( name ) ? new Header( name, "7" ) : null;
+            }
+        };
+        assertEquals( 7000, RetryingHttpTransport.getRetryAfterDelay( method ) );
+        assertEquals( -1, RetryingHttpTransport.getRetryAfterDelay( new GetMethod( "http://jira.example.org/" ) ) );
+    }
+
+    public void testCircuitBreakersAreSharedWithinABuild()
+    {
+        Date build = new Date();
+        CircuitBreaker breaker = CircuitBreaker.getCircuitBreaker( "jira.example.org", build );
+        assertSame( breaker, CircuitBreaker.getCircuitBreaker( "jira.example.org", build ) );
+        Date nextBuild = new Date( build.getTime() + 1 );
+        assertNotSame( breaker, CircuitBreaker.getCircuitBreaker( "jira.example.org", nextBuild ) );
+    }
+}
@@ -0,0 +1,160 @@
+package org.apache.maven.plugin.issues;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * @version $Id$
+ */
+public class ReleasesFutureTest
+    extends TestCase
+{
+    private static IssueTrackerSource createSource( final String name, final List releases, final long delay )
+    {
+        return new IssueTrackerSource()
+        {
+            public String getName()
+            {
+                return name;
+            }
+
+            public List getReleases()
+                throws MojoExecutionException
+            {
+                try
+                {
+                    Thread.sleep( delay );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new MojoExecutionException( "Interrupted" );
+                }
+                if ( releases == null )
+                {
+                    throw new MojoExecutionException( name + " failed" );
+                }
+                return releases;
+            }
+        };
+    }
+
+    public void testSourcesAreFetchedConcurrently()
+        throws Exception
+    {
+        List first = Collections.singletonList( "first" );
+        List second = Collections.singletonList( "second" );
+
+        long startTime = System.currentTimeMillis();
+        List futures = new ArrayList();
+        futures.add( ReleasesFuture.fetch( createSource( "slow", first, 500 ) ) );
+        futures.add( ReleasesFuture.fetch( createSource( "also-slow", second, 500 ) ) );
+        List releaseLists = ReleasesFuture.getAll( futures );
+        long duration = System.currentTimeMillis() - startTime;
+
+        assertEquals( 2, releaseLists.size() );
+        assertSame( first, releaseLists.get( 0 ) );
+        assertSame( second, releaseLists.get( 1 ) );
+        assertTrue( "The sources took " + duration + " ms", duration < 900 );
+    }
+
+    public void testFailureIsRethrownAfterAllSourcesFinished()
+    {
+        List futures = new ArrayList();
+        futures.add( ReleasesFuture.fetch( createSource( "broken", null, 0 ) ) );
+        ReleasesFuture slow = ReleasesFuture.fetch( createSource( "slow", Collections.EMPTY_LIST, 200 ) );
+        futures.add( slow );
+
+        try
+        {
+            ReleasesFuture.getAll( futures );
+            fail( "The failure of a source should be rethrown" );
+        }
+        catch ( MojoExecutionException e )
+        {
+            assertEquals( "broken failed", e.getMessage() );
+        }
+        assertEquals( "slow", slow.getSource().getName() );
+    }
+
+    public void testRuntimeExceptionIsRethrownAfterAllSourcesFinished()
+        throws Exception
+    {
+        final boolean[] finished = new boolean[1];
+        List futures = new ArrayList();
+        futures.add( ReleasesFuture.fetch( new IssueTrackerSource()
+        {
+            public String getName()
+            {
+                return "crashing";
+            }
+
+            public List getReleases()
+            {
+                throw new IllegalStateException( "crashing failed" );
+            }
+        } ) );
+        futures.add( ReleasesFuture.fetch( new IssueTrackerSource()
+        {
+            public String getName()
+            {
+                return "slow";
+            }
+
+            public List getReleases()
+                throws MojoExecutionException
+            {
+                try
+                {
+                    Thread.sleep( 200 );
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new MojoExecutionException( "Interrupted" );
+                }
+                synchronized ( finished )
+                {
+                    finished[0] = true;
+                }
+                return Collections.EMPTY_LIST;
+            }
+        } ) );
+
+        try
+        {
+            ReleasesFuture.getAll( futures );
+            fail( "The failure of a source should be rethrown" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertEquals( "crashing failed", e.getMessage() );
+        }
+        synchronized ( finished )
+        {
+            assertTrue( "The other source should have finished", finished[0] );
+        }
+    }
+}
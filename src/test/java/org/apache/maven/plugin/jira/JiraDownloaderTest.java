@@ -0,0 +1,60 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * @version $Id$
+ */
+public class JiraDownloaderTest
+    extends TestCase
+{
+    public void testGetIssuesUrlWithFields()
+    {
+        JiraDownloader downloader = new JiraDownloader();
+        downloader.setLog( new SystemStreamLog() );
+        downloader.setSortColumnNames( "Key" );
+        downloader.setNbEntries( 100 );
+        downloader.setFields( new HashSet( Arrays.asList( new String[] { "key", "summary", "type", "fixVersion",
+            "version", "component", "comment" } ) ) );
+
+        String url = downloader.getIssuesUrl( null, "http://jira.example.org", "10000" ) + "&";
+
+        assertTrue( url, url.startsWith( "http://jira.example.org/secure/IssueNavigator.jspa?view=rss&pid=10000&" ) );
+        assertTrue( url, url.indexOf( "&field=issuetype&" ) != -1 );
+        assertTrue( url, url.indexOf( "&field=fixVersions&" ) != -1 );
+        assertTrue( url, url.indexOf( "&field=versions&" ) != -1 );
+        assertTrue( url, url.indexOf( "&field=components&" ) != -1 );
+        assertTrue( url, url.indexOf( "&field=comments&" ) != -1 );
+        assertTrue( url, url.indexOf( "&field=summary&" ) != -1 );
+        assertTrue( url, url.indexOf( "&field=key&" ) != -1 );
+        assertEquals( url, -1, url.indexOf( "&field=type&" ) );
+        assertEquals( url, -1, url.indexOf( "&field=fixVersion&" ) );
+        assertEquals( url, -1, url.indexOf( "&field=version&" ) );
+        assertEquals( url, -1, url.indexOf( "&field=component&" ) );
+        assertEquals( url, -1, url.indexOf( "fixfor" ) );
+    }
+}
@@ -0,0 +1,67 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class JiraHelperTest
+    extends TestCase
+{
+    private static final String VERSIONS = "[{\"self\":\"http://jira/rest/api/2/version/10010\",\"id\":\"10010\","
+        + "\"name\":\"2.0\",\"archived\":false,\"released\":true},"
+        + "{\"self\":\"http://jira/rest/api/2/version/10011\",\"id\":\"10011\",\"description\":\"Next\","
+        + "\"name\":\"2.0.1\",\"archived\":false,\"released\":false}]";
+
+    public void testGetVersionId()
+    {
+        assertEquals( "10010", JiraHelper.getVersionId( VERSIONS, "2.0" ) );
+        assertEquals( "10011", JiraHelper.getVersionId( VERSIONS, "2.0.1" ) );
+    }
+
+    public void testGetVersionIdWithBracesInDescription()
+    {
+        String versions = "[{\"id\":\"10020\",\"description\":\"Fixes {curly} and \\\"quoted\\\" } braces\","
+            + "\"name\":\"3.0\",\"released\":true},"
+            + "{\"description\":\"Unbalanced { brace\",\"name\":\"3.1\",\"id\":\"10021\"},"
+            + "{\"id\":\"10022\",\"name\":\"3.2\",\"owner\":{\"name\":\"3.1\",\"id\":\"99\"}}]";
+
+        assertEquals( "10020", JiraHelper.getVersionId( versions, "3.0" ) );
+        assertEquals( "10021", JiraHelper.getVersionId( versions, "3.1" ) );
+        assertEquals( "10022", JiraHelper.getVersionId( versions, "3.2" ) );
+    }
+
+    public void testGetVersionIdWithEscapedName()
+    {
+        String versions = "[{\"id\":\"10030\",\"name\":\"4.0 \\\"final\\\" \\\\E\"},"
+            + "{\"id\":\"10031\",\"name\":\"4.1\\u00e9\"}]";
+
+        assertEquals( "10030", JiraHelper.getVersionId( versions, "4.0 \"final\" \\E" ) );
+        assertEquals( "10031", JiraHelper.getVersionId( versions, "4.1\u00e9" ) );
+    }
+
+    public void testGetUnknownVersionId()
+    {
+        assertNull( JiraHelper.getVersionId( VERSIONS, "2.1" ) );
+        assertNull( JiraHelper.getVersionId( VERSIONS, "2.0.*" ) );
+    }
+}
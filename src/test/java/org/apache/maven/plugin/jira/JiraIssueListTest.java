@@ -0,0 +1,90 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class JiraIssueListTest
+    extends TestCase
+{
+    private JiraIssue createIssue( int number )
+    {
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( "MCHANGES-" + number );
+        issue.setSummary( "Summary " + number );
+        issue.setStatus( new String( "Closed" ) );
+        issue.setFixVersion( number % 2 == 0 ? "2.0" : "2.1" );
+        if ( number % 10 == 0 )
+        {
+            issue.addComment( "Comment " + number );
+        }
+        return issue;
+    }
+
+    public void testAddAndGet()
+    {
+        JiraIssueList issues = new JiraIssueList();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            issues.add( createIssue( i ) );
+        }
+
+        assertEquals( 1000, issues.size() );
+
+        JiraIssue issue = (JiraIssue) issues.get( 510 );
+        assertEquals( "MCHANGES-510", issue.getKey() );
+        assertEquals( "Summary 510", issue.getSummary() );
+        assertEquals( "Closed", issue.getStatus() );
+        assertEquals( "2.0", issue.getFixVersion() );
+        assertNull( issue.getAssignee() );
+        assertEquals( 1, issue.getComments().size() );
+        assertEquals( "Comment 510", issue.getComments().get( 0 ) );
+
+        assertNull( ( (JiraIssue) issues.get( 511 ) ).getComments() );
+    }
+
+    public void testValuesAreShared()
+    {
+        JiraIssueList issues = new JiraIssueList();
+        issues.add( createIssue( 1 ) );
+        issues.add( createIssue( 2 ) );
+
+        assertSame( ( (JiraIssue) issues.get( 0 ) ).getStatus(), ( (JiraIssue) issues.get( 1 ) ).getStatus() );
+    }
+
+    public void testInsertIsNotSupported()
+    {
+        JiraIssueList issues = new JiraIssueList();
+        issues.add( createIssue( 1 ) );
+
+        try
+        {
+            issues.add( 0, createIssue( 2 ) );
+            fail( "Expected an UnsupportedOperationException" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.PlexusTestCase;
+
+/**
+ * @version $Id$
+ */
+public class JiraIssueSorterTest
+    extends PlexusTestCase
+{
+    private static JiraIssue createIssue( int number, String summary )
+    {
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( "MCHANGES-" + number );
+        issue.setSummary( summary );
+        if ( number % 10 == 0 )
+        {
+            issue.addComment( "Comment on " + number );
+        }
+        return issue;
+    }
+
+    private JiraIssueSorter createSorter( long memoryLimit, File tempDirectory )
+    {
+        Comparator comparator =
+            JiraSortOrder.parse( "Summary, Key DESC", new SystemStreamLog() ).getComparator( new SystemStreamLog() );
+        return new JiraIssueSorter( comparator, memoryLimit, tempDirectory );
+    }
+
+    public void testSortInRuns()
+    {
+        File tempDirectory = new File( getBasedir(), "target/jira-sort" );
+        JiraIssueSorter sorter = createSorter( 2000, tempDirectory );
+        try
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                sorter.add( createIssue( i, i % 2 == 0 ? "even" : "odd" ) );
+            }
+            assertTrue( sorter.getRunCount() > 1 );
+            assertEquals( 100, sorter.size() );
+
+            // Iterate twice, to show that the runs can be read again
+            for ( int pass = 0; pass < 2; pass++ )
+            {
+                Iterator iterator = sorter.iterator();
+                for ( int i = 98; i >= 0; i -= 2 )
+                {
+                    JiraIssue issue = (JiraIssue) iterator.next();
+                    assertEquals( "MCHANGES-" + i, issue.getKey() );
+                    assertEquals( "even", issue.getSummary() );
+                    assertEquals( i % 10 == 0 ? 1 : 0, issue.getComments() == null ? 0 : issue.getComments().size() );
+                }
+                for ( int i = 99; i >= 1; i -= 2 )
+                {
+                    assertEquals( "MCHANGES-" + i, ( (JiraIssue) iterator.next() ).getKey() );
+                }
+                assertFalse( iterator.hasNext() );
+            }
+        }
+        finally
+        {
+            sorter.close();
+        }
+        assertEquals( 0, tempDirectory.list().length );
+    }
+
+    public void testSortIsStable()
+    {
+        Comparator comparator =
+            JiraSortOrder.parse( "Summary", new SystemStreamLog() ).getComparator( new SystemStreamLog() );
+        JiraIssueSorter sorter = new JiraIssueSorter( comparator, 1000, null );
+        try
+        {
+            for ( int i = 0; i < 50; i++ )
+            {
+                sorter.add( createIssue( i, "same" ) );
+            }
+
+            Iterator iterator = sorter.iterator();
+            for ( int i = 0; i < 50; i++ )
+            {
+                assertEquals( "MCHANGES-" + i, ( (JiraIssue) iterator.next() ).getKey() );
+            }
+        }
+        finally
+        {
+            sorter.close();
+        }
+    }
+
+    public void testMergeManyRuns()
+    {
+        File tempDirectory = new File( getBasedir(), "target/jira-sort-many" );
+        Comparator comparator =
+            JiraSortOrder.parse( "Summary", new SystemStreamLog() ).getComparator( new SystemStreamLog() );
+        JiraIssueSorter sorter = new JiraIssueSorter( comparator, 300, tempDirectory );
+        try
+        {
+            for ( int i = 0; i < 200; i++ )
+            {
+                sorter.add( createIssue( i, i % 3 == 0 ? "a" : "b" ) );
+            }
+            assertTrue( sorter.getRunCount() > 2 * JiraIssueSorter.MAX_MERGE_RUNS );
+
+            Iterator iterator = sorter.iterator();
+            assertTrue( sorter.getRunCount() < JiraIssueSorter.MAX_MERGE_RUNS );
+            assertEquals( sorter.getRunCount(), tempDirectory.list().length );
+
+            // Issues that compare equal keep the order they were added in
+            for ( int i = 0; i < 200; i += 3 )
+            {
+                assertEquals( "MCHANGES-" + i, ( (JiraIssue) iterator.next() ).getKey() );
+            }
+            for ( int i = 0; i < 200; i++ )
+            {
+                if ( i % 3 != 0 )
+                {
+                    JiraIssue issue = (JiraIssue) iterator.next();
+                    assertEquals( "MCHANGES-" + i, issue.getKey() );
+                    assertEquals( i % 10 == 0 ? 1 : 0, issue.getComments() == null ? 0 : issue.getComments().size() );
+                }
+            }
+            assertFalse( iterator.hasNext() );
+        }
+        finally
+        {
+            sorter.close();
+        }
+        assertEquals( 0, tempDirectory.list().length );
+    }
+
+    public void testWriteFailure()
+        throws IOException
+    {
+        File notADirectory = new File( getBasedir(), "target/jira-sort-file" );
+        notADirectory.getParentFile().mkdirs();
+        notADirectory.createNewFile();
+
+        JiraIssueSorter sorter = createSorter( 1000, notADirectory );
+        try
+        {
+            for ( int i = 0; i < 50; i++ )
+            {
+                sorter.add( createIssue( i, "issue" ) );
+            }
+            assertNotNull( sorter.getFailure() );
+            assertFalse( sorter.add( createIssue( 50, "issue" ) ) );
+
+            try
+            {
+                sorter.iterator();
+                fail( "The issues should not be read when they could not all be sorted" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // expected
+            }
+        }
+        finally
+        {
+            sorter.close();
+        }
+    }
+
+    public void testAddAfterIterating()
+    {
+        JiraIssueSorter sorter = createSorter( 1000000, null );
+        sorter.add( createIssue( 1, "first" ) );
+        sorter.iterator();
+        try
+        {
+            sorter.add( createIssue( 2, "second" ) );
+            fail( "Issues should not be added after iterating" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.HttpState;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.http.HttpTransport;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.ReflectionUtils;
+
+/**
+ * @version $Id$
+ */
+public class JiraMojoTest
+    extends TestCase
+{
+    /**
+     * Records the URIs of the requests and fails them.
+     */
+    private static class RecordingTransport
+        implements HttpTransport
+    {
+        private final List uris = new ArrayList();
+
+        public int executeMethod( HttpMethod method )
+            throws IOException
+        {
+            uris.add( method.getURI().toString() );
+            throw new IOException( "Not connected" );
+        }
+
+        public HttpState getState()
+        {
+            return new HttpState();
+        }
+
+        public void setProxy( String host, int port, String user, String password )
+        {
+        }
+
+        public void setBasicCredentials( String user, String password )
+        {
+        }
+
+        public void setTimeouts( int connectionTimeout, int socketTimeout )
+        {
+        }
+
+        public boolean isAvailable()
+        {
+            return true;
+        }
+
+        public void close()
+        {
+        }
+    }
+
+    private JiraMojo createMojo()
+        throws IllegalAccessException
+    {
+        Model model = new Model();
+        model.setVersion( "1.1-SNAPSHOT" );
+
+        JiraMojo mojo = new JiraMojo();
+        ReflectionUtils.setVariableValueInObject( mojo, "project", new MavenProject( model ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "columnNames", "Key,Summary,Fix Version" );
+        ReflectionUtils.setVariableValueInObject( mojo, "sortColumnNames", "Key" );
+        ReflectionUtils.setVariableValueInObject( mojo, "maxEntries", new Integer( 100 ) );
+        ReflectionUtils.setVariableValueInObject( mojo, "onlyCurrentVersion", Boolean.TRUE );
+        return mojo;
+    }
+
+    public void testOnlyCurrentVersion()
+        throws Exception
+    {
+        JiraDownloader downloader = new JiraDownloader();
+        createMojo().setJiraDownloaderParameters( downloader );
+
+        RecordingTransport transport = new RecordingTransport();
+        downloader.getIssuesUrl( transport, "http://jira.example.org", "10000" );
+
+        // The current version is looked up
+        assertEquals( 1, transport.uris.size() );
+    }
+
+    public void testOnlyCurrentVersionIgnoredForVersions()
+        throws Exception
+    {
+        JiraMojo mojo = createMojo();
+        ReflectionUtils.setVariableValueInObject( mojo, "versions", Collections.singletonList( "1.0" ) );
+        JiraDownloader downloader = new JiraDownloader();
+        mojo.setJiraDownloaderParameters( downloader );
+
+        RecordingTransport transport = new RecordingTransport();
+        String url = downloader.getIssuesUrl( transport, "http://jira.example.org", "10000" );
+
+        assertEquals( Collections.EMPTY_LIST, transport.uris );
+        assertEquals( url, -1, url.indexOf( "fixfor" ) );
+    }
+}
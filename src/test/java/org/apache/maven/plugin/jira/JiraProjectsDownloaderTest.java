@@ -0,0 +1,148 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.plugin.metrics.ExecutionMetrics;
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * @version $Id$
+ */
+public class JiraProjectsDownloaderTest
+    extends PlexusTestCase
+{
+    /**
+     * A downloader that copies a file instead of downloading it.
+     */
+    private static class CopyingDownloader
+        extends AbstractJiraDownloader
+    {
+        private final File source;
+
+        private CopyingDownloader( File source, File output )
+        {
+            this.source = source;
+            setOutput( output );
+        }
+
+        public void doExecute()
+            throws IOException
+        {
+            if ( source != null )
+            {
+                FileUtils.copyFile( source, getOutput() );
+            }
+        }
+    }
+
+    private static JiraIssue createIssue( String key )
+    {
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( key );
+        return issue;
+    }
+
+    public void testDownload()
+    {
+        File jiraXml = new File( getBasedir(), "src/test/unit/jira-results.xml" );
+        File output = new File( getBasedir(), "target/jira-projects/jira-results.xml" );
+        for ( int i = 0; i < 3; i++ )
+        {
+            JiraProjectsDownloader.getOutput( output, i ).delete();
+        }
+
+        ExecutionMetrics metrics = new ExecutionMetrics( "jira-report", null );
+        JiraProjectsDownloader downloader = new JiraProjectsDownloader( 2, new SystemStreamLog() );
+        downloader.setMetrics( metrics );
+        downloader.addDownloader( new CopyingDownloader( jiraXml, JiraProjectsDownloader.getOutput( output, 0 ) ) );
+        downloader.addDownloader( new CopyingDownloader( null, JiraProjectsDownloader.getOutput( output, 1 ) ) );
+        downloader.addDownloader( new CopyingDownloader( jiraXml, JiraProjectsDownloader.getOutput( output, 2 ) ) );
+
+        List issues = downloader.download( JiraXML.RELEASE_FIELDS );
+
+        assertEquals( 2, issues.size() );
+        assertEquals( "MCHANGES-2", ( (JiraIssue) issues.get( 0 ) ).getKey() );
+        assertTrue( metrics.getPhaseDuration( "parse" ) >= 0 );
+    }
+
+    public void testDownloadIntoCollection()
+    {
+        File jiraXml = new File( getBasedir(), "src/test/unit/jira-results.xml" );
+        File output = new File( getBasedir(), "target/jira-projects/jira-sorted.xml" );
+
+        JiraProjectsDownloader downloader = new JiraProjectsDownloader( 2, new SystemStreamLog() );
+        downloader.addDownloader( new CopyingDownloader( jiraXml, JiraProjectsDownloader.getOutput( output, 0 ) ) );
+        downloader.addDownloader( new CopyingDownloader( jiraXml, JiraProjectsDownloader.getOutput( output, 1 ) ) );
+
+        List issues = new ArrayList();
+        assertTrue( downloader.download( JiraXML.RELEASE_FIELDS, issues ) );
+        assertEquals( 2, issues.size() );
+    }
+
+    public void testDownloadNothing()
+    {
+        JiraProjectsDownloader downloader = new JiraProjectsDownloader( 2, new SystemStreamLog() );
+        downloader.addDownloader( new CopyingDownloader( null, new File( getBasedir(), "target/missing-1.xml" ) ) );
+        downloader.addDownloader( new CopyingDownloader( null, new File( getBasedir(), "target/missing-2.xml" ) ) );
+
+        assertNull( downloader.download( null ) );
+    }
+
+    public void testMergeIssues()
+    {
+        List first = Arrays.asList( new JiraIssue[] { createIssue( "A-1" ), createIssue( "A-2" ) } );
+        List second = Arrays.asList( new JiraIssue[] { createIssue( "A-2" ), createIssue( "B-1" ) } );
+        List issueLists = new ArrayList();
+        issueLists.add( first );
+        issueLists.add( second );
+
+        List issues = JiraProjectsDownloader.mergeIssues( issueLists );
+
+        assertEquals( 3, issues.size() );
+        assertEquals( "A-1", ( (JiraIssue) issues.get( 0 ) ).getKey() );
+        assertEquals( "A-2", ( (JiraIssue) issues.get( 1 ) ).getKey() );
+        assertEquals( "B-1", ( (JiraIssue) issues.get( 2 ) ).getKey() );
+    }
+
+    public void testProjects()
+    {
+        String project = " http://jira.codehaus.org/browse/MCHANGES  &status=6 ";
+        assertEquals( "http://jira.codehaus.org/browse/MCHANGES", JiraProjectsDownloader.getProjectUrl( project ) );
+        assertEquals( "&status=6", JiraProjectsDownloader.getProjectFilter( project, "default" ) );
+        assertEquals( "default", JiraProjectsDownloader.getProjectFilter( "http://jira/browse/X", "default" ) );
+    }
+
+    public void testGetOutput()
+    {
+        File output = new File( "target", "jira-results.xml" );
+        assertSame( output, JiraProjectsDownloader.getOutput( output, 0 ) );
+        assertEquals( new File( "target", "jira-results-2.xml" ), JiraProjectsDownloader.getOutput( output, 2 ) );
+        assertEquals( new File( "target", "results-1" ),
+                      JiraProjectsDownloader.getOutput( new File( "target", "results" ), 1 ) );
+    }
+}
@@ -0,0 +1,165 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import org.apache.maven.doxia.sink.SinkAdapter;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.reporting.MavenReportException;
+import org.codehaus.plexus.PlexusTestCase;
+
+/**
+ * @version $Id$
+ */
+public class JiraReportGeneratorTest
+    extends PlexusTestCase
+{
+    /**
+     * Records the text of the table cells that are written to it.
+     */
+    private static class CellRecordingSink
+        extends SinkAdapter
+    {
+        private List cells = new ArrayList();
+
+        private StringBuffer cell;
+
+        public void tableCell()
+        {
+            cell = new StringBuffer();
+        }
+
+        public void tableHeaderCell()
+        {
+            cell = new StringBuffer();
+        }
+
+        public void tableCell_()
+        {
+            cells.add( cell.toString() );
+            cell = null;
+        }
+
+        public void tableHeaderCell_()
+        {
+            tableCell_();
+        }
+
+        public void text( String text )
+        {
+            if ( cell != null )
+            {
+                cell.append( text );
+            }
+        }
+    }
+
+    private File getJiraXml()
+    {
+        return new File( getBasedir(), "src/test/unit/jira-results.xml" );
+    }
+
+    private ResourceBundle getBundle()
+    {
+        return ResourceBundle.getBundle( "jira-report", Locale.ENGLISH, JiraReportGenerator.class.getClassLoader() );
+    }
+
+    public void testColumnsInConfiguredOrder()
+        throws Exception
+    {
+        JiraReportGenerator generator =
+            new JiraReportGenerator( getJiraXml(), "Status, Key,Invalid,fix version", "2.0", false );
+        CellRecordingSink sink = new CellRecordingSink();
+
+        generator.doGenerateReport( getBundle(), sink, new SystemStreamLog() );
+
+        List expected = new ArrayList();
+        expected.add( "Status" );
+        expected.add( "Key" );
+        expected.add( "Fix Version" );
+        expected.add( "Closed" );
+        expected.add( "MCHANGES-2" );
+        expected.add( "2.1" );
+        expected.add( "Closed" );
+        expected.add( "MCHANGES-1" );
+        expected.add( "2.0" );
+        assertEquals( expected, sink.cells );
+    }
+
+    public void testVersionPages()
+        throws Exception
+    {
+        List issues = new JiraXML( getJiraXml() ).getIssueList();
+        JiraReportGenerator generator = new JiraReportGenerator( issues, "Key", "2.0", false );
+
+        Map issueCounts = JiraReportGenerator.getIssueCountsByFixVersion( issues );
+        assertEquals( Arrays.asList( new String[] { "2.1", "2.0" } ), new ArrayList( issueCounts.keySet() ) );
+
+        List versions = JiraReportGenerator.getLatestVersions( issueCounts.keySet(), 5 );
+        assertEquals( Arrays.asList( new String[] { "2.1", "2.0" } ), versions );
+
+        CellRecordingSink sink = new CellRecordingSink();
+        generator.doGenerateVersionIndex( getBundle(), sink, versions, issueCounts, "jira-report" );
+        assertEquals( Arrays.asList( new String[] { "Fix Version", "Issues", "2.1", "1", "2.0", "1" } ),
+                      sink.cells );
+
+        sink = new CellRecordingSink();
+        Collection versionIssues = JiraReportGenerator.getIssuesOfFixVersion( issues, issueCounts, "2.0" );
+        assertEquals( 1, versionIssues.size() );
+        generator.doGenerateVersionReport( getBundle(), sink, "2.0", versionIssues );
+        assertEquals( Arrays.asList( new String[] { "Key", "MCHANGES-1" } ), sink.cells );
+
+        assertTrue( JiraReportGenerator.getIssuesOfFixVersion( issues, issueCounts, "3.0" ).isEmpty() );
+    }
+
+    public void testGetLatestVersions()
+    {
+        List versions = Arrays.asList( new String[] { "1.9", "1.10", "2.0-beta-1", "2.0", "1.0" } );
+        assertEquals( Arrays.asList( new String[] { "2.0", "2.0-beta-1", "1.10" } ),
+                      JiraReportGenerator.getLatestVersions( versions, 3 ) );
+    }
+
+    public void testGetVersionPageName()
+    {
+        assertEquals( "jira-report-2.0-beta-1", JiraReportGenerator.getVersionPageName( "jira-report", "2.0-beta-1" ) );
+        assertEquals( "jira-report-Release_2_", JiraReportGenerator.getVersionPageName( "jira-report", "Release 2?" ) );
+    }
+
+    public void testNoValidColumns()
+    {
+        try
+        {
+            new JiraReportGenerator( getJiraXml(), "Foo,Bar", "2.0", false );
+            fail( "Expected a MavenReportException" );
+        }
+        catch ( MavenReportException e )
+        {
+            // expected
+        }
+    }
+}
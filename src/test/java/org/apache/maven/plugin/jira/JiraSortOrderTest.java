@@ -0,0 +1,70 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * @version $Id$
+ */
+public class JiraSortOrderTest
+    extends TestCase
+{
+    private static JiraIssue createIssue( String key, String priority, String fixVersion )
+    {
+        JiraIssue issue = new JiraIssue();
+        issue.setKey( key );
+        issue.setPriority( priority );
+        issue.setFixVersion( fixVersion );
+        return issue;
+    }
+
+    public void testJiraParameters()
+    {
+        JiraSortOrder sortOrder = JiraSortOrder.parse( "Priority DESC, Invalid, Created DESC", new SystemStreamLog() );
+
+        assertEquals( "&sorter/field=created&sorter/order=DESC&sorter/field=priority&sorter/order=DESC",
+                      sortOrder.getJiraParameters() );
+        assertEquals( new HashSet( Arrays.asList( new String[] { "priority" } ) ), sortOrder.getRequiredFields() );
+    }
+
+    public void testComparator()
+    {
+        Comparator comparator =
+            JiraSortOrder.parse( "Fix Version DESC, Priority DESC, Key ASC", new SystemStreamLog() )
+                .getComparator( new SystemStreamLog() );
+
+        JiraIssue[] issues =
+            new JiraIssue[] { createIssue( "A-10", "Minor", "1.10" ), createIssue( "A-9", "Minor", "1.10" ),
+                createIssue( "A-1", "Blocker", "1.9" ), createIssue( "A-2", "Major", "1.10" ) };
+        Arrays.sort( issues, comparator );
+
+        assertEquals( "A-2", issues[0].getKey() );
+        assertEquals( "A-9", issues[1].getKey() );
+        assertEquals( "A-10", issues[2].getKey() );
+        assertEquals( "A-1", issues[3].getKey() );
+    }
+}
@@ -0,0 +1,119 @@
+package org.apache.maven.plugin.jira;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.codehaus.plexus.PlexusTestCase;
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * @version $Id$
+ */
+public class JiraXMLTest
+    extends PlexusTestCase
+{
+    private File getJiraXml()
+    {
+        return new File( getBasedir(), "src/test/unit/jira-results.xml" );
+    }
+
+    public void testParseAllFields()
+    {
+        List issues = new JiraXML( getJiraXml() ).getIssueList();
+
+        assertEquals( 2, issues.size() );
+        JiraIssue issue = (JiraIssue) issues.get( 0 );
+        assertEquals( "MCHANGES-2", issue.getKey() );
+        assertEquals( "http://jira.codehaus.org/browse/MCHANGES-2", issue.getLink() );
+        assertEquals( "Second issue", issue.getSummary() );
+        assertEquals( "Closed", issue.getStatus() );
+        assertEquals( "2.1", issue.getFixVersion() );
+        assertEquals( 1, issue.getComments().size() );
+        assertEquals( "Fixed in trunk.", issue.getComments().get( 0 ) );
+    }
+
+    public void testParseReleaseFields()
+    {
+        List issues = new JiraXML( getJiraXml(), JiraXML.RELEASE_FIELDS ).getIssueList();
+
+        assertEquals( 2, issues.size() );
+        JiraIssue issue = (JiraIssue) issues.get( 0 );
+        assertEquals( "MCHANGES-2", issue.getKey() );
+        assertEquals( "Second issue", issue.getSummary() );
+        assertEquals( "Improvement", issue.getType() );
+        assertEquals( "Dennis Lundberg", issue.getAssignee() );
+        assertEquals( "2.1", issue.getFixVersion() );
+        assertNull( issue.getStatus() );
+        assertNull( issue.getLink() );
+        assertNull( issue.getComments() );
+
+        assertEquals( 2, JiraXML.getReleases( issues ).size() );
+    }
+
+    public void testParseIntoHandler()
+    {
+        final List keys = new ArrayList();
+        JiraXML jiraXML = new JiraXML( getJiraXml(), JiraXML.RELEASE_FIELDS, new JiraIssueHandler()
+        {
+            public void add( JiraIssue issue )
+            {
+                keys.add( issue.getKey() );
+            }
+        } );
+
+        assertNull( jiraXML.getIssueList() );
+        assertEquals( 2, keys.size() );
+        assertEquals( "MCHANGES-2", keys.get( 0 ) );
+        assertEquals( "MCHANGES-1", keys.get( 1 ) );
+    }
+
+    public void testParseGzipped()
+        throws IOException
+    {
+        File gzipped = new File( getBasedir(), "target/test-classes/jira-results.xml.gz" );
+        gzipped.getParentFile().mkdirs();
+        InputStream in = new FileInputStream( getJiraXml() );
+        OutputStream out = new GZIPOutputStream( new FileOutputStream( gzipped ) );
+        try
+        {
+            IOUtil.copy( in, out );
+        }
+        finally
+        {
+            IOUtil.close( in );
+            IOUtil.close( out );
+        }
+
+        List issues = new JiraXML( gzipped ).getIssueList();
+
+        assertEquals( 2, issues.size() );
+        assertEquals( "MCHANGES-2", ( (JiraIssue) issues.get( 0 ) ).getKey() );
+        assertEquals( "MCHANGES-1", ( (JiraIssue) issues.get( 1 ) ).getKey() );
+    }
+}
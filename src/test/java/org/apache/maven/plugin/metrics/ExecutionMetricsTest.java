@@ -0,0 +1,96 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class ExecutionMetricsTest
+    extends TestCase
+{
+    public void testPhasesAddUp()
+    {
+        ExecutionMetrics metrics = new ExecutionMetrics( "jira-report", "org.example:example:jar:1.0" );
+        assertEquals( -1, metrics.getPhaseDuration( "download" ) );
+
+        metrics.addPhaseDuration( "download", 100 );
+        metrics.addPhaseDuration( "download", 50 );
+        assertEquals( 150, metrics.getPhaseDuration( "download" ) );
+
+        metrics.startPhase( "parse" );
+        metrics.endPhase( "parse" );
+        assertTrue( metrics.getPhaseDuration( "parse" ) >= 0 );
+    }
+
+    public void testEndPhaseWithoutStart()
+    {
+        ExecutionMetrics metrics = new ExecutionMetrics( "jira-report", null );
+        metrics.endPhase( "render" );
+        assertEquals( -1, metrics.getPhaseDuration( "render" ) );
+    }
+
+    public void testCounts()
+    {
+        ExecutionMetrics metrics = new ExecutionMetrics( "changes-report", null );
+        assertEquals( 0, metrics.getCount( "releases" ) );
+
+        metrics.addCount( "releases", 2 );
+        metrics.addCount( "releases", 3 );
+        assertEquals( 5, metrics.getCount( "releases" ) );
+    }
+
+    public void testSummary()
+    {
+        ExecutionMetrics metrics = new ExecutionMetrics( "jira-report", null );
+        metrics.addPhaseDuration( "download", 2000 );
+        metrics.addPhaseDuration( "render", 30 );
+        metrics.addCount( "issues", 12 );
+        metrics.addCount( ExecutionMetrics.BYTES, 3 * 1024 * 1024 / 2 );
+        metrics.finish();
+
+        String summary = metrics.getSummary();
+        assertTrue( summary, summary.startsWith( "jira-report took " ) );
+        assertTrue( summary, summary.endsWith( " ms: download 2000 ms, render 30 ms; issues 12, bytes 1.5 MB" ) );
+    }
+
+    public void testJson()
+    {
+        ExecutionMetrics metrics = new ExecutionMetrics( "trac-report", "org.example:\"quoted\"" );
+        metrics.addPhaseDuration( "fetch", 10 );
+        metrics.addCount( "tickets", 4 );
+        metrics.finish();
+
+        List executions = new ArrayList();
+        executions.add( metrics );
+        String json = BuildMetrics.toJson( new Date( 1000 ), executions );
+
+        assertTrue( json, json.startsWith( "{\"buildStartTime\":1000,\"executions\":[" ) );
+        assertTrue( json, json.indexOf( "\"goal\":\"trac-report\"" ) != -1 );
+        assertTrue( json, json.indexOf( "\"project\":\"org.example:\\\"quoted\\\"\"" ) != -1 );
+        assertTrue( json, json.indexOf( "\"phases\":{\"fetch\":10}" ) != -1 );
+        assertTrue( json, json.indexOf( "\"counts\":{\"tickets\":4}" ) != -1 );
+    }
+}
@@ -0,0 +1,90 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class HttpMetricsTest
+    extends TestCase
+{
+    public void testNoRequests()
+    {
+        HttpMetrics metrics = new HttpMetrics();
+        assertEquals( 0, metrics.getRequests() );
+        assertEquals( 0, metrics.getLatencyPercentile( 50 ) );
+    }
+
+    public void testPercentiles()
+    {
+        HttpMetrics metrics = new HttpMetrics();
+        for ( int i = 0; i < 90; i++ )
+        {
+            metrics.recordResponse( 40, 200, 100, false );
+        }
+        for ( int i = 0; i < 9; i++ )
+        {
+            metrics.recordResponse( 800, 200, 100, false );
+        }
+        metrics.recordFailure( 70000 );
+
+        assertEquals( 100, metrics.getRequests() );
+        assertEquals( 1, metrics.getFailures() );
+        assertEquals( 50, metrics.getLatencyPercentile( 50 ) );
+        assertEquals( 50, metrics.getLatencyPercentile( 90 ) );
+        assertEquals( 1000, metrics.getLatencyPercentile( 99 ) );
+        assertEquals( 70000, metrics.getLatencyPercentile( 100 ) );
+    }
+
+    public void testPercentileIsNotAboveSlowestRequest()
+    {
+        HttpMetrics metrics = new HttpMetrics();
+        metrics.recordResponse( 120, 200, -1, false );
+        assertEquals( 120, metrics.getLatencyPercentile( 50 ) );
+    }
+
+    public void testStatusCodesSizesAndRedirects()
+    {
+        HttpMetrics metrics = new HttpMetrics();
+        metrics.recordResponse( 5, 302, 0, false );
+        metrics.recordResponse( 5, 200, 2048, true );
+        metrics.recordResponse( 5, 200, -1, false );
+        metrics.setProxy( "proxy.example.org:8080" );
+
+        assertEquals( 1, metrics.getStatusCount( 302 ) );
+        assertEquals( 2, metrics.getStatusCount( 200 ) );
+        assertEquals( 0, metrics.getStatusCount( 404 ) );
+        assertEquals( 2048, metrics.getBytes() );
+        assertEquals( 2, metrics.getRedirects() );
+
+        String summary = metrics.getSummary();
+        assertTrue( summary, summary.startsWith( "HTTP 3 requests, 0 failed" ) );
+        assertTrue( summary, summary.indexOf( "2.0 kB and 1 responses of unknown size" ) != -1 );
+        assertTrue( summary, summary.indexOf( "status 200 x2, 302 x1" ) != -1 );
+        assertTrue( summary, summary.endsWith( "2 redirects; proxy proxy.example.org:8080" ) );
+
+        StringBuffer json = new StringBuffer();
+        metrics.appendJson( json );
+        assertTrue( json.toString(), json.indexOf( "\"statusCodes\":{\"200\":2,\"302\":1}" ) != -1 );
+        assertTrue( json.toString(), json.indexOf( "\"proxy\":\"proxy.example.org:8080\"" ) != -1 );
+    }
+}
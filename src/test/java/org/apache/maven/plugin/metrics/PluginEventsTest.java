@@ -0,0 +1,126 @@
+package org.apache.maven.plugin.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * @version $Id$
+ */
+public class PluginEventsTest
+    extends TestCase
+{
+    private final List events = new ArrayList();
+
+    private final PluginEventListener listener = new PluginEventListener()
+    {
+        public void eventCommitted( PluginEvent event )
+        {
+            events.add( event );
+        }
+    };
+
+    protected void tearDown()
+        throws Exception
+    {
+        PluginEvents.removeListener( listener );
+        super.tearDown();
+    }
+
+    public void testDisabledWithoutListeners()
+    {
+        PluginEvent first = PluginEvent.begin( PluginEvent.DOWNLOAD, "http://jira.example.org" );
+        PluginEvent second = PluginEvent.begin( PluginEvent.PARSE, "jira-results.xml" );
+
+        assertFalse( first.isEnabled() );
+        assertSame( first, second );
+
+        first.setBytes( 100 );
+        first.commit();
+        assertEquals( -1, first.getBytes() );
+        assertEquals( -1, first.getDuration() );
+    }
+
+    public void testCommitReachesListeners()
+    {
+        PluginEvents.addListener( listener );
+
+        PluginEvent event = PluginEvent.begin( PluginEvent.DOWNLOAD, "http://jira.example.org" );
+        assertTrue( event.isEnabled() );
+        event.setBytes( 2048 );
+        event.setItemCount( 12 );
+        assertTrue( events.isEmpty() );
+
+        event.commit();
+
+        assertEquals( 1, events.size() );
+        PluginEvent committed = (PluginEvent) events.get( 0 );
+        assertEquals( PluginEvent.DOWNLOAD, committed.getType() );
+        assertEquals( "http://jira.example.org", committed.getSource() );
+        assertEquals( 2048, committed.getBytes() );
+        assertEquals( 12, committed.getItemCount() );
+        assertTrue( committed.getDuration() >= 0 );
+        assertEquals( Thread.currentThread().getName(), committed.getThreadName() );
+    }
+
+    public void testFailingListener()
+    {
+        PluginEventListener failing = new PluginEventListener()
+        {
+            public void eventCommitted( PluginEvent event )
+            {
+                throw new IllegalStateException( "failing listener" );
+            }
+        };
+        PluginEvents.addListener( failing );
+        PluginEvents.addListener( listener );
+        try
+        {
+            PluginEvent.begin( PluginEvent.MAIL, "localhost:25" ).commit();
+        }
+        finally
+        {
+            PluginEvents.removeListener( failing );
+        }
+
+        assertEquals( 1, events.size() );
+
+        final List warnings = new ArrayList();
+        SystemStreamLog log = new SystemStreamLog()
+        {
+            public void warn( CharSequence content )
+            {
+                warnings.add( content.toString() );
+            }
+        };
+        PluginEvents.reportFailures( log );
+        assertEquals( 1, warnings.size() );
+        assertTrue( (String) warnings.get( 0 ), ( (String) warnings.get( 0 ) ).indexOf( "failing listener" ) != -1 );
+
+        // The failure is only reported once
+        PluginEvents.reportFailures( log );
+        assertEquals( 1, warnings.size() );
+    }
+}
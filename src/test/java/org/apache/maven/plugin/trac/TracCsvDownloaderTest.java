@@ -0,0 +1,122 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class TracCsvDownloaderTest
+    extends TestCase
+{
+    public void testIsExportable()
+    {
+        assertTrue( TracCsvDownloader.isExportable( "id, Summary,owner,status" ) );
+        assertTrue( TracCsvDownloader.isExportable( "id,type,summary,owner,reporter,priority,status,resolution,"
+            + "created,changed" ) );
+        assertFalse( TracCsvDownloader.isExportable( "id,keywords" ) );
+    }
+
+    public void testGetQueryUrl()
+    {
+        assertEquals( "http://trac.example.org/query?format=csv&col=id&col=type&col=summary&col=status"
+            + "&col=resolution&col=milestone&col=owner&col=priority&col=reporter&col=component&col=time"
+            + "&col=changetime"
+            + "&milestone=Version%201.0&order=id&max=0",
+                      TracCsvDownloader.getQueryUrl( "http://trac.example.org", "milestone=Version 1.0&order=id" ) );
+        assertTrue( TracCsvDownloader.getQueryUrl( "http://trac.example.org", "max=10" ).endsWith( "&max=10" ) );
+        assertTrue( TracCsvDownloader.getQueryUrl( "http://trac.example.org", null ).endsWith( "&max=0" ) );
+    }
+
+    public void testParseTickets()
+        throws IOException
+    {
+        String csv = "\uFEFFid,type,summary,status,resolution,milestone,owner,unknown\r\n"
+            + "12,defect,\"Fails, sometimes\",closed,fixed,1.0,dev,x\r\n" + "7,task,Document it,new,,,,\r\n";
+
+        List tickets = TracCsvDownloader.parseTickets( new StringReader( csv ), "http://trac.example.org" );
+
+        assertEquals( 2, tickets.size() );
+        TracTicket ticket = (TracTicket) tickets.get( 0 );
+        assertEquals( "12", ticket.getId() );
+        assertEquals( "http://trac.example.org/ticket/12", ticket.getLink() );
+        assertEquals( "defect", ticket.getType() );
+        assertEquals( "Fails, sometimes", ticket.getSummary() );
+        assertEquals( "closed", ticket.getStatus() );
+        assertEquals( "fixed", ticket.getResolution() );
+        assertEquals( "1.0", ticket.getMilestone() );
+        assertEquals( "dev", ticket.getOwner() );
+
+        ticket = (TracTicket) tickets.get( 1 );
+        assertEquals( "7", ticket.getId() );
+        assertNull( ticket.getResolution() );
+        assertNull( ticket.getMilestone() );
+        assertNull( ticket.getTimeCreated() );
+    }
+
+    public void testParseTimes()
+        throws IOException, ParseException
+    {
+        String csv = "id,time,changetime\r\n" + "1,2008-01-02T03:04:05+01:00,2008-01-03T00:00:00Z\r\n"
+            + "2,2008-01-02 03:04:05,\r\n";
+
+        List tickets = TracCsvDownloader.parseTickets( new StringReader( csv ), "http://trac.example.org" );
+
+        TracTicket ticket = (TracTicket) tickets.get( 0 );
+        assertEquals( date( "2008-01-02 02:04:05", TimeZone.getTimeZone( "UTC" ) ), ticket.getTimeCreated() );
+        assertEquals( date( "2008-01-03 00:00:00", TimeZone.getTimeZone( "UTC" ) ), ticket.getTimeChanged() );
+
+        ticket = (TracTicket) tickets.get( 1 );
+        assertEquals( date( "2008-01-02 03:04:05", TimeZone.getDefault() ), ticket.getTimeCreated() );
+        assertNull( ticket.getTimeChanged() );
+    }
+
+    public void testParseUnknownTime()
+    {
+        String csv = "id,time\r\n" + "1,01/02/08 03:04:05\r\n";
+        try
+        {
+            TracCsvDownloader.parseTickets( new StringReader( csv ), "http://trac.example.org" );
+            fail( "The time is not in a known format" );
+        }
+        catch ( IOException e )
+        {
+            assertTrue( e.getMessage().indexOf( "01/02/08 03:04:05" ) != -1 );
+        }
+    }
+
+    private static Date date( String text, TimeZone timeZone )
+        throws ParseException
+    {
+        DateFormat format = new SimpleDateFormat( "yyyy-MM-dd HH:mm:ss" );
+        format.setTimeZone( timeZone );
+        return format.parse( text );
+    }
+}
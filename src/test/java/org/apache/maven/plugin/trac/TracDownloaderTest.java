@@ -0,0 +1,112 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.httpclient.UsernamePasswordCredentials;
+import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.maven.plugin.http.PooledHttpTransport;
+import org.apache.maven.plugins.changes.model.Action;
+import org.apache.maven.plugins.changes.model.Release;
+import org.apache.xmlrpc.client.XmlRpcClient;
+import org.apache.xmlrpc.client.XmlRpcClientConfigImpl;
+
+/**
+ * @version $Id$
+ */
+public class TracDownloaderTest
+    extends TestCase
+{
+    private static TracTicket createTicket( String id, String type, String milestone )
+    {
+        TracTicket ticket = new TracTicket();
+        ticket.setId( id );
+        ticket.setType( type );
+        ticket.setMilestone( milestone );
+        ticket.setOwner( "dev" );
+        ticket.setSummary( "Ticket " + id );
+        return ticket;
+    }
+
+    public void testCreateClientWithTransport()
+        throws Exception
+    {
+        PooledHttpTransport transport = new PooledHttpTransport();
+        try
+        {
+            XmlRpcClient client =
+                TracDownloader.createClient( "http://trac.example.org", "user", "secret", 1000, 1000, transport );
+
+            XmlRpcClientConfigImpl config = (XmlRpcClientConfigImpl) client.getClientConfig();
+            assertNull( config.getBasicUserName() );
+            UsernamePasswordCredentials credentials =
+                (UsernamePasswordCredentials) transport.getState().getCredentials( AuthScope.ANY );
+            assertEquals( "user", credentials.getUserName() );
+            assertEquals( "secret", credentials.getPassword() );
+        }
+        finally
+        {
+            transport.close();
+        }
+    }
+
+    public void testCreateClientWithoutTransport()
+        throws Exception
+    {
+        XmlRpcClient client =
+            TracDownloader.createClient( "http://trac.example.org", "user", "secret", 1000, 1000, null );
+
+        XmlRpcClientConfigImpl config = (XmlRpcClientConfigImpl) client.getClientConfig();
+        assertEquals( "http://trac.example.org/login/xmlrpc", config.getServerURL().toString() );
+        assertEquals( "user", config.getBasicUserName() );
+    }
+
+    public void testGetReleases()
+    {
+        List tickets = new ArrayList();
+        tickets.add( createTicket( "1", "defect", "1.1" ) );
+        tickets.add( createTicket( "2", "enhancement", "1.0" ) );
+        tickets.add( createTicket( "3", "task", "1.1" ) );
+        tickets.add( createTicket( "4", "defect", null ) );
+        tickets.add( createTicket( "5", "defect", "" ) );
+
+        List releases = TracDownloader.getReleases( tickets );
+
+        assertEquals( 2, releases.size() );
+        Release release = (Release) releases.get( 0 );
+        assertEquals( "1.1", release.getVersion() );
+        assertEquals( 2, release.getActions().size() );
+
+        Action action = (Action) release.getActions().get( 0 );
+        assertEquals( "1", action.getIssue() );
+        assertEquals( "fix", action.getType() );
+        assertEquals( "dev", action.getDev() );
+        assertEquals( "Ticket 1", action.getAction() );
+        assertEquals( "update", ( (Action) release.getActions().get( 1 ) ).getType() );
+
+        release = (Release) releases.get( 1 );
+        assertEquals( "1.0", release.getVersion() );
+        assertEquals( "add", ( (Action) release.getActions().get( 0 ) ).getType() );
+    }
+}
@@ -0,0 +1,134 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * @version $Id$
+ */
+public class TracTicketDecoderTest
+    extends TestCase
+{
+    public void testDecode()
+    {
+        Map attributes = new HashMap();
+        attributes.put( "type", "defect" );
+        attributes.put( "summary", "Broken link" );
+        attributes.put( "status", "closed" );
+        attributes.put( "milestone", "1.0" );
+        attributes.put( "owner", "dev" );
+        Date changed = new Date( 1200000000123L );
+
+        TracTicket ticket = new TracTicketDecoder( "http://trac.example.org" ).decode(
+            new Object[] { new Integer( 42 ), new Integer( 1100000000 ), changed, attributes } );
+
+        assertEquals( "42", ticket.getId() );
+        assertEquals( "http://trac.example.org/ticket/42", ticket.getLink() );
+        assertEquals( new Date( 1100000000000L ), ticket.getTimeCreated() );
+        assertEquals( changed, ticket.getTimeChanged() );
+        assertEquals( "defect", ticket.getType() );
+        assertEquals( "Broken link", ticket.getSummary() );
+        assertEquals( "closed", ticket.getStatus() );
+        assertEquals( "1.0", ticket.getMilestone() );
+        assertEquals( "dev", ticket.getOwner() );
+        assertNull( ticket.getResolution() );
+    }
+
+    public void testDecodeInvalid()
+    {
+        try
+        {
+            new TracTicketDecoder( "http://trac.example.org" ).decode( new Object[] { "1" } );
+            fail( "Expected an IllegalArgumentException" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // expected
+        }
+    }
+
+    public void testParseDate()
+    {
+        Date date = new Date( 1200000000000L );
+
+        assertNull( TracTicketDecoder.parseDate( null ) );
+        assertSame( date, TracTicketDecoder.parseDate( date ) );
+        assertEquals( date, TracTicketDecoder.parseDate( "1200000000" ) );
+        assertEquals( date, TracTicketDecoder.parseDate( new Long( 1200000000L ) ) );
+        assertEquals( date, TracTicketDecoder.parseDate( date.toString() ) );
+
+        try
+        {
+            TracTicketDecoder.parseDate( "yesterday" );
+            fail( "Expected an IllegalArgumentException" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // expected
+        }
+    }
+
+    public void testParseDateInThreads()
+        throws InterruptedException
+    {
+        final Date[] dates = new Date[8];
+        final Throwable[] failures = new Throwable[1];
+        Thread[] threads = new Thread[dates.length];
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            dates[i] = new Date( 1000000000000L + i * 86400000L );
+            final Date date = dates[i];
+            threads[i] = new Thread()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        for ( int j = 0; j < 200; j++ )
+                        {
+                            assertEquals( date, TracTicketDecoder.parseDate( date.toString() ) );
+                        }
+                    }
+                    catch ( Throwable t )
+                    {
+                        synchronized ( failures )
+                        {
+                            failures[0] = t;
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for ( int i = 0; i < threads.length; i++ )
+        {
+            threads[i].join();
+        }
+        synchronized ( failures )
+        {
+            assertNull( String.valueOf( failures[0] ), failures[0] );
+        }
+    }
+}
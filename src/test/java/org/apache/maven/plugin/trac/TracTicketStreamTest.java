@@ -0,0 +1,155 @@
+package org.apache.maven.plugin.trac;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import junit.framework.TestCase;
+
+import org.apache.xmlrpc.XmlRpcException;
+
+/**
+ * @version $Id$
+ */
+public class TracTicketStreamTest
+    extends TestCase
+{
+    /**
+     * Creates the tickets instead of calling Trac. Tickets with a lower id take longer, so they arrive out of order.
+     */
+    private static class FakeDownloader
+        extends TracDownloader
+    {
+        private final int failingId;
+
+        private int fetched;
+
+        FakeDownloader( int failingId )
+        {
+            super( "http://trac.example.org", null );
+            this.failingId = failingId;
+        }
+
+        public TracTicket getTicket( Object ticketId )
+            throws XmlRpcException
+        {
+            int id = ( (Integer) ticketId ).intValue();
+            try
+            {
+                Thread.sleep( ( id % 4 ) * 5 );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            if ( id == failingId )
+            {
+                throw new XmlRpcException( "Ticket " + id + " is gone" );
+            }
+
+            TracTicket ticket = new TracTicket();
+            ticket.setId( String.valueOf( id ) );
+            synchronized ( this )
+            {
+                fetched++;
+            }
+            return ticket;
+        }
+
+        synchronized int getFetched()
+        {
+            return fetched;
+        }
+    }
+
+    private static Object[] createIds( int count )
+    {
+        Object[] ids = new Object[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            ids[i] = new Integer( count - i );
+        }
+        return ids;
+    }
+
+    public void testOrder()
+        throws XmlRpcException
+    {
+        Object[] ids = createIds( 50 );
+        TracTicketStream stream = new FakeDownloader( -1 ).streamTickets( ids, 4, 8 );
+        try
+        {
+            for ( int i = 0; i < ids.length; i++ )
+            {
+                assertTrue( stream.hasNext() );
+                assertEquals( String.valueOf( ids[i] ), ( (TracTicket) stream.next() ).getId() );
+            }
+            assertFalse( stream.hasNext() );
+            stream.checkFailure();
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    public void testWindow()
+        throws InterruptedException
+    {
+        FakeDownloader downloader = new FakeDownloader( -1 );
+        TracTicketStream stream = downloader.streamTickets( createIds( 50 ), 4, 8 );
+        try
+        {
+            assertTrue( stream.hasNext() );
+            stream.next();
+            // Give the workers time to fill the window
+            Thread.sleep( 200 );
+            assertTrue( "fetched " + downloader.getFetched(), downloader.getFetched() <= 9 );
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+
+    public void testFailure()
+    {
+        Object[] ids = createIds( 20 );
+        TracTicketStream stream = new FakeDownloader( 10 ).streamTickets( ids, 3, 5 );
+        try
+        {
+            int count = 0;
+            while ( stream.hasNext() )
+            {
+                assertEquals( String.valueOf( ids[count] ), ( (TracTicket) stream.next() ).getId() );
+                count++;
+            }
+            assertTrue( "returned " + count, count <= 10 );
+            stream.checkFailure();
+            fail( "Expected an XmlRpcException" );
+        }
+        catch ( XmlRpcException e )
+        {
+            assertEquals( "Ticket 10 is gone", e.getMessage() );
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+}